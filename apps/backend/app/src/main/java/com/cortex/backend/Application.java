@@ -1,5 +1,6 @@
 package com.cortex.backend;
 
+import com.cortex.backend.core.common.startup.StartupTaskTracker;
 import com.cortex.backend.user.api.CountryService;
 import com.cortex.backend.user.api.RoleService;
 import com.cortex.backend.core.domain.Role;
@@ -26,27 +27,32 @@ public class Application {
   }
 
   @Bean
-  public CommandLineRunner runner(RoleService roleService, CountryService countryService) {
+  public CommandLineRunner runner(RoleService roleService, CountryService countryService,
+      StartupTaskTracker startupTaskTracker) {
     return args -> {
-      // Initialize roles
-      List<String> roleNames = List.of("USER", "ADMIN", "MODERATOR", "MENTOR");
-      for (String roleName : roleNames) {
-        try {
-          if (roleService.findByName(roleName).isEmpty()) {
-            Role role = Role.builder().name(roleName).build();
-            roleService.saveRole(role);
-            log.info("Role created: {}", roleName);
-          } else {
-            log.info("Role already exists: {}", roleName);
-          }
-        } catch (Exception e) {
-          log.error("Error creating role {}: {}", roleName, e.getMessage());
+      // Roles are needed by auth right away, so they are initialized inline
+      startupTaskTracker.run("roles", () -> initializeRoles(roleService));
+      // Countries can be loaded in the background
+      startupTaskTracker.submit("countries", countryService::initializeCountries);
+    };
+  }
+
+  private void initializeRoles(RoleService roleService) {
+    List<String> roleNames = List.of("USER", "ADMIN", "MODERATOR", "MENTOR");
+    for (String roleName : roleNames) {
+      try {
+        if (roleService.findByName(roleName).isEmpty()) {
+          Role role = Role.builder().name(roleName).build();
+          roleService.saveRole(role);
+          log.info("Role created: {}", roleName);
+        } else {
+          log.info("Role already exists: {}", roleName);
         }
+      } catch (Exception e) {
+        log.error("Error creating role {}: {}", roleName, e.getMessage());
       }
-      log.info("Roles initialization completed");
-      // Initialize countries
-      countryService.initializeCountries();
-    };
+    }
+    log.info("Roles initialization completed");
   }
 
 
@@ -45,6 +45,7 @@ public class SecurityConfig {
             req ->
                 req.requestMatchers(
                         "/auth/**",
+                        "/webhooks/**",
                         "/login",
                         "/oauth2/**",
                         "/login/**",
@@ -5,6 +5,7 @@ import static org.springframework.http.HttpStatus.FORBIDDEN;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.NOT_IMPLEMENTED;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 
 import lombok.Getter;
@@ -43,6 +44,9 @@ public enum BusinessErrorCodes {
   CONTENT_CHANGED(321, BAD_REQUEST, "Content has changed since submission"),
   CODE_EXECUTION_FAILED(322, INTERNAL_SERVER_ERROR, "Code execution failed"),
   CONTAINER_EXECUTION_FAILED(323, INTERNAL_SERVER_ERROR, "Container execution failed"),
+  ENGINE_NOT_READY(324, SERVICE_UNAVAILABLE, "Code execution engine is still starting up"),
+  INVALID_WEBHOOK_SIGNATURE(325, UNAUTHORIZED, "Invalid webhook signature"),
+  INVALID_WEBHOOK_PAYLOAD(326, BAD_REQUEST, "Invalid webhook payload"),
   ;
   private final int code;
   private final String description;
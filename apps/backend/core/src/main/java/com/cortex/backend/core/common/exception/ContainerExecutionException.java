@@ -2,6 +2,10 @@ package com.cortex.backend.core.common.exception;
 
 public class ContainerExecutionException extends RuntimeException {
 
+  public ContainerExecutionException(String message) {
+    super(message);
+  }
+
   public ContainerExecutionException(String message, Throwable cause) {
     super(message, cause);
   }
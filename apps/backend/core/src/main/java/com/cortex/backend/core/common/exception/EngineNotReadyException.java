@@ -0,0 +1,8 @@
+package com.cortex.backend.core.common.exception;
+
+public class EngineNotReadyException extends RuntimeException {
+
+  public EngineNotReadyException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package com.cortex.backend.core.common.exception;
+
+public class InvalidWebhookPayloadException extends RuntimeException {
+
+  public InvalidWebhookPayloadException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package com.cortex.backend.core.common.exception;
+
+public class InvalidWebhookSignatureException extends RuntimeException {
+
+  public InvalidWebhookSignatureException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package com.cortex.backend.core.common.exception;
+
+public class PlatformFaultException extends RuntimeException {
+
+  public PlatformFaultException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,160 @@
+package com.cortex.backend.core.common.startup;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs application startup work as named phases and keeps track of their state and timings. Heavy
+ * phases are submitted to a background executor so the node can start serving requests while they
+ * complete; features that depend on a phase can check {@link #isCompleted(String...)} before
+ * serving.
+ *
+ * <p>A background phase that fails is retried with exponential backoff, from
+ * {@code startup.retry.initial-delay-ms} up to {@code startup.retry.max-delay-ms}, until it
+ * completes, so a dependency that is unreachable at boot only delays the features gated on it.
+ */
+@Component
+@Slf4j
+public class StartupTaskTracker {
+
+  private final ExecutorService executor =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("startup-", 0).factory());
+
+  private final Map<String, PhaseStatus> phases = Collections.synchronizedMap(
+      new LinkedHashMap<>());
+
+  @Value("${startup.retry.initial-delay-ms:5000}")
+  private long retryInitialDelayMs = 5000;
+
+  @Value("${startup.retry.max-delay-ms:300000}")
+  private long retryMaxDelayMs = 300000;
+
+  /**
+   * Runs a startup phase on the calling thread and records its timing.
+   *
+   * @param phase the name of the phase
+   * @param task  the work to run
+   */
+  public void run(String phase, Runnable task) {
+    execute(phase, task, 1);
+  }
+
+  /**
+   * Submits a startup phase to the background executor, retrying it until it completes. The task
+   * must be safe to run again after a failure.
+   *
+   * @param phase the name of the phase
+   * @param task  the work to run
+   * @return a future that completes when the phase has completed, or the node stops retrying it
+   */
+  public CompletableFuture<Void> submit(String phase, Runnable task) {
+    phases.put(phase, PhaseStatus.pending());
+    return CompletableFuture.runAsync(() -> executeWithRetry(phase, task), executor);
+  }
+
+  /**
+   * Checks whether all the given phases have completed successfully.
+   *
+   * @param phaseNames the phases to check
+   * @return true if every phase has completed
+   */
+  public boolean isCompleted(String... phaseNames) {
+    return Arrays.stream(phaseNames)
+        .map(phases::get)
+        .allMatch(status -> status != null && status.state() == PhaseState.COMPLETED);
+  }
+
+  /**
+   * Returns the status of a single phase.
+   *
+   * @param phase the name of the phase
+   * @return the phase status, or {@code null} if the phase has not been registered
+   */
+  public PhaseStatus getStatus(String phase) {
+    return phases.get(phase);
+  }
+
+  /**
+   * Returns a snapshot of all registered phases in registration order.
+   *
+   * @return the phases and their status
+   */
+  public Map<String, PhaseStatus> getPhases() {
+    synchronized (phases) {
+      return Collections.unmodifiableMap(new LinkedHashMap<>(phases));
+    }
+  }
+
+  private void executeWithRetry(String phase, Runnable task) {
+    long delay = retryInitialDelayMs;
+    for (int attempt = 1; !execute(phase, task, attempt); attempt++) {
+      log.info("Retrying startup phase '{}' in {} ms", phase, delay);
+      try {
+        Thread.sleep(delay);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      delay = Math.min(delay * 2, retryMaxDelayMs);
+    }
+  }
+
+  private boolean execute(String phase, Runnable task, int attempt) {
+    long start = System.nanoTime();
+    phases.put(phase, PhaseStatus.running(attempt));
+    log.info("Startup phase '{}' started", phase);
+    try {
+      task.run();
+      long elapsed = elapsedMillis(start);
+      phases.put(phase, PhaseStatus.completed(elapsed, attempt));
+      log.info("Startup phase '{}' completed in {} ms", phase, elapsed);
+      return true;
+    } catch (Exception e) {
+      long elapsed = elapsedMillis(start);
+      phases.put(phase, PhaseStatus.failed(elapsed, e.getMessage(), attempt));
+      log.error("Startup phase '{}' failed after {} ms (attempt {})", phase, elapsed, attempt, e);
+      return false;
+    }
+  }
+
+  private long elapsedMillis(long start) {
+    return (System.nanoTime() - start) / 1_000_000;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  public enum PhaseState {
+    PENDING, RUNNING, COMPLETED, FAILED
+  }
+
+  public record PhaseStatus(PhaseState state, Long durationMs, String error, int attempts) {
+
+    static PhaseStatus pending() {
+      return new PhaseStatus(PhaseState.PENDING, null, null, 0);
+    }
+
+    static PhaseStatus running(int attempt) {
+      return new PhaseStatus(PhaseState.RUNNING, null, null, attempt);
+    }
+
+    static PhaseStatus completed(long durationMs, int attempts) {
+      return new PhaseStatus(PhaseState.COMPLETED, durationMs, null, attempts);
+    }
+
+    static PhaseStatus failed(long durationMs, String error, int attempts) {
+      return new PhaseStatus(PhaseState.FAILED, durationMs, error, attempts);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.cortex.backend.core.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Submitted source code, stored once per distinct content. The key is the hex SHA-256 of the
+ * UTF-8 source and the content is gzip-compressed; submissions reference their code by hash.
+ */
+@Entity
+@Table(name = "code_blob")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodeBlob {
+
+  @Id
+  @Column(length = 64)
+  private String hash;
+
+  @Column(nullable = false, columnDefinition = "bytea")
+  private byte[] content;
+
+  /** Size of the uncompressed source in bytes. */
+  @Column(nullable = false)
+  private Integer size;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+}
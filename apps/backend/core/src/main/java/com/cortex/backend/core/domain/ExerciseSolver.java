@@ -0,0 +1,32 @@
+package com.cortex.backend.core.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A user that has passed an exercise at least once, kept so {@link ExerciseStats#getSolvers()}
+ * counts each user once however often their solution passes or fails afterwards.
+ */
+@Entity
+@Table(name = "exercise_solver")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExerciseSolver {
+
+  @EmbeddedId
+  private ExerciseSolverKey id;
+
+  @Column(name = "solved_at", nullable = false)
+  private LocalDateTime solvedAt;
+}
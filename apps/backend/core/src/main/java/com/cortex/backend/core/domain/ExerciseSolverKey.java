@@ -0,0 +1,27 @@
+package com.cortex.backend.core.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+@EqualsAndHashCode
+public class ExerciseSolverKey implements Serializable {
+
+  @Column(name = "exercise_id")
+  private Long exerciseId;
+
+  @Column(name = "user_id")
+  private Long userId;
+}
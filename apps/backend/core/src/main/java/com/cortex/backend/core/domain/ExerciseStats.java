@@ -0,0 +1,44 @@
+package com.cortex.backend.core.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Running totals of the graded runs of an exercise. The rows are only ever incremented, as
+ * results are written, so reading them never scans submissions. The distributions of run time and
+ * memory are kept in {@link ExerciseStatsBucket}.
+ */
+@Entity
+@Table(name = "exercise_stats")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExerciseStats {
+
+  @Id
+  @Column(name = "exercise_id")
+  private Long exerciseId;
+
+  @Column(nullable = false)
+  private Long attempts;
+
+  @Column(nullable = false)
+  private Long passed;
+
+  /** Distinct users that passed the exercise, see {@link ExerciseSolver}. */
+  @Column(nullable = false)
+  private Long solvers;
+
+  @Column(name = "updated_at", nullable = false)
+  private LocalDateTime updatedAt;
+}
@@ -0,0 +1,32 @@
+package com.cortex.backend.core.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One bucket of the histogram of a metric of an exercise's runs. Buckets grow geometrically, so a
+ * histogram has a bounded relative error whatever the range of values, and histograms merge by
+ * adding the samples of equal buckets.
+ */
+@Entity
+@Table(name = "exercise_stats_bucket")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExerciseStatsBucket {
+
+  @EmbeddedId
+  private ExerciseStatsBucketKey id;
+
+  @Column(nullable = false)
+  private Long samples;
+}
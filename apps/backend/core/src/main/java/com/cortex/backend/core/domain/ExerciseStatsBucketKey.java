@@ -0,0 +1,30 @@
+package com.cortex.backend.core.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+@EqualsAndHashCode
+public class ExerciseStatsBucketKey implements Serializable {
+
+  @Column(name = "exercise_id")
+  private Long exerciseId;
+
+  @Column(name = "metric", length = 16)
+  private String metric;
+
+  @Column(name = "bucket")
+  private Integer bucket;
+}
@@ -0,0 +1,84 @@
+package com.cortex.backend.core.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * A run that re-executes the latest submission of every solution of a set of exercises. The job
+ * walks submissions in id order and stores the last processed id, so it can resume after a
+ * restart.
+ *
+ * <p>A job is run by the node that claimed it, which keeps {@code heartbeat_at} current; another
+ * node may take it over once the heartbeat is older than the claim timeout. Jobs started by a sync
+ * are unique per commit, since every node syncs the same commit.
+ */
+@Entity
+@Table(name = "regrade_job", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_regrade_job_commit", columnNames = {"commit_id", "triggered_by"})
+})
+@Getter
+@Setter
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegradeJob extends BaseEntity {
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private RegradeJobStatus status;
+
+  /**
+   * Comma-separated ids of the exercises to regrade.
+   */
+  @Column(name = "exercise_ids", nullable = false, columnDefinition = "TEXT")
+  private String exerciseIds;
+
+  /**
+   * What started the job: {@code admin} or {@code sync}.
+   */
+  @Column(name = "triggered_by", nullable = false)
+  private String triggeredBy;
+
+  @Column(name = "commit_id")
+  private String commitId;
+
+  @Column(name = "last_submission_id", nullable = false)
+  private Long lastSubmissionId;
+
+  @Column(nullable = false)
+  private Integer processed;
+
+  @Column(nullable = false)
+  private Integer changed;
+
+  @Column(nullable = false)
+  private Integer failed;
+
+  @Column(name = "started_at")
+  private LocalDateTime startedAt;
+
+  @Column(name = "finished_at")
+  private LocalDateTime finishedAt;
+
+  @Column(columnDefinition = "TEXT")
+  private String error;
+
+  /**
+   * The node running the job, {@code null} while nobody has claimed it.
+   */
+  @Column
+  private String owner;
+
+  @Column(name = "heartbeat_at")
+  private LocalDateTime heartbeatAt;
+}
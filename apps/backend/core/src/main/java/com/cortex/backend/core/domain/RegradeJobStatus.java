@@ -0,0 +1,5 @@
+package com.cortex.backend.core.domain;
+
+public enum RegradeJobStatus {
+  PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -16,7 +17,10 @@ import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "solution")
+@Table(name = "solution", indexes = {
+    @Index(name = "idx_solution_user_exercise", columnList = "user_id, exercise_id"),
+    @Index(name = "idx_solution_exercise_id", columnList = "exercise_id")
+})
 @Getter
 @Setter
 @SuperBuilder
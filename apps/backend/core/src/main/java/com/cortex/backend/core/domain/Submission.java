@@ -3,9 +3,11 @@ package com.cortex.backend.core.domain;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,7 +15,11 @@ import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "submission")
+@Table(name = "submission", indexes = {
+    @Index(name = "idx_submission_solution_id", columnList = "solution_id, id"),
+    @Index(name = "idx_submission_history", columnList = "solution_id, created_at, id, code_hash"),
+    @Index(name = "idx_submission_created_at", columnList = "created_at")
+})
 @Getter
 @Setter
 @SuperBuilder
@@ -21,9 +27,20 @@ import lombok.experimental.SuperBuilder;
 @AllArgsConstructor
 public class Submission extends BaseEntity {
 
-  @Column(nullable = false, columnDefinition = "TEXT")
+  /**
+   * Source of submissions written before code was stored in {@link CodeBlob}; {@code null} once
+   * the submission references its blob through {@link #codeHash}.
+   */
+  @Column(columnDefinition = "TEXT")
   private String code;
 
+  @Column(name = "code_hash", length = 64)
+  private String codeHash;
+
+  /** The execution task that ran the submission, to find its result once it left Redis. */
+  @Column(name = "task_id", unique = true)
+  private UUID taskId;
+
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "language_id", nullable = false)
   private Language language;
@@ -0,0 +1,70 @@
+package com.cortex.backend.core.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Output of the run of a submission, kept out of the {@code submission} table. The output streams
+ * are stored gzip-compressed and capped in size. {@link Submission} has no mapping to this table,
+ * so loading submissions never reads output bytes. The table is partitioned by month of
+ * {@code created_at} and its old partitions are archived, so the output of old submissions may be
+ * gone.
+ */
+@Entity
+@Table(name = "submission_output")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionOutput {
+
+  @Id
+  @Column(name = "submission_id")
+  private Long submissionId;
+
+  @MapsId
+  @OneToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "submission_id")
+  private Submission submission;
+
+  @Column(nullable = false)
+  private boolean success;
+
+  @Column(name = "execution_time_ms")
+  private Integer executionTimeMs;
+
+  @Column(name = "memory_used_kb")
+  private Integer memoryUsedKb;
+
+  @Column(columnDefinition = "bytea")
+  private byte[] stdout;
+
+  @Column(columnDefinition = "bytea")
+  private byte[] stderr;
+
+  /** Size of the stdout as produced, in bytes, before truncation and compression. */
+  @Column(name = "stdout_size")
+  private Integer stdoutSize;
+
+  @Column(name = "stderr_size")
+  private Integer stderrSize;
+
+  @Column(nullable = false)
+  private boolean truncated;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+}
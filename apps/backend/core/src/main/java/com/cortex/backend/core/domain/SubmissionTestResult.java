@@ -0,0 +1,45 @@
+package com.cortex.backend.core.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One test case of the run of a submission, in the order the test runner reported it.
+ */
+@Entity
+@Table(name = "submission_test_result")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionTestResult {
+
+  @EmbeddedId
+  private SubmissionTestResultKey id;
+
+  @Column(nullable = false)
+  private boolean passed;
+
+  @Column(columnDefinition = "TEXT")
+  private String input;
+
+  @Column(name = "expected_output", columnDefinition = "TEXT")
+  private String expectedOutput;
+
+  @Column(name = "actual_output", columnDefinition = "TEXT")
+  private String actualOutput;
+
+  @Column(columnDefinition = "TEXT")
+  private String message;
+
+  @Column(name = "duration_ms")
+  private Long durationMs;
+}
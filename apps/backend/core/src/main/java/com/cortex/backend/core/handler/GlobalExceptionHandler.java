@@ -9,6 +9,7 @@ import static com.cortex.backend.core.common.BusinessErrorCodes.CODE_EXECUTION_F
 import static com.cortex.backend.core.common.BusinessErrorCodes.CONTAINER_EXECUTION_FAILED;
 import static com.cortex.backend.core.common.BusinessErrorCodes.CONTENT_CHANGED;
 import static com.cortex.backend.core.common.BusinessErrorCodes.EMAIL_SENDING_FAILED;
+import static com.cortex.backend.core.common.BusinessErrorCodes.ENGINE_NOT_READY;
 import static com.cortex.backend.core.common.BusinessErrorCodes.EXERCISE_CREATE_FAILED;
 import static com.cortex.backend.core.common.BusinessErrorCodes.EXERCISE_READ_FAILED;
 import static com.cortex.backend.core.common.BusinessErrorCodes.EXPIRED_TOKEN;
@@ -19,6 +20,8 @@ import static com.cortex.backend.core.common.BusinessErrorCodes.INCORRECT_CURREN
 import static com.cortex.backend.core.common.BusinessErrorCodes.INVALID_FILE_TYPE;
 import static com.cortex.backend.core.common.BusinessErrorCodes.INVALID_TOKEN;
 import static com.cortex.backend.core.common.BusinessErrorCodes.INVALID_URI;
+import static com.cortex.backend.core.common.BusinessErrorCodes.INVALID_WEBHOOK_PAYLOAD;
+import static com.cortex.backend.core.common.BusinessErrorCodes.INVALID_WEBHOOK_SIGNATURE;
 import static com.cortex.backend.core.common.BusinessErrorCodes.NEW_PASSWORD_DOES_NOT_MATCH;
 import static com.cortex.backend.core.common.BusinessErrorCodes.RESULT_NOT_AVAILABLE;
 import static com.cortex.backend.core.common.BusinessErrorCodes.UNSUPPORTED_LANGUAGE;
@@ -33,6 +36,7 @@ import com.cortex.backend.core.common.exception.CodeExecutionException;
 import com.cortex.backend.core.common.exception.ContainerExecutionException;
 import com.cortex.backend.core.common.exception.ContentChangedException;
 import com.cortex.backend.core.common.exception.EmailSendingException;
+import com.cortex.backend.core.common.exception.EngineNotReadyException;
 import com.cortex.backend.core.common.exception.ExerciseCreationException;
 import com.cortex.backend.core.common.exception.ExerciseReadException;
 import com.cortex.backend.core.common.exception.ExpiredTokenException;
@@ -43,6 +47,8 @@ import com.cortex.backend.core.common.exception.IncorrectCurrentPasswordExceptio
 import com.cortex.backend.core.common.exception.InvalidFileTypeException;
 import com.cortex.backend.core.common.exception.InvalidTokenException;
 import com.cortex.backend.core.common.exception.InvalidURIException;
+import com.cortex.backend.core.common.exception.InvalidWebhookPayloadException;
+import com.cortex.backend.core.common.exception.InvalidWebhookSignatureException;
 import com.cortex.backend.core.common.exception.NewPasswordDoesNotMatchException;
 import com.cortex.backend.core.common.exception.OperationNotPermittedException;
 import com.cortex.backend.core.common.exception.ResultNotAvailableException;
@@ -363,6 +369,42 @@ public class GlobalExceptionHandler {
                 .build());
   }
 
+  @ExceptionHandler(EngineNotReadyException.class)
+  public ResponseEntity<ExceptionResponse> handleEngineNotReadyException(
+      EngineNotReadyException exp) {
+    return ResponseEntity.status(ENGINE_NOT_READY.getHttpStatus())
+        .body(
+            ExceptionResponse.builder()
+                .code(ENGINE_NOT_READY.getCode())
+                .description(ENGINE_NOT_READY.getDescription())
+                .error(exp.getMessage())
+                .build());
+  }
+
+  @ExceptionHandler(InvalidWebhookSignatureException.class)
+  public ResponseEntity<ExceptionResponse> handleInvalidWebhookSignatureException(
+      InvalidWebhookSignatureException exp) {
+    return ResponseEntity.status(INVALID_WEBHOOK_SIGNATURE.getHttpStatus())
+        .body(
+            ExceptionResponse.builder()
+                .code(INVALID_WEBHOOK_SIGNATURE.getCode())
+                .description(INVALID_WEBHOOK_SIGNATURE.getDescription())
+                .error(exp.getMessage())
+                .build());
+  }
+
+  @ExceptionHandler(InvalidWebhookPayloadException.class)
+  public ResponseEntity<ExceptionResponse> handleInvalidWebhookPayloadException(
+      InvalidWebhookPayloadException exp) {
+    return ResponseEntity.status(INVALID_WEBHOOK_PAYLOAD.getHttpStatus())
+        .body(
+            ExceptionResponse.builder()
+                .code(INVALID_WEBHOOK_PAYLOAD.getCode())
+                .description(INVALID_WEBHOOK_PAYLOAD.getDescription())
+                .error(exp.getMessage())
+                .build());
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ExceptionResponse> handleException(Exception exp) {
 
@@ -1,11 +1,14 @@
 package com.cortex.backend.engine.api;
 
+import com.cortex.backend.core.common.exception.EngineNotReadyException;
 import com.cortex.backend.core.common.exception.ResultNotAvailableException;
 import com.cortex.backend.core.common.exception.UnsupportedLanguageException;
 import com.cortex.backend.core.domain.User;
 import com.cortex.backend.engine.api.dto.CodeExecutionRequest;
 import com.cortex.backend.engine.api.dto.CodeExecutionResult;
 import com.cortex.backend.engine.api.dto.CodeExecutionSubmissionResponse;
+import com.cortex.backend.engine.api.dto.RecentRun;
+import com.cortex.backend.engine.api.dto.SubmissionHistoryResponse;
 import com.cortex.backend.engine.internal.services.CodeExecutionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,14 +18,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -32,6 +40,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class EngineController {
 
   private final CodeExecutionService codeExecutionService;
+  private final SubmissionService submissionService;
 
   @PostMapping("/execute")
   @Operation(summary = "Submit code for execution",
@@ -40,6 +49,7 @@ public class EngineController {
       content = @Content(schema = @Schema(implementation = CodeExecutionSubmissionResponse.class)))
   @ApiResponse(responseCode = "400", description = "Invalid request")
   @ApiResponse(responseCode = "500", description = "Internal server error")
+  @ApiResponse(responseCode = "503", description = "Engine is still starting up")
   public ResponseEntity<CodeExecutionSubmissionResponse> submitCodeExecution(
       @Valid @RequestBody CodeExecutionRequest request, Authentication authentication) {
     try {
@@ -60,6 +70,14 @@ public class EngineController {
           LocalDateTime.now()
       );
       return ResponseEntity.badRequest().body(response);
+    } catch (EngineNotReadyException e) {
+      CodeExecutionSubmissionResponse response = new CodeExecutionSubmissionResponse(
+          null,
+          "UNAVAILABLE",
+          e.getMessage(),
+          LocalDateTime.now()
+      );
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
     } catch (Exception e) {
       CodeExecutionSubmissionResponse response = new CodeExecutionSubmissionResponse(
           null,
@@ -71,6 +89,18 @@ public class EngineController {
     }
   }
 
+  @PostMapping("/execute/{taskId}/cancel")
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Cancel an execution",
+      description = "Cancels a queued code execution task; a task that is already running finishes")
+  @ApiResponse(responseCode = "202", description = "Cancellation requested")
+  public ResponseEntity<Void> cancelExecution(
+      @Parameter(description = "Task ID", required = true)
+      @PathVariable String taskId) {
+    codeExecutionService.cancelExecution(taskId);
+    return ResponseEntity.accepted().build();
+  }
+
   @GetMapping("/result/{taskId}")
   @Operation(summary = "Get execution result",
       description = "Retrieves the result of a code execution task")
@@ -88,4 +118,79 @@ public class EngineController {
       return ResponseEntity.notFound().build();
     }
   }
-}
\ No newline at end of file
+
+  @GetMapping("/results")
+  @Operation(summary = "Get execution results",
+      description = "Retrieves the results of several code execution tasks in one request; tasks "
+          + "that have not finished are left out")
+  @ApiResponse(responseCode = "200", description = "Results retrieved successfully")
+  @ApiResponse(responseCode = "400", description = "Too many task ids")
+  public ResponseEntity<Map<String, CodeExecutionResult>> getExecutionResults(
+      @Parameter(description = "Task IDs", required = true)
+      @RequestParam(name = "ids") List<String> taskIds) {
+    return ResponseEntity.ok(codeExecutionService.getExecutionResults(taskIds));
+  }
+
+  @GetMapping("/exercises/{exerciseId}/runs")
+  @Operation(summary = "List recent runs",
+      description = "Lists your latest code execution tasks on an exercise, newest first")
+  @ApiResponse(responseCode = "200", description = "Runs retrieved successfully")
+  public ResponseEntity<List<RecentRun>> getRecentRuns(
+      @Parameter(description = "Exercise ID", required = true)
+      @PathVariable Long exerciseId, Authentication authentication) {
+    User user = (User) authentication.getPrincipal();
+    return ResponseEntity.ok(codeExecutionService.getRecentRuns(user.getId(), exerciseId));
+  }
+
+  @GetMapping("/exercises/{exerciseId}/results/latest")
+  @Operation(summary = "Get latest result",
+      description = "Retrieves the result of your latest finished run on an exercise")
+  @ApiResponse(responseCode = "200", description = "Result retrieved successfully",
+      content = @Content(schema = @Schema(implementation = CodeExecutionResult.class)))
+  @ApiResponse(responseCode = "404", description = "No recent result")
+  public ResponseEntity<CodeExecutionResult> getLatestResult(
+      @Parameter(description = "Exercise ID", required = true)
+      @PathVariable Long exerciseId, Authentication authentication) {
+    User user = (User) authentication.getPrincipal();
+    try {
+      return ResponseEntity.ok(codeExecutionService.getLatestResult(user.getId(), exerciseId));
+    } catch (ResultNotAvailableException e) {
+      return ResponseEntity.notFound().build();
+    }
+  }
+
+  @GetMapping("/exercises/{exerciseId}/submissions")
+  @Operation(summary = "Get submission history",
+      description = "Lists your submissions of an exercise, newest first, without their code or "
+          + "output; pass the returned next_cursor to read the next page")
+  @ApiResponse(responseCode = "200", description = "History retrieved successfully",
+      content = @Content(schema = @Schema(implementation = SubmissionHistoryResponse.class)))
+  @ApiResponse(responseCode = "400", description = "Invalid cursor")
+  public ResponseEntity<SubmissionHistoryResponse> getSubmissionHistory(
+      @Parameter(description = "Exercise ID", required = true)
+      @PathVariable Long exerciseId,
+      @RequestParam(name = "cursor", required = false) String cursor,
+      @RequestParam(name = "size", defaultValue = "20") int size,
+      Authentication authentication) {
+    User user = (User) authentication.getPrincipal();
+    return ResponseEntity.ok(
+        submissionService.getSubmissionHistory(user.getId(), exerciseId, cursor, size));
+  }
+
+  @GetMapping("/submissions/{submissionId}/output")
+  @Operation(summary = "Get submission output",
+      description = "Retrieves the stored output and test results of one of your submissions")
+  @ApiResponse(responseCode = "200", description = "Output retrieved successfully",
+      content = @Content(schema = @Schema(implementation = CodeExecutionResult.class)))
+  @ApiResponse(responseCode = "404", description = "Output not found")
+  public ResponseEntity<CodeExecutionResult> getSubmissionOutput(
+      @Parameter(description = "Submission ID", required = true)
+      @PathVariable Long submissionId, Authentication authentication) {
+    User user = (User) authentication.getPrincipal();
+    try {
+      return ResponseEntity.ok(submissionService.getSubmissionOutput(submissionId, user.getId()));
+    } catch (ResultNotAvailableException e) {
+      return ResponseEntity.notFound().build();
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.cortex.backend.engine.api;
 
 import com.cortex.backend.core.common.PageResponse;
 import com.cortex.backend.engine.api.dto.CreateExercise;
+import com.cortex.backend.engine.api.dto.ExerciseBundle;
 import com.cortex.backend.engine.api.dto.ExerciseDetailsResponse;
 import com.cortex.backend.engine.api.dto.ExerciseResponse;
 import com.cortex.backend.engine.api.dto.UpdateExercise;
@@ -12,7 +13,13 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -95,10 +102,32 @@ public class ExerciseController {
   @Operation(summary = "Get exercise details", description = "Retrieves detailed information about an exercise")
   @ApiResponse(responseCode = "200", description = "Exercise details retrieved successfully",
       content = @Content(schema = @Schema(implementation = ExerciseDetailsResponse.class)))
+  @ApiResponse(responseCode = "304", description = "Exercise details not modified")
   public ResponseEntity<ExerciseDetailsResponse> getExerciseDetails(
       @Parameter(description = "ID of the exercise to retrieve details for") @PathVariable Long id) {
     ExerciseDetailsResponse details = exerciseService.getExerciseDetails(id);
-    return ResponseEntity.ok(details);
+    return ResponseEntity.ok()
+        .eTag(details.getEtag())
+        .cacheControl(CacheControl.noCache())
+        .body(details);
+  }
+
+  @GetMapping("/{id}/bundle")
+  @Operation(summary = "Download exercise bundle", description = "Downloads a zip archive with the starter files, tests and metadata of an exercise. Supports conditional and range requests")
+  @ApiResponse(responseCode = "200", description = "Exercise bundle downloaded successfully")
+  @ApiResponse(responseCode = "206", description = "Partial exercise bundle downloaded successfully")
+  @ApiResponse(responseCode = "304", description = "Exercise bundle not modified")
+  public ResponseEntity<Resource> getExerciseBundle(
+      @Parameter(description = "ID of the exercise to download") @PathVariable Long id) {
+    ExerciseBundle bundle = exerciseService.getExerciseBundle(id);
+    return ResponseEntity.ok()
+        .eTag(bundle.etag())
+        .cacheControl(CacheControl.noCache())
+        .contentType(MediaType.parseMediaType("application/zip"))
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(bundle.fileName()).build().toString())
+        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+        .body(new FileSystemResource(bundle.path()));
   }
 
   @GetMapping("/check-repository")
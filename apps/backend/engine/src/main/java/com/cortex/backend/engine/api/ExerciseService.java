@@ -2,6 +2,7 @@ package com.cortex.backend.engine.api;
 
 import com.cortex.backend.core.common.PageResponse;
 import com.cortex.backend.engine.api.dto.CreateExercise;
+import com.cortex.backend.engine.api.dto.ExerciseBundle;
 import com.cortex.backend.engine.api.dto.ExerciseDetailsResponse;
 import com.cortex.backend.engine.api.dto.ExerciseResponse;
 import com.cortex.backend.engine.api.dto.UpdateExercise;
@@ -19,4 +20,5 @@ public interface ExerciseService {
   void updateOrCreateExercise(String exerciseName, String githubPath, String instructions, String hints, String slug, String language, ExerciseConfig config);
   boolean areLessonsAvailable();
   ExerciseDetailsResponse getExerciseDetails(Long id);
+  ExerciseBundle getExerciseBundle(Long id);
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.cortex.backend.engine.api;
+
+import com.cortex.backend.core.domain.ExerciseStatsBucket;
+import com.cortex.backend.core.domain.ExerciseStatsBucketKey;
+import java.util.List;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExerciseStatsBucketRepository extends
+    CrudRepository<ExerciseStatsBucket, ExerciseStatsBucketKey> {
+
+  List<ExerciseStatsBucket> findByIdExerciseId(Long exerciseId);
+}
@@ -0,0 +1,46 @@
+package com.cortex.backend.engine.api;
+
+import com.cortex.backend.engine.api.dto.ExerciseStatsResponse;
+import com.cortex.backend.engine.internal.services.ExerciseStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/engine/stats/exercises")
+@RequiredArgsConstructor
+@Tag(name = "Exercise statistics", description = "Pass rates and run-time percentiles of exercises")
+public class ExerciseStatsController {
+
+  private final ExerciseStatsService exerciseStatsService;
+
+  @GetMapping
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Get the statistics of all exercises", description = "Retrieves attempts, pass rate, solvers and run-time and memory percentiles of every exercise with graded runs")
+  @ApiResponse(responseCode = "200", description = "Statistics retrieved")
+  public ResponseEntity<List<ExerciseStatsResponse>> getAllStats() {
+    return ResponseEntity.ok(exerciseStatsService.getAllStats());
+  }
+
+  @GetMapping("/{id}")
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Get the statistics of an exercise", description = "Retrieves attempts, pass rate, solvers and run-time and memory percentiles of an exercise")
+  @ApiResponse(responseCode = "200", description = "Statistics retrieved",
+      content = @Content(schema = @Schema(implementation = ExerciseStatsResponse.class)))
+  @ApiResponse(responseCode = "404", description = "Exercise not found")
+  public ResponseEntity<ExerciseStatsResponse> getStats(
+      @Parameter(description = "ID of the exercise") @PathVariable Long id) {
+    return ResponseEntity.ok(exerciseStatsService.getStats(id));
+  }
+}
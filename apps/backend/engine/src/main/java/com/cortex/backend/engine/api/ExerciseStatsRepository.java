@@ -0,0 +1,10 @@
+package com.cortex.backend.engine.api;
+
+import com.cortex.backend.core.domain.ExerciseStats;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExerciseStatsRepository extends CrudRepository<ExerciseStats, Long> {
+
+}
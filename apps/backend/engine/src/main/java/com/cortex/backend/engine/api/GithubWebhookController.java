@@ -0,0 +1,39 @@
+package com.cortex.backend.engine.api;
+
+import com.cortex.backend.engine.internal.services.GithubWebhookService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/webhooks")
+@RequiredArgsConstructor
+@Tag(name = "Webhooks", description = "Repository webhook APIs")
+public class GithubWebhookController {
+
+  private final GithubWebhookService githubWebhookService;
+
+  @PostMapping("/github")
+  @Operation(summary = "Receive a GitHub webhook",
+      description = "Triggers an incremental exercise sync when the exercises branch is pushed")
+  @ApiResponse(responseCode = "202", description = "Sync requested")
+  @ApiResponse(responseCode = "204", description = "Delivery ignored")
+  @ApiResponse(responseCode = "400", description = "Malformed push event")
+  @ApiResponse(responseCode = "401", description = "Invalid signature")
+  public ResponseEntity<Void> receiveWebhook(
+      @RequestHeader(name = "X-GitHub-Event", required = false) String event,
+      @RequestHeader(name = "X-Hub-Signature-256", required = false) String signature,
+      @RequestBody byte[] payload) {
+    boolean syncRequested = githubWebhookService.handleDelivery(event, signature, payload);
+    return syncRequested
+        ? ResponseEntity.accepted().build()
+        : ResponseEntity.noContent().build();
+  }
+}
@@ -0,0 +1,62 @@
+package com.cortex.backend.engine.api;
+
+import com.cortex.backend.engine.api.dto.RegradeJobResponse;
+import com.cortex.backend.engine.api.dto.RegradeRequest;
+import com.cortex.backend.engine.internal.services.RegradeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/engine/regrades")
+@RequiredArgsConstructor
+@Tag(name = "Regrade", description = "Bulk regrade of stored solutions")
+public class RegradeController {
+
+  private final RegradeService regradeService;
+
+  @PostMapping
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Regrade exercises", description = "Re-runs the latest submission of every solution of the given exercises and updates their status and points")
+  @ApiResponse(responseCode = "202", description = "Regrade job scheduled",
+      content = @Content(schema = @Schema(implementation = RegradeJobResponse.class)))
+  public ResponseEntity<RegradeJobResponse> requestRegrade(
+      @Valid @RequestBody RegradeRequest request) {
+    return new ResponseEntity<>(regradeService.requestRegrade(request.exerciseIds()),
+        HttpStatus.ACCEPTED);
+  }
+
+  @GetMapping("/{id}")
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Get a regrade job", description = "Retrieves the progress of a regrade job")
+  @ApiResponse(responseCode = "200", description = "Regrade job found",
+      content = @Content(schema = @Schema(implementation = RegradeJobResponse.class)))
+  public ResponseEntity<RegradeJobResponse> getJob(
+      @Parameter(description = "ID of the regrade job") @PathVariable Long id) {
+    return ResponseEntity.ok(regradeService.getJob(id));
+  }
+
+  @PostMapping("/{id}/cancel")
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Cancel a regrade job", description = "Stops a regrade job after the page it is processing")
+  @ApiResponse(responseCode = "200", description = "Regrade job cancelled",
+      content = @Content(schema = @Schema(implementation = RegradeJobResponse.class)))
+  public ResponseEntity<RegradeJobResponse> cancelJob(
+      @Parameter(description = "ID of the regrade job") @PathVariable Long id) {
+    return ResponseEntity.ok(regradeService.cancelJob(id));
+  }
+}
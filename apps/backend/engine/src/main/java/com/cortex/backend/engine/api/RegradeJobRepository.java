@@ -0,0 +1,106 @@
+package com.cortex.backend.engine.api;
+
+import com.cortex.backend.core.domain.RegradeJob;
+import com.cortex.backend.core.domain.RegradeJobStatus;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RegradeJobRepository extends CrudRepository<RegradeJob, Long> {
+
+  List<RegradeJob> findByStatusInOrderByIdAsc(Collection<RegradeJobStatus> statuses);
+
+  /**
+   * Claims a pending or running job for a node, unless another node holds it with a heartbeat newer
+   * than {@code staleBefore}.
+   *
+   * @return 1 if the job was claimed, 0 otherwise
+   */
+  @Modifying
+  @Transactional
+  @Query("""
+      UPDATE RegradeJob j SET j.owner = :owner, j.heartbeatAt = :now,
+          j.status = com.cortex.backend.core.domain.RegradeJobStatus.RUNNING,
+          j.startedAt = COALESCE(j.startedAt, :now)
+      WHERE j.id = :id
+        AND j.status IN (com.cortex.backend.core.domain.RegradeJobStatus.PENDING,
+            com.cortex.backend.core.domain.RegradeJobStatus.RUNNING)
+        AND (j.owner IS NULL OR j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)
+      """)
+  int claim(Long id, String owner, LocalDateTime now, LocalDateTime staleBefore);
+
+  /**
+   * Renews the claim of a running job.
+   *
+   * @return 0 if the job was cancelled or taken over by another node
+   */
+  @Modifying
+  @Transactional
+  @Query("""
+      UPDATE RegradeJob j SET j.heartbeatAt = :now
+      WHERE j.id = :id AND j.owner = :owner
+        AND j.status = com.cortex.backend.core.domain.RegradeJobStatus.RUNNING
+      """)
+  int heartbeat(Long id, String owner, LocalDateTime now);
+
+  /**
+   * Adds the counters of a processed page and moves the cursor past it.
+   *
+   * @return 0 if the job was taken over by another node
+   */
+  @Modifying
+  @Transactional
+  @Query("""
+      UPDATE RegradeJob j SET j.lastSubmissionId = :lastSubmissionId,
+          j.processed = j.processed + :processed, j.changed = j.changed + :changed,
+          j.failed = j.failed + :failed, j.heartbeatAt = :now
+      WHERE j.id = :id AND j.owner = :owner
+      """)
+  int recordPage(Long id, String owner, Long lastSubmissionId, int processed, int changed,
+      int failed, LocalDateTime now);
+
+  /**
+   * Ends a running job held by the node. A job cancelled in the meantime stays cancelled.
+   *
+   * @return 0 if the job is no longer running or held by another node
+   */
+  @Modifying
+  @Transactional
+  @Query("""
+      UPDATE RegradeJob j SET j.status = :status, j.error = :error, j.finishedAt = :now
+      WHERE j.id = :id AND j.owner = :owner
+        AND j.status = com.cortex.backend.core.domain.RegradeJobStatus.RUNNING
+      """)
+  int finish(Long id, String owner, RegradeJobStatus status, String error,
+      LocalDateTime now);
+
+  /**
+   * Gives up the claim of a job, so any node may resume it right away.
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE RegradeJob j SET j.owner = NULL WHERE j.id = :id AND j.owner = :owner")
+  int release(Long id, String owner);
+
+  /**
+   * Cancels a job that is pending or running.
+   *
+   * @return 0 if the job had already ended
+   */
+  @Modifying
+  @Transactional
+  @Query("""
+      UPDATE RegradeJob j SET j.status = com.cortex.backend.core.domain.RegradeJobStatus.CANCELLED,
+          j.finishedAt = :now
+      WHERE j.id = :id
+        AND j.status IN (com.cortex.backend.core.domain.RegradeJobStatus.PENDING,
+            com.cortex.backend.core.domain.RegradeJobStatus.RUNNING)
+      """)
+  int cancel(Long id, LocalDateTime now);
+}
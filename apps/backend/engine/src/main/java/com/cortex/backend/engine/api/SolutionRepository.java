@@ -3,6 +3,9 @@ package com.cortex.backend.engine.api;
 import com.cortex.backend.core.domain.Exercise;
 import com.cortex.backend.core.domain.Solution;
 import com.cortex.backend.core.domain.User;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
@@ -15,4 +18,21 @@ public interface SolutionRepository extends CrudRepository<Solution, Long> {
 
   boolean existsByUserAndExerciseAndStatusGreaterThanEqual(User user, Exercise exercise,
       Long status);
-}
\ No newline at end of file
+
+  /**
+   * Stores the regraded status and points of a solution, unless they are unchanged or the solution
+   * got a newer submission than the regraded one.
+   *
+   * @return 1 if the solution was updated, 0 otherwise
+   */
+  @Modifying
+  @Query("""
+      UPDATE Solution sol SET sol.status = :status, sol.pointsEarned = :points,
+          sol.updatedAt = :now, sol.lastModifiedBy = :userId
+      WHERE sol.id = :solutionId
+        AND (sol.status <> :status OR sol.pointsEarned IS NULL OR sol.pointsEarned <> :points)
+        AND :submissionId = (SELECT MAX(s.id) FROM Submission s WHERE s.solution = sol)
+      """)
+  int applyRegrade(Long solutionId, Long submissionId, Long status, Integer points,
+      LocalDateTime now, Long userId);
+}
@@ -0,0 +1,33 @@
+package com.cortex.backend.engine.api;
+
+import com.cortex.backend.core.domain.SubmissionOutput;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SubmissionOutputRepository extends CrudRepository<SubmissionOutput, Long> {
+
+  /**
+   * Finds the output of a submission made by the given user.
+   *
+   * @param submissionId the submission
+   * @param userId       the user who made it
+   * @return the output, empty if it is not stored yet or the submission belongs to someone else
+   */
+  @Query("""
+      SELECT o FROM SubmissionOutput o JOIN o.submission s JOIN s.solution sol
+      WHERE o.submissionId = :submissionId AND sol.user.id = :userId
+      """)
+  Optional<SubmissionOutput> findBySubmissionIdAndUserId(Long submissionId, Long userId);
+
+  @Query("SELECT o FROM SubmissionOutput o JOIN o.submission s WHERE s.taskId = :taskId")
+  Optional<SubmissionOutput> findBySubmissionTaskId(UUID taskId);
+
+  @Query("SELECT o FROM SubmissionOutput o JOIN FETCH o.submission s WHERE s.taskId IN :taskIds")
+  List<SubmissionOutput> findBySubmissionTaskIdIn(Collection<UUID> taskIds);
+}
@@ -1,8 +1,61 @@
 package com.cortex.backend.engine.api;
 
 import com.cortex.backend.core.domain.Submission;
+import com.cortex.backend.engine.api.dto.RegradeCandidate;
+import com.cortex.backend.engine.api.dto.SubmissionHistoryEntry;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface SubmissionRepository extends CrudRepository<Submission, Long> {}
+public interface SubmissionRepository extends CrudRepository<Submission, Long> {
+
+  /**
+   * Streams the latest submission of every solution of the given exercises in submission id
+   * order, starting after a cursor.
+   *
+   * @param exerciseIds the exercises to regrade
+   * @param afterId     the last submission id already processed
+   * @param limit       the page size
+   * @return the next page of candidates
+   */
+  @Query("""
+      SELECT s.id AS submissionId, sol.id AS solutionId, s.code AS code,
+             s.codeHash AS codeHash, l.name AS language,
+             e.id AS exerciseId, e.githubPath AS githubPath, e.points AS exercisePoints
+      FROM Submission s JOIN s.solution sol JOIN sol.exercise e JOIN s.language l
+      WHERE e.id IN :exerciseIds AND s.id > :afterId
+        AND s.id = (SELECT MAX(s2.id) FROM Submission s2 WHERE s2.solution = sol)
+      ORDER BY s.id ASC
+      """)
+  List<RegradeCandidate> findLatestSubmissionsForRegrade(Collection<Long> exerciseIds,
+      Long afterId, Limit limit);
+
+  /**
+   * Reads a page of a user's submissions of an exercise, newest first, after a keyset cursor.
+   * Code and output are not read.
+   *
+   * @param userId     the user
+   * @param exerciseId the exercise
+   * @param createdAt  the creation time of the last submission of the previous page
+   * @param id         the id of the last submission of the previous page
+   * @param limit      the page size
+   * @return the page
+   */
+  @Query("""
+      SELECT s.id AS id, s.createdAt AS createdAt, s.codeHash AS codeHash, l.name AS language,
+             o.success AS success, o.executionTimeMs AS executionTimeMs,
+             o.memoryUsedKb AS memoryUsedKb
+      FROM Submission s JOIN s.solution sol JOIN s.language l
+      LEFT JOIN SubmissionOutput o ON o.submissionId = s.id
+      WHERE sol.user.id = :userId AND sol.exercise.id = :exerciseId
+        AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id))
+      ORDER BY s.createdAt DESC, s.id DESC
+      """)
+  List<SubmissionHistoryEntry> findHistory(Long userId, Long exerciseId, LocalDateTime createdAt,
+      Long id, Limit limit);
+}
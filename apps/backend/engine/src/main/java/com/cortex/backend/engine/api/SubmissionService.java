@@ -2,10 +2,20 @@ package com.cortex.backend.engine.api;
 
 import com.cortex.backend.engine.api.dto.CodeExecutionRequest;
 import com.cortex.backend.engine.api.dto.CodeExecutionResult;
+import com.cortex.backend.engine.api.dto.SubmissionHistoryResponse;
 import com.cortex.backend.engine.api.dto.SubmissionResponse;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
 
 public interface SubmissionService {
-  SubmissionResponse createSubmission(CodeExecutionRequest request, Long userId);
+  SubmissionResponse createSubmission(CodeExecutionRequest request, Long userId, String taskId);
   void updateSubmissionWithResult(Long submissionId, CodeExecutionResult result);
+  void storeUngradedResult(Long submissionId, CodeExecutionResult result);
   SubmissionResponse getSubmission(Long submissionId);
+  CodeExecutionResult getSubmissionOutput(Long submissionId, Long userId);
+  Optional<CodeExecutionResult> findResultByTaskId(String taskId);
+  Map<String, CodeExecutionResult> findResultsByTaskIds(Collection<String> taskIds);
+  SubmissionHistoryResponse getSubmissionHistory(Long userId, Long exerciseId, String cursor,
+      int size);
 }
\ No newline at end of file
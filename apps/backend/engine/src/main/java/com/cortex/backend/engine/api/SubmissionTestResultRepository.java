@@ -0,0 +1,14 @@
+package com.cortex.backend.engine.api;
+
+import com.cortex.backend.core.domain.SubmissionTestResult;
+import com.cortex.backend.core.domain.SubmissionTestResultKey;
+import java.util.List;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SubmissionTestResultRepository extends
+    CrudRepository<SubmissionTestResult, SubmissionTestResultKey> {
+
+  List<SubmissionTestResult> findByIdSubmissionIdOrderByIdPositionAsc(Long submissionId);
+}
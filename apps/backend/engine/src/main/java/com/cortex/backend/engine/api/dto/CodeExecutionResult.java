@@ -32,6 +32,8 @@ public class CodeExecutionResult  {
   @JsonProperty("memory_used")
   private int memoryUsed; // in kilobytes
 
+  private boolean killed; // timed out or killed for going over the memory limit
+
   @JsonProperty("test_case_results")
   private List<TestCaseResult> testCaseResults;
 }
\ No newline at end of file
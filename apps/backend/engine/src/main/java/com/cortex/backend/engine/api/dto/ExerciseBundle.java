@@ -0,0 +1,20 @@
+package com.cortex.backend.engine.api.dto;
+
+import java.nio.file.Path;
+
+/**
+ * A downloadable archive with the files of an exercise at a given repository commit.
+ *
+ * @param path     the location of the archive in the local snapshot store
+ * @param fileName the file name to offer to clients
+ * @param etag     strong entity tag of the archive contents
+ * @param size     the archive size in bytes
+ */
+public record ExerciseBundle(
+    Path path,
+    String fileName,
+    String etag,
+    long size
+) {
+
+}
@@ -1,5 +1,6 @@
 package com.cortex.backend.engine.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -32,4 +33,7 @@ public class ExerciseDetailsResponse {
   private String fileName;
   
   private String language;
+
+  @JsonIgnore
+  private String etag;
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.cortex.backend.engine.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExerciseStatsResponse {
+
+  @JsonProperty("exercise_id")
+  private Long exerciseId;
+
+  private Long attempts;
+  private Long passed;
+
+  @JsonProperty("pass_rate")
+  private Double passRate;
+
+  private Long solvers;
+
+  @JsonProperty("run_time_p50_ms")
+  private Long runTimeP50Ms;
+
+  @JsonProperty("run_time_p90_ms")
+  private Long runTimeP90Ms;
+
+  @JsonProperty("run_time_p99_ms")
+  private Long runTimeP99Ms;
+
+  @JsonProperty("memory_p50_kb")
+  private Long memoryP50Kb;
+
+  @JsonProperty("memory_p90_kb")
+  private Long memoryP90Kb;
+
+  @JsonProperty("memory_p99_kb")
+  private Long memoryP99Kb;
+
+  @JsonProperty("updated_at")
+  private LocalDateTime updatedAt;
+}
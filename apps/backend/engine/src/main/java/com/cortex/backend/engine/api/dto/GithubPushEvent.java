@@ -0,0 +1,15 @@
+package com.cortex.backend.engine.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The subset of a GitHub push webhook payload needed to trigger a sync.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record GithubPushEvent(
+    String ref,
+    String before,
+    String after
+) {
+
+}
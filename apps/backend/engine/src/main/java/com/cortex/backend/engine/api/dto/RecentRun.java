@@ -0,0 +1,13 @@
+package com.cortex.backend.engine.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+
+public record RecentRun(
+    @JsonProperty("task_id")
+    String taskId,
+    @JsonProperty("submitted_at")
+    LocalDateTime submittedAt
+) {
+
+}
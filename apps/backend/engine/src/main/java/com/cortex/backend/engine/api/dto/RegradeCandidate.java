@@ -0,0 +1,24 @@
+package com.cortex.backend.engine.api.dto;
+
+/**
+ * The latest submission of a solution, as streamed by a regrade job.
+ */
+public interface RegradeCandidate {
+
+  Long getSubmissionId();
+
+  Long getSolutionId();
+
+  /** The inline code of a submission whose code is not in {@code code_blob} yet. */
+  String getCode();
+
+  String getCodeHash();
+
+  String getLanguage();
+
+  Long getExerciseId();
+
+  String getGithubPath();
+
+  Integer getExercisePoints();
+}
@@ -0,0 +1,42 @@
+package com.cortex.backend.engine.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RegradeJobResponse {
+
+  private Long id;
+  private String status;
+
+  @JsonProperty("exercise_ids")
+  private List<Long> exerciseIds;
+
+  @JsonProperty("triggered_by")
+  private String triggeredBy;
+
+  @JsonProperty("commit_id")
+  private String commitId;
+
+  private Integer processed;
+  private Integer changed;
+  private Integer failed;
+
+  @JsonProperty("started_at")
+  private LocalDateTime startedAt;
+
+  @JsonProperty("finished_at")
+  private LocalDateTime finishedAt;
+
+  private String error;
+}
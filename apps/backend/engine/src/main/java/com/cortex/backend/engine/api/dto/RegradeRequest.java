@@ -0,0 +1,12 @@
+package com.cortex.backend.engine.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+public record RegradeRequest(
+
+    @NotEmpty(message = "At least one exercise is required")
+    List<Long> exerciseIds
+) {
+
+}
@@ -0,0 +1,24 @@
+package com.cortex.backend.engine.api.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A submission in a user's history of an exercise, read without its code or output.
+ */
+public interface SubmissionHistoryEntry {
+
+  Long getId();
+
+  LocalDateTime getCreatedAt();
+
+  String getCodeHash();
+
+  String getLanguage();
+
+  /** {@code null} while the result of the submission is not stored. */
+  Boolean getSuccess();
+
+  Integer getExecutionTimeMs();
+
+  Integer getMemoryUsedKb();
+}
@@ -0,0 +1,20 @@
+package com.cortex.backend.engine.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+
+public record SubmissionHistoryItem(
+    Long id,
+    @JsonProperty("submitted_at")
+    LocalDateTime submittedAt,
+    String status,
+    String language,
+    @JsonProperty("code_hash")
+    String codeHash,
+    @JsonProperty("execution_time_ms")
+    Integer executionTimeMs,
+    @JsonProperty("memory_used_kb")
+    Integer memoryUsedKb
+) {
+
+}
@@ -0,0 +1,18 @@
+package com.cortex.backend.engine.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * A page of submission history, newest first.
+ *
+ * @param items      the submissions of the page
+ * @param nextCursor the cursor of the next page, {@code null} on the last page
+ */
+public record SubmissionHistoryResponse(
+    List<SubmissionHistoryItem> items,
+    @JsonProperty("next_cursor")
+    String nextCursor
+) {
+
+}
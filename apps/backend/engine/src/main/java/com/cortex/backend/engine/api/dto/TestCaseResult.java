@@ -23,4 +23,7 @@ public class TestCaseResult implements Serializable {
   @JsonProperty("actual_output")
   private String actualOutput;
   private String message;
+
+  @JsonProperty("duration_ms")
+  private Long durationMs;
 }
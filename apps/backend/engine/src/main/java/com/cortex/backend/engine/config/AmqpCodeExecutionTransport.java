@@ -0,0 +1,37 @@
+package com.cortex.backend.engine.config;
+
+import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_QUEUE;
+import static com.cortex.backend.engine.internal.utils.Constants.IN_PROCESS_QUEUE_PROFILE;
+
+import com.cortex.backend.engine.api.dto.CodeExecutionTask;
+import com.cortex.backend.engine.internal.services.CodeExecutionTaskHandler;
+import com.cortex.backend.engine.internal.services.CodeExecutionTransport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes tasks to the {@code code_execution} queue, consumed by {@link CodeExecutionConsumer}.
+ * Messages already on the broker cannot be withdrawn, so cancelled tasks are skipped by the
+ * handler when they are delivered.
+ */
+@Component
+@Profile("!" + IN_PROCESS_QUEUE_PROFILE)
+@RequiredArgsConstructor
+public class AmqpCodeExecutionTransport implements CodeExecutionTransport {
+
+  private final RabbitTemplate rabbitTemplate;
+  private final ObjectProvider<CodeExecutionTaskHandler> taskHandler;
+
+  @Override
+  public void submit(CodeExecutionTask task) {
+    rabbitTemplate.convertAndSend(CODE_EXECUTION_QUEUE, task);
+  }
+
+  @Override
+  public void cancel(String taskId) {
+    taskHandler.getObject().cancel(taskId);
+  }
+}
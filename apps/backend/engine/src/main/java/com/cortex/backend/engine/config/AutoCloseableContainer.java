@@ -2,8 +2,12 @@ package com.cortex.backend.engine.config;
 
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.exception.DockerException;
+import com.github.dockerjava.api.exception.NotFoundException;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 public class AutoCloseableContainer implements AutoCloseable {
   @Getter
   private final CreateContainerResponse container;
@@ -16,6 +20,13 @@ public class AutoCloseableContainer implements AutoCloseable {
 
   @Override
   public void close() {
-    dockerClient.removeContainerCmd(container.getId()).withForce(true).exec();
+    try {
+      dockerClient.removeContainerCmd(container.getId()).withForce(true).exec();
+    } catch (NotFoundException e) {
+      log.info("Container {} does not exist, skipping removal", container.getId());
+    } catch (DockerException e) {
+      log.warn("Error removing Docker container: {}. Reason: {}", container.getId(),
+          e.getMessage());
+    }
   }
-}
\ No newline at end of file
+}
@@ -1,36 +1,79 @@
 package com.cortex.backend.engine.config;
 
 import com.cortex.backend.engine.api.dto.CodeExecutionTask;
-import com.cortex.backend.engine.internal.services.CodeExecutionService;
+import com.cortex.backend.engine.internal.services.CodeExecutionTaskHandler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.MessagePostProcessor;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
+import static com.cortex.backend.engine.internal.utils.Constants.ATTEMPTS_HEADER;
+import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_DLQ;
+import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_LISTENER_ID;
 import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_QUEUE;
+import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_RETRY_EXCHANGE;
+import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_RETRY_QUEUE_PREFIX;
+import static com.cortex.backend.engine.internal.utils.Constants.IN_PROCESS_QUEUE_PROFILE;
 
 /**
  * Service class for consuming code execution tasks from a RabbitMQ queue.
+ *
+ * <p>Tasks to retry are published to the retry tier of their attempt, declared in
+ * {@link RabbitMQConfig}, with the attempt number carried in the {@code x-attempts} header; tasks
+ * the handler gives up on are moved to the dead-letter queue.
  */
 @Service
 @Slf4j
+@Profile("!" + IN_PROCESS_QUEUE_PROFILE)
 @RequiredArgsConstructor
 public class CodeExecutionConsumer {
 
-  private final CodeExecutionService codeExecutionService;
+  private static final String REASON_HEADER = "x-failure-reason";
+
+  private final CodeExecutionTaskHandler taskHandler;
+  private final RabbitTemplate rabbitTemplate;
+  private final ConsumerConcurrencyController concurrencyController;
 
   /**
    * Consumes a code execution task from the specified RabbitMQ queue.
    *
-   * @param task the code execution task to process
+   * @param task     the code execution task to process
+   * @param attempts the attempt number, absent on the first attempt
    */
-  @RabbitListener(queues = CODE_EXECUTION_QUEUE)
-  public void consumeCodeExecutionTask(CodeExecutionTask task) {
-    log.info("Received code execution task: {}", task.taskId());
-    try {
-      codeExecutionService.processCodeExecution(task);
-    } catch (Exception e) {
-      log.error("Error processing code execution task: {}", task.taskId(), e);
+  @RabbitListener(id = CODE_EXECUTION_LISTENER_ID, queues = CODE_EXECUTION_QUEUE)
+  public void consumeCodeExecutionTask(CodeExecutionTask task,
+      @Header(name = ATTEMPTS_HEADER, required = false) Integer attempts) {
+    int attempt = attempts == null ? 1 : attempts;
+    log.info("Received code execution task: {} (attempt {})", task.taskId(), attempt);
+
+    long start = System.nanoTime();
+    CodeExecutionTaskHandler.Result result = taskHandler.handle(task, attempt);
+    switch (result.outcome()) {
+      case COMPLETED -> concurrencyController.recordRun((System.nanoTime() - start) / 1_000_000);
+      case RETRY -> rabbitTemplate.convertAndSend(CODE_EXECUTION_RETRY_EXCHANGE,
+          CODE_EXECUTION_RETRY_QUEUE_PREFIX + attempt, task, withHeaders(attempt + 1, null));
+      // Through the shortest retry tier, so another worker that can run the language picks it up
+      case REQUEUE -> rabbitTemplate.convertAndSend(CODE_EXECUTION_RETRY_EXCHANGE,
+          CODE_EXECUTION_RETRY_QUEUE_PREFIX + 1, task, withHeaders(attempt, null));
+      case DEAD_LETTER -> rabbitTemplate.convertAndSend("", CODE_EXECUTION_DLQ, task,
+          withHeaders(attempt, result.reason()));
+      case CANCELLED -> {
+        // Nothing left to do, the handler stored the cancelled result
+      }
     }
   }
-}
\ No newline at end of file
+
+  private MessagePostProcessor withHeaders(int attempt, String reason) {
+    return message -> {
+      message.getMessageProperties().setHeader(ATTEMPTS_HEADER, attempt);
+      if (reason != null) {
+        message.getMessageProperties().setHeader(REASON_HEADER, reason);
+      }
+      return message;
+    };
+  }
+}
@@ -0,0 +1,216 @@
+package com.cortex.backend.engine.config;
+
+import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_LISTENER_ID;
+import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_QUEUE;
+import static com.cortex.backend.engine.internal.utils.Constants.IN_PROCESS_QUEUE_PROFILE;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adjusts the number of consumers and the prefetch of the code execution listener to the work
+ * waiting and to what the host can take.
+ *
+ * <p>The wanted number of consumers is the one that drains the queue within
+ * {@code engine.autoscale.target-drain-ms} at the recent average run time. Scaling up is capped by
+ * the host's available memory (one {@code memory-per-run-mb} per extra consumer) and stops while the
+ * load average per core is above {@code max-load-per-core}, in which case a consumer is removed.
+ * Consumers are added one step at a time and removed one at a time once the queue is empty, so a
+ * burst does not oscillate the pool. Short runs get a larger prefetch to hide the broker round
+ * trip; long runs get a prefetch of one so a slow task does not hold others back.
+ *
+ * <p>Every decision is counted in {@code engine.autoscale.decisions}, tagged with its direction
+ * and reason, and the current settings are exposed as gauges.
+ */
+@Component
+@Profile("!" + IN_PROCESS_QUEUE_PROFILE)
+@Slf4j
+public class ConsumerConcurrencyController {
+
+  private static final double RUN_TIME_SMOOTHING = 0.2;
+  private static final Path MEMINFO = Path.of("/proc/meminfo");
+
+  private final RabbitListenerEndpointRegistry listenerRegistry;
+  private final AmqpAdmin amqpAdmin;
+  private final MeterRegistry meterRegistry;
+  private final OperatingSystemMXBean operatingSystem =
+      ManagementFactory.getOperatingSystemMXBean();
+
+  private final AtomicInteger concurrency = new AtomicInteger();
+  private final AtomicInteger prefetch = new AtomicInteger();
+  private volatile double averageRunMs = -1;
+
+  @Value("${engine.autoscale.enabled:true}")
+  private boolean enabled;
+
+  @Value("${engine.autoscale.min-consumers:1}")
+  private int minConsumers;
+
+  @Value("${engine.autoscale.max-consumers:8}")
+  private int maxConsumers;
+
+  @Value("${engine.autoscale.step:2}")
+  private int step;
+
+  @Value("${engine.autoscale.target-drain-ms:10000}")
+  private long targetDrainMs;
+
+  @Value("${engine.autoscale.memory-per-run-mb:512}")
+  private long memoryPerRunMb;
+
+  @Value("${engine.autoscale.reserved-memory-mb:1024}")
+  private long reservedMemoryMb;
+
+  @Value("${engine.autoscale.max-load-per-core:1.0}")
+  private double maxLoadPerCore;
+
+  @Value("${engine.autoscale.max-prefetch:10}")
+  private int maxPrefetch;
+
+  @Value("${engine.autoscale.prefetch-window-ms:2000}")
+  private long prefetchWindowMs;
+
+  public ConsumerConcurrencyController(RabbitListenerEndpointRegistry listenerRegistry,
+      AmqpAdmin amqpAdmin, MeterRegistry meterRegistry) {
+    this.listenerRegistry = listenerRegistry;
+    this.amqpAdmin = amqpAdmin;
+    this.meterRegistry = meterRegistry;
+    Gauge.builder("engine.autoscale.consumers", concurrency, AtomicInteger::get)
+        .description("Consumers of the code execution queue")
+        .register(meterRegistry);
+    Gauge.builder("engine.autoscale.prefetch", prefetch, AtomicInteger::get)
+        .description("Prefetch of the code execution consumers")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Records how long a task took, including the time spent waiting for a CPU slot.
+   *
+   * @param durationMs the processing time of the task
+   */
+  public void recordRun(long durationMs) {
+    double previous = averageRunMs;
+    averageRunMs = previous < 0 ? durationMs
+        : previous + RUN_TIME_SMOOTHING * (durationMs - previous);
+  }
+
+  @Scheduled(fixedDelayString = "${engine.autoscale.interval-ms:5000}",
+      initialDelayString = "${engine.autoscale.interval-ms:5000}")
+  public void adjust() {
+    if (!enabled) {
+      return;
+    }
+    MessageListenerContainer listener =
+        listenerRegistry.getListenerContainer(CODE_EXECUTION_LISTENER_ID);
+    if (!(listener instanceof SimpleMessageListenerContainer container)
+        || !container.isRunning()) {
+      return;
+    }
+    Integer depth = queueDepth();
+    if (depth == null) {
+      return;
+    }
+
+    int current = Math.max(concurrency.get(), minConsumers);
+    double runMs = averageRunMs;
+    int wanted = runMs <= 0
+        ? (depth > 0 ? current + step : current)
+        : (int) Math.ceil(depth * runMs / targetDrainMs);
+    wanted = Math.clamp(wanted, minConsumers, maxConsumers);
+
+    long freeMemoryMb = freeMemoryMb();
+    int memoryCap = freeMemoryMb < 0 ? maxConsumers
+        : current + (int) Math.max(-current, (freeMemoryMb - reservedMemoryMb) / memoryPerRunMb);
+    double loadPerCore = operatingSystem.getSystemLoadAverage()
+        / operatingSystem.getAvailableProcessors();
+
+    int target;
+    String reason;
+    if (loadPerCore > maxLoadPerCore) {
+      target = current - 1;
+      reason = "load";
+    } else if (memoryCap < current) {
+      target = current - 1;
+      reason = "memory";
+    } else if (wanted > current) {
+      target = Math.min(Math.min(wanted, current + step), memoryCap);
+      reason = target < wanted ? "memory" : "queue";
+    } else if (wanted < current && depth == 0) {
+      target = current - 1;
+      reason = "idle";
+    } else {
+      target = current;
+      reason = "steady";
+    }
+    target = Math.clamp(target, minConsumers, maxConsumers);
+
+    int targetPrefetch = runMs <= 0 ? 1
+        : Math.clamp(prefetchWindowMs / Math.max(1L, (long) runMs), 1, maxPrefetch);
+
+    String direction = target > current ? "up" : target < current ? "down" : "hold";
+    meterRegistry.counter("engine.autoscale.decisions", "direction", direction, "reason", reason)
+        .increment();
+    if (target != concurrency.get() || targetPrefetch != prefetch.get()) {
+      log.info("Scaling code execution consumers {} -> {} ({}), prefetch {} -> {}; queue depth {},"
+              + " average run {} ms, available memory {} MB, load per core {}", concurrency.get(),
+          target, reason, prefetch.get(), targetPrefetch, depth, Math.round(runMs), freeMemoryMb,
+          String.format("%.2f", loadPerCore));
+      // The prefetch applies to the consumers started from now on
+      container.setPrefetchCount(targetPrefetch);
+      container.setConcurrentConsumers(target);
+      concurrency.set(target);
+      prefetch.set(targetPrefetch);
+    }
+  }
+
+  private Integer queueDepth() {
+    try {
+      QueueInformation info = amqpAdmin.getQueueInfo(CODE_EXECUTION_QUEUE);
+      return info == null ? null : info.getMessageCount();
+    } catch (AmqpException e) {
+      log.debug("Could not read the code execution queue depth: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Returns the memory of the host available to new processes in MB, or -1 if it cannot be told.
+   * On Linux this is {@code MemAvailable}, which unlike the free memory counts the page cache the
+   * kernel can reclaim; a long-running host has nearly no free memory otherwise.
+   */
+  private long freeMemoryMb() {
+    try (Stream<String> lines = Files.lines(MEMINFO)) {
+      Optional<String> available = lines.filter(line -> line.startsWith("MemAvailable:"))
+          .findFirst();
+      if (available.isPresent()) {
+        // MemAvailable:   12345678 kB
+        return Long.parseLong(available.get().replaceAll("\\D", "")) / 1024;
+      }
+    } catch (IOException | NumberFormatException e) {
+      log.debug("Could not read {}: {}", MEMINFO, e.getMessage());
+    }
+    if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean system) {
+      return system.getFreeMemorySize() / (1024 * 1024);
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,48 @@
+package com.cortex.backend.engine.config;
+
+import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_DLQ;
+import static com.cortex.backend.engine.internal.utils.Constants.IN_PROCESS_QUEUE_PROFILE;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the depth of the code execution dead-letter queue as the
+ * {@code engine.code_execution.dlq.depth} gauge. The depth is polled from the broker in the
+ * background so scraping the metrics never waits on RabbitMQ; it reads -1 while the broker cannot
+ * be reached.
+ */
+@Component
+@Profile("!" + IN_PROCESS_QUEUE_PROFILE)
+@Slf4j
+public class DeadLetterQueueMetrics {
+
+  private final AmqpAdmin amqpAdmin;
+  private final AtomicLong depth = new AtomicLong(-1);
+
+  public DeadLetterQueueMetrics(AmqpAdmin amqpAdmin, MeterRegistry meterRegistry) {
+    this.amqpAdmin = amqpAdmin;
+    Gauge.builder("engine.code_execution.dlq.depth", depth, AtomicLong::get)
+        .description("Code execution tasks waiting in the dead-letter queue")
+        .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${engine.queue.dlq-poll-interval-ms:30000}")
+  public void refresh() {
+    try {
+      QueueInformation info = amqpAdmin.getQueueInfo(CODE_EXECUTION_DLQ);
+      depth.set(info == null ? -1 : info.getMessageCount());
+    } catch (AmqpException e) {
+      log.debug("Could not read the dead-letter queue depth: {}", e.getMessage());
+      depth.set(-1);
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.cortex.backend.engine.config;
+
+import static com.cortex.backend.engine.internal.utils.Constants.STARTUP_PHASE_EXERCISES;
+import static com.cortex.backend.engine.internal.utils.Constants.STARTUP_PHASE_LANGUAGES;
+
+import com.cortex.backend.core.common.startup.StartupTaskTracker;
+import com.cortex.backend.engine.internal.languages.LanguageProfileRegistry;
+import com.cortex.backend.engine.internal.services.GithubSyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Kicks off the engine's startup work in the background once the application is ready, so catalog
+ * and auth endpoints are served while languages and exercises are still being initialized.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class EngineStartup {
+
+  private final StartupTaskTracker startupTaskTracker;
+  private final LanguageInitializer languageInitializer;
+  private final GithubSyncService githubSyncService;
+  private final LanguageProfileRegistry languageProfileRegistry;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    log.info("Scheduling engine startup phases in the background");
+    startupTaskTracker.submit(STARTUP_PHASE_LANGUAGES, () -> {
+      languageInitializer.initializeLanguages();
+      languageProfileRegistry.reloadAndPublish();
+    });
+    startupTaskTracker.submit(STARTUP_PHASE_EXERCISES, githubSyncService::initializeExercises);
+  }
+}
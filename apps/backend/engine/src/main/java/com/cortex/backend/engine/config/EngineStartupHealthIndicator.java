@@ -0,0 +1,49 @@
+package com.cortex.backend.engine.config;
+
+import static com.cortex.backend.engine.internal.utils.Constants.STARTUP_PHASE_EXERCISES;
+import static com.cortex.backend.engine.internal.utils.Constants.STARTUP_PHASE_LANGUAGES;
+
+import com.cortex.backend.core.common.startup.StartupTaskTracker;
+import com.cortex.backend.core.common.startup.StartupTaskTracker.PhaseState;
+import com.cortex.backend.core.common.startup.StartupTaskTracker.PhaseStatus;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the engine as OUT_OF_SERVICE until its startup phases have completed. It is exposed
+ * through the {@code engine} health group only, so the application's own readiness is not held
+ * back by the exercise sync.
+ */
+@Component
+@RequiredArgsConstructor
+public class EngineStartupHealthIndicator implements HealthIndicator {
+
+  private static final List<String> ENGINE_PHASES =
+      List.of(STARTUP_PHASE_LANGUAGES, STARTUP_PHASE_EXERCISES);
+
+  private final StartupTaskTracker startupTaskTracker;
+
+  @Override
+  public Health health() {
+    Map<String, PhaseStatus> phases = startupTaskTracker.getPhases();
+    Health.Builder builder;
+    if (ENGINE_PHASES.stream().anyMatch(phase -> hasState(phases, phase, PhaseState.FAILED))) {
+      builder = Health.down();
+    } else if (startupTaskTracker.isCompleted(ENGINE_PHASES.toArray(String[]::new))) {
+      builder = Health.up();
+    } else {
+      builder = Health.outOfService();
+    }
+    phases.forEach(builder::withDetail);
+    return builder.build();
+  }
+
+  private boolean hasState(Map<String, PhaseStatus> phases, String phase, PhaseState state) {
+    PhaseStatus status = phases.get(phase);
+    return status != null && status.state() == state;
+  }
+}
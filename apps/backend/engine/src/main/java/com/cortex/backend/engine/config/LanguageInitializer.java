@@ -3,7 +3,6 @@ package com.cortex.backend.engine.config;
 import com.cortex.backend.core.domain.Language;
 import com.cortex.backend.engine.api.LanguageRepository;
 import com.cortex.backend.engine.internal.LanguageConfig;
-import jakarta.annotation.PostConstruct;
 import java.util.Arrays;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
@@ -20,7 +19,6 @@ public class LanguageInitializer {
   private static final long DEFAULT_CPU_LIMIT = 1L;
   private static final long DEFAULT_TIMEOUT = 30000L;
 
-  @PostConstruct
   @Transactional
   public void initializeLanguages() {
     List<LanguageConfig> languageConfigs = Arrays.asList(
@@ -28,7 +26,7 @@ public class LanguageInitializer {
             .name("python")
             .dockerImage("python:3.12-slim")
             .executeCommand(
-                "python $(find /code -name '*.py' ! -name '*_test.py') && python -m unittest discover /code")
+                "python $(find /code -name '*.py' ! -name '*_test.py') && python -m unittest discover /code{testFilter}")
             .fileExtension(".py")
             .memoryLimit(128 * MB)
             .cpuLimit(DEFAULT_CPU_LIMIT)
@@ -37,7 +35,7 @@ public class LanguageInitializer {
         LanguageConfig.builder()
             .name("java")
             .dockerImage("maven:3.9.9-eclipse-temurin-21")
-            .executeCommand("cd /code && mvn test -B -Dorg.slf4j.simpleLogger.log.org.apache.maven.cli.transfer.Slf4jMavenTransferListener=warn -Dsurefire.useFile=false")// Only print test results, for Debug use `.executeCommand("cd /code && mvn test")`
+            .executeCommand("cd /code && mvn test -B -Dorg.slf4j.simpleLogger.log.org.apache.maven.cli.transfer.Slf4jMavenTransferListener=warn -Dsurefire.useFile=false{testFilter}")// Only print test results, for Debug use `.executeCommand("cd /code && mvn test")`
             .fileExtension(".java")
             .memoryLimit(512 * MB)
             .cpuLimit(DEFAULT_CPU_LIMIT)
@@ -56,7 +54,7 @@ public class LanguageInitializer {
         LanguageConfig.builder()
             .name("rust")
             .dockerImage("rust:1.80-slim")
-            .executeCommand("cd /code && cargo test")
+            .executeCommand("cd /code && cargo test{testFilter}")
             .fileExtension(".rs")
             .memoryLimit(256 * MB)
             .cpuLimit(DEFAULT_CPU_LIMIT)
@@ -74,7 +72,7 @@ public class LanguageInitializer {
         LanguageConfig.builder()
             .name("go")
             .dockerImage("golang:1.23-bookworm")
-            .executeCommand("cd /code && go mod tidy && go test")
+            .executeCommand("cd /code && go mod tidy && go test{testFilter}")
             .fileExtension(".go")
             .memoryLimit(512 * MB)
             .cpuLimit(2L)
@@ -1,16 +1,35 @@
 package com.cortex.backend.engine.config;
 
 
+import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_DLQ;
+import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_LISTENER_ID;
 import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_QUEUE;
+import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_RETRY_EXCHANGE;
+import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_RETRY_QUEUE_PREFIX;
+import static com.cortex.backend.engine.internal.utils.Constants.IN_PROCESS_QUEUE_PROFILE;
 
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.config.ContainerCustomizer;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
 @Configuration
+@Profile("!" + IN_PROCESS_QUEUE_PROFILE)
 public class RabbitMQConfig {
 
   @Bean
@@ -18,6 +37,44 @@ public class RabbitMQConfig {
     return new Queue(CODE_EXECUTION_QUEUE, true);
   }
 
+  /**
+   * Declares the retry topology of the code execution queue. Each retry tier is a queue without
+   * consumers whose messages expire after the tier's delay and are dead-lettered back onto the
+   * main queue, which gives an exponential backoff without a delayed-message plugin. Tasks that
+   * run out of attempts end up in the dead-letter queue.
+   */
+  @Bean
+  public Declarables codeExecutionRetryTopology(
+      @Value("${engine.queue.retry-delays-ms:1000,5000,25000}") long[] retryDelaysMs) {
+    DirectExchange retryExchange = new DirectExchange(CODE_EXECUTION_RETRY_EXCHANGE, true, false);
+    List<Declarable> declarables = new ArrayList<>();
+    declarables.add(retryExchange);
+    declarables.add(QueueBuilder.durable(CODE_EXECUTION_DLQ).build());
+    for (int tier = 1; tier <= retryDelaysMs.length; tier++) {
+      Queue retryQueue = QueueBuilder.durable(CODE_EXECUTION_RETRY_QUEUE_PREFIX + tier)
+          .ttl((int) retryDelaysMs[tier - 1])
+          .deadLetterExchange("")
+          .deadLetterRoutingKey(CODE_EXECUTION_QUEUE)
+          .build();
+      Binding binding = BindingBuilder.bind(retryQueue).to(retryExchange)
+          .with(CODE_EXECUTION_RETRY_QUEUE_PREFIX + tier);
+      declarables.add(retryQueue);
+      declarables.add(binding);
+    }
+    return new Declarables(declarables);
+  }
+
+  /**
+   * Runs the listener consumers on virtual threads. A consumer blocks for the whole run of a task,
+   * so the number of runs in flight is bounded by the CPU slots and the memory budget of the
+   * sandbox, not by a pool of platform threads.
+   */
+  @Bean
+  public ContainerCustomizer<SimpleMessageListenerContainer> virtualThreadListenerCustomizer() {
+    return container -> container.setTaskExecutor(
+        new VirtualThreadTaskExecutor(CODE_EXECUTION_LISTENER_ID + "-"));
+  }
+
   @Bean
   public RabbitTemplate rabbitTemplate(final ConnectionFactory connectionFactory) {
     final RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
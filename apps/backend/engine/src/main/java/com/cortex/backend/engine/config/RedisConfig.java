@@ -1,13 +1,18 @@
 package com.cortex.backend.engine.config;
 
 import com.cortex.backend.engine.api.dto.CodeExecutionResult;
+import com.cortex.backend.engine.internal.languages.LanguageProfileRegistry;
+import com.cortex.backend.engine.internal.results.CodeExecutionResultRedisSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -15,16 +20,26 @@ public class RedisConfig {
 
   @Bean
   public RedisTemplate<String, CodeExecutionResult> redisTemplate(
-      RedisConnectionFactory connectionFactory) {
+      RedisConnectionFactory connectionFactory, MeterRegistry meterRegistry,
+      @Value("${engine.results.redis.binary:true}") boolean binary,
+      @Value("${engine.results.redis.compress-threshold-bytes:1024}") int compressThresholdBytes) {
     RedisTemplate<String, CodeExecutionResult> template = new RedisTemplate<>();
     template.setConnectionFactory(connectionFactory);
     template.setKeySerializer(new StringRedisSerializer());
 
     ObjectMapper objectMapper = JsonMapper.builder().build();
-    Jackson2JsonRedisSerializer<CodeExecutionResult> serializer =
-        new Jackson2JsonRedisSerializer<>(objectMapper, CodeExecutionResult.class);
-
-    template.setValueSerializer(serializer);
+    template.setValueSerializer(new CodeExecutionResultRedisSerializer(objectMapper, binary,
+        compressThresholdBytes, meterRegistry));
     return template;
   }
+
+  @Bean
+  public RedisMessageListenerContainer redisMessageListenerContainer(
+      RedisConnectionFactory connectionFactory, LanguageProfileRegistry languageProfileRegistry) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener(languageProfileRegistry,
+        new ChannelTopic(LanguageProfileRegistry.LANGUAGES_CHANNEL));
+    return container;
+  }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.cortex.backend.engine.config;
+
+import com.cortex.backend.engine.internal.docker.SandboxImageManager;
+import com.cortex.backend.engine.internal.docker.SandboxImageManager.ImageState;
+import com.cortex.backend.engine.internal.docker.SandboxImageManager.ImageStatus;
+import java.util.Collection;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports which sandbox images are present on this host and which languages it can run. The node
+ * is UP only once every configured image is ready; submissions for a language are accepted as soon
+ * as that language's image is ready.
+ */
+@Component
+@RequiredArgsConstructor
+public class SandboxImageHealthIndicator implements HealthIndicator {
+
+  private final SandboxImageManager sandboxImageManager;
+
+  @Override
+  public Health health() {
+    Map<String, ImageStatus> images = sandboxImageManager.getImages();
+    Collection<String> configured = sandboxImageManager.getLanguageImages().values();
+
+    Health.Builder builder;
+    if (images.values().stream().anyMatch(status -> status.state() == ImageState.FAILED)) {
+      builder = Health.down();
+    } else if (!configured.isEmpty() && configured.stream().allMatch(image ->
+        images.containsKey(image) && images.get(image).state() == ImageState.READY)) {
+      builder = Health.up();
+    } else {
+      builder = Health.outOfService();
+    }
+    return builder
+        .withDetail("readyLanguages", sandboxImageManager.getReadyLanguages())
+        .withDetail("images", images)
+        .build();
+  }
+}
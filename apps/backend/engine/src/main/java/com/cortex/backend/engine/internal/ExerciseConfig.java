@@ -20,4 +20,21 @@ public class ExerciseConfig {
 
   @JsonProperty("lesson_id")
   private Long lessonId;
+
+  /**
+   * Overrides the learned and language default timeout, in milliseconds.
+   */
+  @JsonProperty("timeout_ms")
+  private Long timeoutMs;
+
+  /**
+   * Overrides the learned and language default memory limit, in megabytes.
+   */
+  @JsonProperty("memory_limit_mb")
+  private Long memoryLimitMb;
+
+  /**
+   * Splits the test suite into this many shards run in parallel containers.
+   */
+  private Integer shards;
 }
\ No newline at end of file
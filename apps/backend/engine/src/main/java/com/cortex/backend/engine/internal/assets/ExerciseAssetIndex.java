@@ -0,0 +1,204 @@
+package com.cortex.backend.engine.internal.assets;
+
+import com.cortex.backend.core.common.exception.ExerciseReadException;
+import com.cortex.backend.core.domain.Exercise;
+import com.cortex.backend.engine.internal.CodeFileReader;
+import com.cortex.backend.engine.internal.utils.HashUtil;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory index of exercise files, keyed by exercise id and repository commit. Entries are built
+ * when the exercises repository is synced and looked up by the exercise details endpoint, so
+ * serving a lesson does not touch the filesystem. The index is bounded and evicts the least
+ * recently used entries.
+ *
+ * <p>It also keeps the repository path of every exercise, which is small enough to hold in full,
+ * so submitting code for an exercise does not look the exercise up in the database.
+ */
+@Component
+@Slf4j
+public class ExerciseAssetIndex {
+
+  private final CodeFileReader codeFileReader;
+  private final String localRepoPath;
+  private final Map<AssetKey, ExerciseAssets> entries;
+  private final Map<Long, String> githubPaths = new ConcurrentHashMap<>();
+
+  private volatile String currentCommit;
+
+  public ExerciseAssetIndex(CodeFileReader codeFileReader,
+      @Value("${github.exercises.local-path}") String localRepoPath,
+      @Value("${engine.assets.max-entries:1024}") int maxEntries) {
+    this.codeFileReader = codeFileReader;
+    this.localRepoPath = localRepoPath;
+    this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<AssetKey, ExerciseAssets> eldest) {
+        return size() > maxEntries;
+      }
+    });
+  }
+
+  private record AssetKey(Long exerciseId, String commit) {
+
+  }
+
+  /**
+   * Returns the files of an exercise at the current commit, reading them from the local repository
+   * if they are not indexed yet.
+   *
+   * @param exercise the exercise
+   * @return the exercise files
+   * @throws ExerciseReadException if the files cannot be read
+   */
+  public ExerciseAssets get(Exercise exercise) {
+    String commit = currentCommit;
+    AssetKey key = new AssetKey(exercise.getId(), commit);
+    ExerciseAssets assets = entries.get(key);
+    if (assets == null) {
+      assets = load(exercise, commit);
+      entries.put(key, assets);
+    }
+    return assets;
+  }
+
+  /**
+   * Returns the repository path of an exercise.
+   *
+   * @param exerciseId the exercise id
+   * @return the path, or empty if the exercise is not indexed
+   */
+  public Optional<String> findGithubPath(Long exerciseId) {
+    return Optional.ofNullable(githubPaths.get(exerciseId));
+  }
+
+  /**
+   * Indexes the repository path of an exercise that was looked up outside the index.
+   */
+  public void putGithubPath(Long exerciseId, String githubPath) {
+    githubPaths.put(exerciseId, githubPath);
+  }
+
+  /**
+   * Drops the repository path of an exercise that was changed or deleted, so the next lookup
+   * reads it again.
+   */
+  public void forget(Long exerciseId) {
+    githubPaths.remove(exerciseId);
+  }
+
+  /**
+   * Switches the index to a new commit. Entries of other commits are dropped and the given
+   * exercises are indexed right away.
+   *
+   * @param commit    the commit the repository is now at
+   * @param exercises the exercises to index
+   */
+  public void onSync(String commit, Iterable<Exercise> exercises) {
+    currentCommit = commit;
+    synchronized (entries) {
+      entries.keySet().removeIf(key -> !Objects.equals(key.commit(), commit));
+    }
+
+    Map<Long, String> paths = new HashMap<>();
+    exercises.forEach(exercise -> paths.put(exercise.getId(), exercise.getGithubPath()));
+    githubPaths.putAll(paths);
+    githubPaths.keySet().retainAll(paths.keySet());
+
+    int indexed = 0;
+    for (Exercise exercise : exercises) {
+      try {
+        entries.put(new AssetKey(exercise.getId(), commit), load(exercise, commit));
+        indexed++;
+      } catch (ExerciseReadException e) {
+        log.warn("Could not index exercise {}: {}", exercise.getId(), e.getMessage());
+      }
+    }
+    log.info("Indexed {} exercises at commit {}", indexed, commit);
+  }
+
+  public String getCurrentCommit() {
+    return currentCommit;
+  }
+
+  private ExerciseAssets load(Exercise exercise, String commit) {
+    Path exercisePath = Paths.get(localRepoPath, exercise.getGithubPath());
+    try {
+      String language = determineLanguage(exercise.getGithubPath());
+      String initialCode;
+      String testCode;
+
+      if ("python".equals(language)) {
+        String baseFileName = exercise.getTitle().toLowerCase().replace("-", "_");
+        initialCode = codeFileReader.readFileContent(exercisePath.resolve(baseFileName + ".py"));
+        testCode = codeFileReader.readFileContent(
+            exercisePath.resolve("test_" + baseFileName + ".py"));
+      } else if ("go".equals(language)) {
+        String baseFileName = exercise.getTitle().toLowerCase().replace("-", "_");
+        initialCode = codeFileReader.readFileContent(exercisePath.resolve(baseFileName + ".go"));
+        testCode = codeFileReader.readFileContent(exercisePath.resolve(baseFileName + "_test.go"));
+      } else {
+        initialCode = codeFileReader.readInitialCode(exercisePath);
+        testCode = codeFileReader.readTestCode(exercisePath);
+      }
+
+      String fileName = determineFileName(exercisePath, language);
+      String contentHash = HashUtil.generateSHA256Hash(
+          fileName + '\0' + initialCode + '\0' + testCode);
+
+      return new ExerciseAssets(exercise.getId(), commit, language, fileName, initialCode,
+          testCode, contentHash);
+    } catch (IOException e) {
+      log.error("Error reading exercise files for exercise id: {}", exercise.getId(), e);
+      throw new ExerciseReadException("Failed to read exercise files", e);
+    }
+  }
+
+  private String determineLanguage(String githubPath) {
+    String[] parts = githubPath.split("/");
+    if (parts.length > 1) {
+      return parts[1];
+    }
+    return "unknown";
+  }
+
+  private String determineFileName(Path exercisePath, String language) throws IOException {
+    try (Stream<Path> paths = Files.walk(exercisePath)) {
+      return paths
+          .filter(Files::isRegularFile)
+          .map(Path::getFileName)
+          .map(Path::toString)
+          .filter(name -> name.endsWith(getFileExtension(language)))
+          .filter(name -> !name.contains("test") && !name.contains("Test"))
+          .findFirst()
+          .orElse("main" + getFileExtension(language));
+    }
+  }
+
+  private String getFileExtension(String language) {
+    // Mapeo de lenguajes a extensiones de archivo
+    return switch (language.toLowerCase()) {
+      case "java" -> ".java";
+      case "python" -> ".py";
+      case "javascript" -> ".js";
+      case "typescript" -> ".ts";
+      case "go" -> ".go";
+      case "rust" -> ".rs";
+      default -> ".txt";
+    };
+  }
+}
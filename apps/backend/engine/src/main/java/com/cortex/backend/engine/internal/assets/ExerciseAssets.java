@@ -0,0 +1,24 @@
+package com.cortex.backend.engine.internal.assets;
+
+/**
+ * The resolved files of an exercise at a given commit of the exercises repository.
+ *
+ * @param exerciseId  the exercise id
+ * @param commit      the commit the files were read at
+ * @param language    the exercise language, derived from its repository path
+ * @param fileName    the name of the file students edit
+ * @param initialCode the starter code
+ * @param testCode    the test code
+ * @param contentHash SHA-256 of the file name, starter code and test code
+ */
+public record ExerciseAssets(
+    Long exerciseId,
+    String commit,
+    String language,
+    String fileName,
+    String initialCode,
+    String testCode,
+    String contentHash
+) {
+
+}
@@ -0,0 +1,221 @@
+package com.cortex.backend.engine.internal.assets;
+
+import com.cortex.backend.core.common.exception.ExerciseReadException;
+import com.cortex.backend.core.common.exception.HashGenerationException;
+import com.cortex.backend.core.domain.Exercise;
+import com.cortex.backend.engine.api.dto.ExerciseBundle;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds and stores one zip archive per exercise and commit, with the starter files, the tests and
+ * a {@code cortex.json} metadata file. Archives are written deterministically (sorted entries, fixed
+ * timestamps) so the same content always produces the same bytes and the same entity tag.
+ */
+@Component
+@Slf4j
+public class ExerciseBundleStore {
+
+  private static final String METADATA_ENTRY = "cortex.json";
+  private static final String DOCS_DIR = ".docs";
+  private static final long FIXED_ENTRY_TIME = 315532800000L; // 1980-01-01, the zip epoch
+
+  private final ExerciseAssetIndex exerciseAssetIndex;
+  private final ObjectMapper objectMapper;
+  private final Path localRepoPath;
+  private final Path bundlesPath;
+  private final Map<BundleKey, ExerciseBundle> bundles = new ConcurrentHashMap<>();
+
+  public ExerciseBundleStore(ExerciseAssetIndex exerciseAssetIndex, ObjectMapper objectMapper,
+      @Value("${github.exercises.local-path}") String localRepoPath,
+      @Value("${engine.bundles.path:${java.io.tmpdir}/cortex-bundles}") String bundlesPath) {
+    this.exerciseAssetIndex = exerciseAssetIndex;
+    this.objectMapper = objectMapper;
+    this.localRepoPath = Paths.get(localRepoPath);
+    this.bundlesPath = Paths.get(bundlesPath);
+  }
+
+  private record BundleKey(Long exerciseId, String commit) {
+
+  }
+
+  /**
+   * Returns the bundle of an exercise at the current commit, building it if needed.
+   *
+   * @param exercise the exercise
+   * @return the bundle
+   * @throws ExerciseReadException if the bundle cannot be built
+   */
+  public ExerciseBundle get(Exercise exercise) {
+    ExerciseAssets assets = exerciseAssetIndex.get(exercise);
+    BundleKey key = new BundleKey(exercise.getId(), assets.commit());
+    return bundles.computeIfAbsent(key, k -> build(exercise, assets));
+  }
+
+  /**
+   * Builds the bundles of the given exercises for a new commit and removes the bundles of other
+   * commits from the store.
+   *
+   * @param commit    the commit the repository is now at
+   * @param exercises the exercises to bundle
+   */
+  public void onSync(String commit, Iterable<Exercise> exercises) {
+    bundles.keySet().removeIf(key -> !Objects.equals(key.commit(), commit));
+    deleteOtherCommits(commit);
+
+    int built = 0;
+    for (Exercise exercise : exercises) {
+      try {
+        ExerciseAssets assets = exerciseAssetIndex.get(exercise);
+        bundles.put(new BundleKey(exercise.getId(), commit), build(exercise, assets));
+        built++;
+      } catch (ExerciseReadException e) {
+        log.warn("Could not bundle exercise {}: {}", exercise.getId(), e.getMessage());
+      }
+    }
+    log.info("Built {} exercise bundles at commit {}", built, commit);
+  }
+
+  private ExerciseBundle build(Exercise exercise, ExerciseAssets assets) {
+    Path exercisePath = localRepoPath.resolve(exercise.getGithubPath());
+    Path target = bundlesPath.resolve(commitDirectory(assets.commit()))
+        .resolve(exercise.getId() + ".zip");
+
+    try {
+      Files.createDirectories(target.getParent());
+      Path temp = Files.createTempFile(target.getParent(), exercise.getId() + "-", ".tmp");
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest);
+          ZipOutputStream zip = new ZipOutputStream(out)) {
+        zip.setLevel(Deflater.BEST_COMPRESSION);
+        writeEntry(zip, METADATA_ENTRY, objectMapper.writeValueAsBytes(metadata(exercise, assets)));
+        for (Path file : listFiles(exercisePath)) {
+          try (InputStream in = Files.newInputStream(file)) {
+            writeEntry(zip, exercisePath.relativize(file).toString().replace('\\', '/'),
+                in.readAllBytes());
+          }
+        }
+      }
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+
+      String etag = HexFormat.of().formatHex(digest.digest());
+      String fileName = (exercise.getSlug() != null ? exercise.getSlug() : exercise.getId())
+          + ".zip";
+      return new ExerciseBundle(target, fileName, etag, Files.size(target));
+    } catch (IOException e) {
+      log.error("Error building bundle for exercise id: {}", exercise.getId(), e);
+      throw new ExerciseReadException("Failed to build exercise bundle", e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new HashGenerationException("Error al generar el hash SHA-256", e);
+    }
+  }
+
+  private Map<String, Object> metadata(Exercise exercise, ExerciseAssets assets) {
+    Map<String, Object> metadata = new LinkedHashMap<>();
+    metadata.put("id", exercise.getId());
+    metadata.put("title", exercise.getTitle());
+    metadata.put("slug", exercise.getSlug());
+    metadata.put("language", assets.language());
+    metadata.put("file_name", assets.fileName());
+    metadata.put("commit", assets.commit());
+    metadata.put("content_hash", assets.contentHash());
+    return metadata;
+  }
+
+  /**
+   * Lists the files of an exercise in a stable order, skipping hidden files except the
+   * {@code .docs} directory.
+   */
+  private List<Path> listFiles(Path exercisePath) throws IOException {
+    try (Stream<Path> paths = Files.walk(exercisePath)) {
+      return paths
+          .filter(Files::isRegularFile)
+          .filter(path -> isIncluded(exercisePath.relativize(path)))
+          .sorted()
+          .toList();
+    }
+  }
+
+  private boolean isIncluded(Path relativePath) {
+    for (Path part : relativePath) {
+      String name = part.toString();
+      if (name.startsWith(".") && !name.equals(DOCS_DIR)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void writeEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+    ZipEntry entry = new ZipEntry(name);
+    entry.setTime(FIXED_ENTRY_TIME);
+    zip.putNextEntry(entry);
+    zip.write(content);
+    zip.closeEntry();
+  }
+
+  private String commitDirectory(String commit) {
+    return commit != null ? commit : "local";
+  }
+
+  private void deleteOtherCommits(String commit) {
+    if (!Files.isDirectory(bundlesPath)) {
+      return;
+    }
+    try (Stream<Path> directories = Files.list(bundlesPath)) {
+      directories
+          .filter(Files::isDirectory)
+          .filter(directory -> !directory.getFileName().toString()
+              .equals(commitDirectory(commit)))
+          .forEach(this::deleteDirectory);
+    } catch (IOException e) {
+      log.warn("Could not list bundle store {}: {}", bundlesPath, e.getMessage());
+    }
+  }
+
+  private void deleteDirectory(Path directory) {
+    try {
+      Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+          Files.deleteIfExists(file);
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+          Files.deleteIfExists(dir);
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException e) {
+      log.warn("Could not delete bundles in {}: {}", directory, e.getMessage());
+    }
+  }
+}
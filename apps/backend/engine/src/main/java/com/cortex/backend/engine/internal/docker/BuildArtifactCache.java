@@ -0,0 +1,438 @@
+package com.cortex.backend.engine.internal.docker;
+
+import com.cortex.backend.engine.internal.utils.HashUtil;
+import com.github.dockerjava.api.model.Bind;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the compiled scaffolding of each exercise (Rust and Maven {@code target/} directories, the
+ * Go build cache) between runs, keyed by language, exercise and repository commit.
+ *
+ * <p>Entries are only ever built from the exercise's own starter code, by a build run in the
+ * background outside any submission: a run that misses the cache builds cold and asks for the entry
+ * to be {@link #populate populated}. Every run gets its own copy of the entry, made with
+ * {@code cp --reflink=auto} so filesystems that support it share the blocks copy-on-write, and
+ * whatever a submission writes to its copy is discarded with its workspace, so one submission can
+ * never change the build of another. The total size of the cache is capped and the least recently
+ * used entries are evicted first.
+ */
+@Component
+@Slf4j
+public class BuildArtifactCache {
+
+  private static final String TARGET_DIR = "target";
+  private static final String GO_CACHE_MOUNT = "/gocache";
+  private static final String TMP_PREFIX = ".tmp-";
+  private static final String GO_CACHE_DIR = "gocache";
+  /** Entries built from starter code; directories without it were captured from submissions. */
+  private static final String ENTRY_PREFIX = "starter-";
+
+  private final Path root;
+  private final long maxBytes;
+  private final boolean enabled;
+
+  /** Cache entries in access order, the eldest entry is evicted first. */
+  private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, Integer> leases = new HashMap<>();
+  private final Set<String> building = new HashSet<>();
+  private long totalBytes;
+
+  public BuildArtifactCache(
+      @Value("${engine.build-cache.path:${java.io.tmpdir}/cortex-build-cache}") String root,
+      @Value("${engine.build-cache.max-size-mb:4096}") long maxSizeMb,
+      @Value("${engine.build-cache.enabled:true}") boolean enabled) {
+    this.root = Paths.get(root);
+    this.maxBytes = maxSizeMb * 1024 * 1024;
+    this.enabled = enabled;
+  }
+
+  private enum Strategy {
+    /** Copy the cached {@code target/} directory into the workspace before the run. */
+    COPY_TARGET,
+    /** Copy the cached Go build cache next to the workspace and mount it as GOCACHE. */
+    COPY_GOCACHE
+  }
+
+  /**
+   * How a language's artifacts are cached, and the command that builds them from the starter code
+   * without running the tests.
+   */
+  private record CachedLanguage(Strategy strategy, String buildCommand) {
+
+  }
+
+  private static final Map<String, CachedLanguage> LANGUAGES = Map.of(
+      "rust", new CachedLanguage(Strategy.COPY_TARGET, "cd /code && cargo test --no-run"),
+      "java", new CachedLanguage(Strategy.COPY_TARGET, "cd /code && mvn -B -q test-compile"),
+      "go", new CachedLanguage(Strategy.COPY_GOCACHE, "cd /code && go test -run '^$' ./...")
+  );
+
+  /**
+   * Builds the exercise's own code in a trusted container, outside any submission.
+   */
+  @FunctionalInterface
+  public interface StarterBuild {
+
+    /**
+     * A finished starter build.
+     *
+     * @param codePath the workspace mounted as the container's working directory
+     * @param exitCode the exit code of the build command
+     */
+    record Built(Path codePath, int exitCode) {
+
+    }
+
+    /**
+     * Runs a build of the exercise's starter code and waits for it to finish.
+     *
+     * @param command the build command
+     * @param binds   extra binds for the container
+     * @param env     extra environment variables for the container
+     * @param workDir an empty directory to set the workspace up in
+     * @return the workspace and the exit code of the build
+     */
+    Built build(String command, List<Bind> binds, List<String> env, Path workDir)
+        throws IOException;
+  }
+
+  private record CacheEntry(Path path, long size) {
+
+  }
+
+  /**
+   * A cache entry attached to one execution.
+   *
+   * @param key      the cache key, {@code null} if the language is not cached
+   * @param language the language name
+   * @param entry    the cache directory
+   * @param hit      whether the entry existed and was copied for this execution
+   * @param binds    extra binds for the container
+   * @param env      extra environment variables for the container
+   */
+  public record Lease(String key, String language, Path entry, boolean hit, List<Bind> binds,
+                      List<String> env) {
+
+    static Lease none() {
+      return new Lease(null, null, null, false, List.of(), List.of());
+    }
+
+    public boolean isCached() {
+      return key != null;
+    }
+  }
+
+  @PostConstruct
+  void loadEntries() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      Files.createDirectories(root);
+      try (Stream<Path> directories = Files.list(root)) {
+        directories
+            .filter(Files::isDirectory)
+            .sorted(Comparator.comparingLong(this::lastModified))
+            .forEach(directory -> {
+              String name = directory.getFileName().toString();
+              if (name.startsWith(TMP_PREFIX) || !name.startsWith(ENTRY_PREFIX)) {
+                deleteDirectory(directory);
+              } else {
+                register(name, directory);
+              }
+            });
+      }
+      log.info("Build artifact cache at {} holds {} entries ({} MB)", root, entries.size(),
+          totalBytes / (1024 * 1024));
+    } catch (IOException e) {
+      log.warn("Could not load build artifact cache at {}: {}", root, e.getMessage());
+    }
+  }
+
+  /**
+   * Copies the cache entry of an exercise into a workspace. Must be followed by
+   * {@link #release(Lease)} once the container has finished.
+   *
+   * @param language     the language name
+   * @param exercisePath the exercise directory in the local repository
+   * @param commit       the repository commit the exercise was read at
+   * @param codePath     the workspace mounted as the container's working directory
+   * @return the lease, not cached if the language has no build artifacts to keep
+   */
+  public Lease acquire(String language, Path exercisePath, String commit, Path codePath) {
+    CachedLanguage cached = LANGUAGES.get(language);
+    if (!enabled || cached == null || commit == null) {
+      return Lease.none();
+    }
+    String key = ENTRY_PREFIX + language + "-" + HashUtil.generateSHA256Hash(
+        exercisePath.toString() + "@" + commit).substring(0, 24);
+    Path entry = root.resolve(key);
+
+    boolean hit;
+    synchronized (this) {
+      hit = entries.get(key) != null;
+      leases.merge(key, 1, Integer::sum);
+    }
+
+    if (!hit) {
+      return new Lease(key, language, entry, false, List.of(), List.of());
+    }
+    try {
+      return switch (cached.strategy()) {
+        case COPY_TARGET -> {
+          copyTree(entry.resolve(TARGET_DIR), codePath.resolve(TARGET_DIR));
+          yield new Lease(key, language, entry, true, List.of(), List.of());
+        }
+        case COPY_GOCACHE -> {
+          Path goCache = codePath.resolveSibling(GO_CACHE_DIR);
+          copyTree(entry, goCache);
+          yield new Lease(key, language, entry, true,
+              List.of(Bind.parse(goCache + ":" + GO_CACHE_MOUNT)),
+              List.of("GOCACHE=" + GO_CACHE_MOUNT));
+        }
+      };
+    } catch (IOException | UncheckedIOException e) {
+      log.warn("Could not attach build cache {}: {}", key, e.getMessage());
+      return new Lease(key, language, entry, false, List.of(), List.of());
+    }
+  }
+
+  /**
+   * Builds the entry of a lease that missed the cache in the background, from the exercise's
+   * starter code. Does nothing if the entry exists or is already being built.
+   *
+   * @param lease the lease returned by {@link #acquire}
+   * @param build runs the build in a trusted container
+   */
+  public void populate(Lease lease, StarterBuild build) {
+    if (!lease.isCached() || lease.hit()) {
+      return;
+    }
+    synchronized (this) {
+      if (entries.containsKey(lease.key()) || !building.add(lease.key())) {
+        return;
+      }
+    }
+    Thread.ofVirtual().name("build-cache-" + lease.key()).start(() -> {
+      try {
+        buildEntry(lease, build);
+      } finally {
+        synchronized (this) {
+          building.remove(lease.key());
+        }
+        evict();
+      }
+    });
+  }
+
+  private void buildEntry(Lease lease, StarterBuild build) {
+    CachedLanguage cached = LANGUAGES.get(lease.language());
+    Path temp = root.resolve(TMP_PREFIX + UUID.randomUUID());
+    Path artifacts = temp.resolve("entry");
+    try {
+      Files.createDirectories(artifacts);
+      Path workDir = Files.createDirectories(temp.resolve("work"));
+      switch (cached.strategy()) {
+        case COPY_TARGET -> {
+          StarterBuild.Built built = build.build(cached.buildCommand(), List.of(), List.of(),
+              workDir);
+          if (!succeeded(lease, built)) {
+            return;
+          }
+          if (!Files.isDirectory(built.codePath().resolve(TARGET_DIR))) {
+            log.warn("Starter build for {} left no {} directory", lease.key(), TARGET_DIR);
+            return;
+          }
+          copyTree(built.codePath().resolve(TARGET_DIR), artifacts.resolve(TARGET_DIR));
+        }
+        case COPY_GOCACHE -> {
+          StarterBuild.Built built = build.build(cached.buildCommand(),
+              List.of(Bind.parse(artifacts + ":" + GO_CACHE_MOUNT)),
+              List.of("GOCACHE=" + GO_CACHE_MOUNT), workDir);
+          if (!succeeded(lease, built)) {
+            return;
+          }
+        }
+      }
+      Files.move(artifacts, lease.entry(), StandardCopyOption.ATOMIC_MOVE);
+      synchronized (this) {
+        register(lease.key(), lease.entry());
+      }
+      log.info("Cached starter build artifacts for {}", lease.key());
+    } catch (FileAlreadyExistsException | AtomicMoveNotSupportedException e) {
+      log.warn("Could not store build cache entry {}: {}", lease.key(), e.getMessage());
+    } catch (IOException | RuntimeException e) {
+      log.warn("Could not build cache entry {}: {}", lease.key(), e.getMessage());
+    } finally {
+      deleteDirectory(temp);
+    }
+  }
+
+  /**
+   * Tells whether a starter build finished cleanly. A failed, timed out or killed build can leave
+   * partial artifacts behind, which are never cached.
+   */
+  private static boolean succeeded(Lease lease, StarterBuild.Built built) {
+    if (built.exitCode() != 0) {
+      log.warn("Starter build for {} exited with {}, not caching its artifacts", lease.key(),
+          built.exitCode());
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Releases a lease and evicts entries over the size cap. Nothing the run wrote is kept.
+   *
+   * @param lease the lease returned by {@link #acquire}
+   */
+  public void release(Lease lease) {
+    if (!lease.isCached()) {
+      return;
+    }
+    releaseLease(lease.key());
+    evict();
+  }
+
+  private void register(String key, Path directory) {
+    CacheEntry previous = entries.put(key, new CacheEntry(directory, sizeOf(directory)));
+    totalBytes += entries.get(key).size() - (previous != null ? previous.size() : 0);
+  }
+
+  private synchronized void releaseLease(String key) {
+    leases.computeIfPresent(key, (_, count) -> count > 1 ? count - 1 : null);
+  }
+
+  private void evict() {
+    List<Path> evicted = new ArrayList<>();
+    synchronized (this) {
+      Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+      while (totalBytes > maxBytes && iterator.hasNext()) {
+        Map.Entry<String, CacheEntry> eldest = iterator.next();
+        if (leases.containsKey(eldest.getKey())) {
+          continue;
+        }
+        iterator.remove();
+        totalBytes -= eldest.getValue().size();
+        evicted.add(eldest.getValue().path());
+      }
+    }
+    evicted.forEach(directory -> {
+      log.info("Evicting build artifact cache entry {}", directory.getFileName());
+      deleteDirectory(directory);
+    });
+  }
+
+  /**
+   * Copies a directory tree, preferring a reflink (copy-on-write) copy and falling back to a
+   * regular copy on systems without GNU cp.
+   */
+  private void copyTree(Path source, Path target) throws IOException {
+    Files.createDirectories(target.getParent());
+    try {
+      Process process = new ProcessBuilder("cp", "-a", "--reflink=auto",
+          source.toString(), target.toString())
+          .redirectErrorStream(true)
+          .start();
+      process.getInputStream().transferTo(OutputStream.nullOutputStream());
+      if (process.waitFor(60, TimeUnit.SECONDS) && process.exitValue() == 0) {
+        return;
+      }
+      process.destroyForcibly();
+      deleteDirectory(target);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while copying " + source, e);
+    } catch (IOException e) {
+      log.debug("cp --reflink unavailable, copying {} file by file", source);
+    }
+
+    try (Stream<Path> paths = Files.walk(source)) {
+      paths.forEach(path -> {
+        try {
+          Path destination = target.resolve(source.relativize(path).toString());
+          if (Files.isDirectory(path)) {
+            Files.createDirectories(destination);
+          } else {
+            Files.copy(path, destination, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.COPY_ATTRIBUTES);
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+  }
+
+  private long sizeOf(Path directory) {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      return paths.filter(Files::isRegularFile).mapToLong(path -> {
+        try {
+          return Files.size(path);
+        } catch (IOException e) {
+          return 0L;
+        }
+      }).sum();
+    } catch (IOException | UncheckedIOException e) {
+      return 0L;
+    }
+  }
+
+  private long lastModified(Path path) {
+    try {
+      return Files.getLastModifiedTime(path).toMillis();
+    } catch (IOException e) {
+      return 0L;
+    }
+  }
+
+  private void deleteDirectory(Path directory) {
+    if (!Files.exists(directory)) {
+      return;
+    }
+    try {
+      Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+          Files.deleteIfExists(file);
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+          Files.deleteIfExists(dir);
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException e) {
+      log.warn("Could not delete build cache directory {}: {}", directory, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.cortex.backend.engine.internal.docker;
+
+import com.cortex.backend.core.common.exception.ContainerExecutionException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caps the memory the sandbox containers may claim together. Every container reserves its memory
+ * limit before it is created, so the number of containers running at once is bounded by what the
+ * host can hold rather than by the number of threads waiting to run them.
+ *
+ * <p>The budget is {@code engine.execution.memory-budget-mb}, or the host's physical memory minus
+ * {@code engine.execution.reserved-memory-mb} when that is 0. Permits are counted in megabytes.
+ */
+@Component
+@Slf4j
+public class ContainerMemoryBudget {
+
+  private static final long MB = 1024 * 1024;
+
+  private final Semaphore permits;
+  private final int budgetMb;
+  private final long acquireTimeoutMs;
+
+  public ContainerMemoryBudget(
+      @Value("${engine.execution.memory-budget-mb:0}") long budgetMb,
+      @Value("${engine.execution.reserved-memory-mb:1024}") long reservedMemoryMb,
+      @Value("${engine.cpu-slots.acquire-timeout-ms:600000}") long acquireTimeoutMs) {
+    long budget = budgetMb > 0 ? budgetMb : physicalMemoryMb() - reservedMemoryMb;
+    this.budgetMb = Math.clamp(budget, 256, Integer.MAX_VALUE);
+    this.permits = new Semaphore(this.budgetMb, true);
+    this.acquireTimeoutMs = acquireTimeoutMs;
+    log.info("Sandbox containers share a memory budget of {} MB", this.budgetMb);
+  }
+
+  /**
+   * Memory held by one container. Closing the reservation returns it to the budget.
+   */
+  public final class Reservation implements AutoCloseable {
+
+    private final int megabytes;
+
+    private Reservation(int megabytes) {
+      this.megabytes = megabytes;
+    }
+
+    @Override
+    public void close() {
+      permits.release(megabytes);
+    }
+  }
+
+  /**
+   * Waits until the memory is available and reserves it.
+   *
+   * @param memoryBytes the memory limit of the container
+   * @return the reservation
+   * @throws ContainerExecutionException if the memory did not become available in time
+   */
+  public Reservation reserve(long memoryBytes) {
+    int megabytes = Math.clamp((memoryBytes + MB - 1) / MB, 1, budgetMb);
+    try {
+      if (!permits.tryAcquire(megabytes, acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+        throw new ContainerExecutionException(
+            "Timed out waiting for " + megabytes + " MB of sandbox memory");
+      }
+      return new Reservation(megabytes);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ContainerExecutionException("Interrupted while waiting for sandbox memory", e);
+    }
+  }
+
+  private static long physicalMemoryMb() {
+    if (ManagementFactory.getOperatingSystemMXBean()
+        instanceof com.sun.management.OperatingSystemMXBean system) {
+      return system.getTotalMemorySize() / MB;
+    }
+    return Runtime.getRuntime().maxMemory() / MB;
+  }
+}
@@ -0,0 +1,195 @@
+package com.cortex.backend.engine.internal.docker;
+
+import com.cortex.backend.core.common.exception.ContainerExecutionException;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Models the host as a pool of CPU cores handed out to sandbox containers. Every container is
+ * pinned with {@code cpuset-cpus} to cores no other container is using, and a run is only admitted
+ * once enough cores are free. Cores listed in {@code engine.cpu-slots.system-cores} are never handed
+ * out; they are left for the API JVM and the Docker daemon, which have to be pinned to them by the
+ * deployment (for example with {@code taskset} or systemd's {@code CPUAffinity}).
+ */
+@Component
+@Slf4j
+public class CpuSlotAllocator {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+  private final BitSet pool = new BitSet();
+  private final BitSet busy = new BitSet();
+  private final boolean enabled;
+  private final long acquireTimeoutMs;
+
+  public CpuSlotAllocator(
+      @Value("${engine.cpu-slots.enabled:true}") boolean enabled,
+      @Value("${engine.cpu-slots.cpus:}") String cpus,
+      @Value("${engine.cpu-slots.system-cores:0}") String systemCores,
+      @Value("${engine.cpu-slots.acquire-timeout-ms:600000}") long acquireTimeoutMs) {
+    this.acquireTimeoutMs = acquireTimeoutMs;
+    if (cpus == null || cpus.isBlank()) {
+      pool.set(0, Runtime.getRuntime().availableProcessors());
+    } else {
+      pool.or(parseCpuList(cpus));
+    }
+    pool.andNot(parseCpuList(systemCores));
+
+    if (enabled && pool.isEmpty()) {
+      log.warn("No CPU cores left for sandbox containers after reserving {}, pinning disabled",
+          systemCores);
+      this.enabled = false;
+    } else {
+      this.enabled = enabled;
+    }
+    if (this.enabled) {
+      log.info("Sandbox containers pinned to cores {}, system cores {}", format(pool),
+          systemCores);
+    }
+  }
+
+  /**
+   * A set of cores held by one container. Closing the slot returns the cores to the pool.
+   */
+  public final class CpuSlot implements AutoCloseable {
+
+    private final BitSet cores;
+
+    private CpuSlot(BitSet cores) {
+      this.cores = cores;
+    }
+
+    /**
+     * Returns the cores in {@code cpuset-cpus} format, or {@code null} when pinning is disabled.
+     */
+    public String getCpusetCpus() {
+      return cores == null ? null : format(cores);
+    }
+
+    @Override
+    public void close() {
+      if (cores != null) {
+        release(cores);
+      }
+    }
+  }
+
+  /**
+   * Waits until the requested number of cores is free and reserves them.
+   *
+   * @param requestedCores the number of cores the container needs
+   * @return the reserved slot
+   * @throws ContainerExecutionException if no cores became free in time
+   */
+  public CpuSlot acquire(Long requestedCores) {
+    if (!enabled) {
+      return new CpuSlot(null);
+    }
+    int wanted = Math.clamp(requestedCores == null ? 1 : requestedCores, 1,
+        pool.cardinality());
+    long remaining = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+
+    lock.lock();
+    try {
+      BitSet cores;
+      while ((cores = findFree(wanted)) == null) {
+        if (remaining <= 0) {
+          throw new ContainerExecutionException(
+              "Timed out waiting for " + wanted + " free CPU cores");
+        }
+        remaining = released.awaitNanos(remaining);
+      }
+      busy.or(cores);
+      return new CpuSlot(cores);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ContainerExecutionException("Interrupted while waiting for a CPU slot", e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getFreeCores() {
+    lock.lock();
+    try {
+      BitSet free = (BitSet) pool.clone();
+      free.andNot(busy);
+      return free.cardinality();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getTotalCores() {
+    return enabled ? pool.cardinality() : 0;
+  }
+
+  /**
+   * Finds free cores, preferring a contiguous run so multi-core containers share caches.
+   */
+  private BitSet findFree(int wanted) {
+    BitSet free = (BitSet) pool.clone();
+    free.andNot(busy);
+    if (free.cardinality() < wanted) {
+      return null;
+    }
+    for (int start = free.nextSetBit(0); start >= 0; start = free.nextSetBit(start + 1)) {
+      int end = free.nextClearBit(start);
+      if (end - start >= wanted) {
+        BitSet cores = new BitSet();
+        cores.set(start, start + wanted);
+        return cores;
+      }
+    }
+    BitSet cores = new BitSet();
+    for (int core = free.nextSetBit(0); cores.cardinality() < wanted;
+        core = free.nextSetBit(core + 1)) {
+      cores.set(core);
+    }
+    return cores;
+  }
+
+  private void release(BitSet cores) {
+    lock.lock();
+    try {
+      busy.andNot(cores);
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Parses a Linux CPU list such as {@code 0-3,6}.
+   */
+  static BitSet parseCpuList(String list) {
+    BitSet cores = new BitSet();
+    if (list == null || list.isBlank()) {
+      return cores;
+    }
+    for (String part : list.split(",")) {
+      String range = part.trim();
+      if (range.isEmpty()) {
+        continue;
+      }
+      int dash = range.indexOf('-');
+      if (dash < 0) {
+        cores.set(Integer.parseInt(range));
+      } else {
+        cores.set(Integer.parseInt(range.substring(0, dash).trim()),
+            Integer.parseInt(range.substring(dash + 1).trim()) + 1);
+      }
+    }
+    return cores;
+  }
+
+  private static String format(BitSet cores) {
+    return cores.stream().mapToObj(Integer::toString).collect(Collectors.joining(","));
+  }
+}
@@ -1,19 +1,25 @@
 package com.cortex.backend.engine.internal.docker;
 
 import com.cortex.backend.core.common.exception.ContainerExecutionException;
-import com.cortex.backend.core.domain.Language;
-import com.cortex.backend.engine.api.LanguageRepository;
 import com.cortex.backend.engine.config.AutoCloseableContainer;
+import com.cortex.backend.engine.internal.assets.ExerciseAssetIndex;
+import com.cortex.backend.engine.internal.languages.LanguageProfile;
+import com.cortex.backend.engine.internal.languages.LanguageProfileRegistry;
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.async.ResultCallback;
 import com.github.dockerjava.api.command.CreateContainerResponse;
-import com.github.dockerjava.api.command.LogContainerCmd;
-import com.github.dockerjava.api.command.WaitContainerResultCallback;
+import com.github.dockerjava.api.exception.ConflictException;
 import com.github.dockerjava.api.exception.NotFoundException;
 import com.github.dockerjava.api.model.Bind;
 import com.github.dockerjava.api.model.Frame;
 import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.MemoryStatsConfig;
+import com.github.dockerjava.api.model.Statistics;
 import com.github.dockerjava.api.model.StreamType;
+import com.github.dockerjava.api.model.WaitResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -23,8 +29,20 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -35,33 +53,174 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class DockerExecutionService {
 
+  /** Exit code reported for containers killed after their timeout, as coreutils' timeout. */
+  private static final int TIMEOUT_EXIT_CODE = 124;
+  /** Exit code of containers killed with SIGKILL, which is how the kernel ends an OOM kill. */
+  private static final int KILLED_EXIT_CODE = 137;
+  /** How long the log stream may lag behind the container's exit. */
+  private static final long LOG_DRAIN_TIMEOUT_MS = 5000;
+
   private final DockerClient dockerClient;
-  private final LanguageRepository languageRepository;
+  private final LanguageProfileRegistry languageProfileRegistry;
+  private final BuildArtifactCache buildArtifactCache;
+  private final ExerciseAssetIndex exerciseAssetIndex;
+  private final ExecutionLimitsResolver executionLimitsResolver;
+  private final CpuSlotAllocator cpuSlotAllocator;
+  private final SandboxImageManager sandboxImageManager;
+  private final ContainerMemoryBudget containerMemoryBudget;
+  private final MeterRegistry meterRegistry;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  @PostConstruct
+  void registerMetrics() {
+    Gauge.builder("engine.execution.in_flight", inFlight, AtomicInteger::get)
+        .description("Containers currently running")
+        .register(meterRegistry);
+  }
 
   public ExecutionResult executeCode(String decodedCode, Path exercisePath, String languageName)
       throws IOException {
-    Language language = languageRepository.findByName(languageName)
-        .orElseThrow(() -> new IllegalArgumentException("Unsupported language: " + languageName));
+    LanguageProfile language = languageProfileRegistry.get(languageName);
+    return execute(decodedCode, exercisePath, language, "", true, true);
+  }
+
+  /**
+   * Runs code with the language's default limits instead of the ones learned from the exercise's
+   * run history, and without recording the run in it.
+   */
+  public ExecutionResult executeCodeWithDefaultLimits(String decodedCode, Path exercisePath,
+      String languageName) throws IOException {
+    LanguageProfile language = languageProfileRegistry.get(languageName);
+    return execute(decodedCode, exercisePath, language, "", false, false);
+  }
+
+  /**
+   * Runs each test shard in its own container, in parallel. Shard runs are not recorded in the
+   * exercise's run history since they only cover part of the suite.
+   *
+   * @param decodedCode  the student's code
+   * @param exercisePath the exercise directory in the local repository
+   * @param languageName the language name
+   * @param shards       the shards to run
+   * @param learnedLimits whether to use the limits learned from the exercise's run history
+   *                      rather than the language's default limits
+   * @return the result of every shard, in shard order
+   */
+  public List<ExecutionResult> executeShards(String decodedCode, Path exercisePath,
+      String languageName, List<TestShard> shards, boolean learnedLimits) throws IOException {
+    LanguageProfile language = languageProfileRegistry.get(languageName);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<ExecutionResult>> futures = shards.stream()
+          .map(shard -> executor.submit(
+              () -> execute(decodedCode, exercisePath, language, shard.filter(), false,
+                  learnedLimits)))
+          .toList();
+      List<ExecutionResult> results = new ArrayList<>();
+      for (Future<ExecutionResult> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ContainerExecutionException("Sharded execution was interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new ContainerExecutionException("Shard execution failed", e.getCause());
+    }
+  }
 
+  private ExecutionResult execute(String decodedCode, Path exercisePath, LanguageProfile language,
+      String testFilter, boolean recordStats, boolean learnedLimits) throws IOException {
     String containerId = UUID.randomUUID().toString();
     Path tempDir = Files.createTempDirectory("code-execution-" + containerId);
     Path codePath = tempDir.resolve("code");
     Path exerciseTestPath = tempDir.resolve("exercise");
 
+    BuildArtifactCache.Lease cacheLease = null;
     try {
       setupExecutionEnvironment(decodedCode, exercisePath, codePath, exerciseTestPath, language);
-      return runContainer(language, codePath, exerciseTestPath, containerId);
+      cacheLease = buildArtifactCache.acquire(language.name(), exercisePath,
+          exerciseAssetIndex.getCurrentCommit(), codePath);
+      String command = language.executeCommand().render(Map.of(
+          "exerciseName", exercisePath.getFileName().toString(),
+          "testFilter", testFilter));
+      ExecutionLimits limits = learnedLimits
+          ? executionLimitsResolver.resolve(language, exercisePath)
+          : new ExecutionLimits(language.timeout(), language.memoryLimit(), "default");
+      boolean coldBuild = cacheLease.isCached() && !cacheLease.hit();
+      if (coldBuild) {
+        // History is learned from warm runs; a first build gets the full language budget
+        limits = new ExecutionLimits(language.timeout(), language.memoryLimit(), "cold-build");
+      }
+      log.info("Running {} with a {} ms timeout and {} MB memory limit ({})", language.name(),
+          limits.timeoutMs(), limits.memoryBytes() / (1024 * 1024), limits.source());
+      ExecutionResult result;
+      try (ContainerMemoryBudget.Reservation _ = containerMemoryBudget.reserve(
+          limits.memoryBytes());
+          CpuSlotAllocator.CpuSlot cpuSlot = cpuSlotAllocator.acquire(language.cpuLimit())) {
+        result = runContainer(language, command, codePath, exerciseTestPath, containerId,
+            cacheLease.binds(), cacheLease.env(), limits, cpuSlot.getCpusetCpus());
+      }
+      if (coldBuild) {
+        buildArtifactCache.populate(cacheLease, (buildCommand, binds, env, workDir) ->
+            buildStarterCode(exercisePath, language, buildCommand, binds, env, workDir));
+      }
+      if (recordStats && !coldBuild && result.exitCode() >= 0
+          && result.exitCode() != TIMEOUT_EXIT_CODE && result.executionTime() > 0) {
+        executionLimitsResolver.record(language, exercisePath, result.executionTime(),
+            result.memoryUsed());
+      }
+      return result;
     } finally {
+      if (cacheLease != null) {
+        buildArtifactCache.release(cacheLease);
+      }
       cleanupTempDirectory(tempDir);
     }
   }
 
+  /**
+   * Builds the exercise's starter code, without any submission in the workspace, to fill the
+   * build artifact cache. Runs with the language's default limits.
+   *
+   * @return the workspace the code was built in and the exit code of the build
+   */
+  private BuildArtifactCache.StarterBuild.Built buildStarterCode(Path exercisePath, LanguageProfile language, String command,
+      List<Bind> binds, List<String> env, Path workDir) throws IOException {
+    Path codePath = Files.createDirectories(workDir.resolve("code"));
+    Path exerciseTestPath = Files.createDirectories(workDir.resolve("exercise"));
+    copyDirectory(exercisePath, codePath);
+    if (language.name().equals("go")) {
+      setupGoModule(codePath);
+    }
+    if (!language.name().equals("java")) {
+      copyDirectory(exercisePath, exerciseTestPath);
+    }
+    ExecutionLimits limits = new ExecutionLimits(language.timeout(), language.memoryLimit(),
+        "starter-build");
+    try (ContainerMemoryBudget.Reservation _ = containerMemoryBudget.reserve(
+        limits.memoryBytes());
+        CpuSlotAllocator.CpuSlot cpuSlot = cpuSlotAllocator.acquire(language.cpuLimit())) {
+      ExecutionResult result = runContainer(language, command, codePath, exerciseTestPath,
+          UUID.randomUUID().toString(), binds, env, limits, cpuSlot.getCpusetCpus());
+      log.info("Starter build of {} exited with {} in {} ms", exercisePath.getFileName(),
+          result.exitCode(), result.executionTime());
+      return new BuildArtifactCache.StarterBuild.Built(codePath, result.exitCode());
+    }
+  }
+
   private void setupExecutionEnvironment(String decodedCode, Path exercisePath, Path codePath,
-      Path exerciseTestPath, Language language) throws IOException {
+      Path exerciseTestPath, LanguageProfile language) throws IOException {
     Files.createDirectories(codePath);
     Files.createDirectories(exerciseTestPath);
 
-    if (language.getName().equals("typescript")) {
+    if (language.name().equals("typescript")) {
       // Special handling for TypeScript exercises
       String exerciseName = exercisePath.getFileName().toString();
       Path exerciseSpecificPath = codePath.resolve("practice").resolve(exerciseName);
@@ -71,7 +230,7 @@ public class DockerExecutionService {
       copyDirectory(exercisePath, exerciseSpecificPath);
 
       // Find the main file in the exercise directory
-      Path mainFilePath = findMainFile(exerciseSpecificPath, language.getFileExtension());
+      Path mainFilePath = findMainFile(exerciseSpecificPath, language.fileExtension());
 
       if (mainFilePath == null) {
         throw new IOException(
@@ -81,15 +240,11 @@ public class DockerExecutionService {
       // Write the decoded code to the main file
       Files.writeString(mainFilePath, decodedCode, StandardCharsets.UTF_8);
       log.info("Code written to TypeScript main file: {}", mainFilePath);
-
-      // Update the execute command with the specific exercise name
-      language.setExecuteCommand(
-          language.getExecuteCommand().replace("{exerciseName}", exerciseName));
     } else {
       // Handle all other languages
       copyDirectory(exercisePath, codePath);
 
-      Path mainFilePath = findMainFile(codePath, language.getFileExtension());
+      Path mainFilePath = findMainFile(codePath, language.fileExtension());
       if (mainFilePath == null) {
         throw new IOException("Could not find main file in exercise directory: " + codePath);
       }
@@ -98,12 +253,12 @@ public class DockerExecutionService {
       log.info("Code written to main file: {}", mainFilePath);
 
       // Handle Go-specific setup
-      if (language.getName().equals("go")) {
+      if (language.name().equals("go")) {
         setupGoModule(codePath);
       }
 
       // Copy the exercise directory to the test directory
-      if (!language.getName().equals("java")) {
+      if (!language.name().equals("java")) {
         copyDirectory(exercisePath, exerciseTestPath);
       }
     }
@@ -123,48 +278,57 @@ public class DockerExecutionService {
     }
   }
 
-  private ExecutionResult runContainer(Language language, Path codePath, Path exerciseTestPath,
-      String containerId) {
+  private ExecutionResult runContainer(LanguageProfile language, String command, Path codePath,
+      Path exerciseTestPath, String containerId, List<Bind> extraBinds, List<String> env,
+      ExecutionLimits limits, String cpusetCpus) {
     HostConfig hostConfig;
     String workingDir;
-    if (language.getName().equals("typescript")) {
+    List<Bind> binds = new ArrayList<>(extraBinds);
+    if (language.name().equals("typescript")) {
+      binds.add(Bind.parse(codePath.toString() + ":/app/exercises"));
+      binds.add(Bind.parse(exerciseTestPath.toString() + ":/exercise"));
       hostConfig = HostConfig.newHostConfig()
-          .withBinds(
-              Bind.parse(codePath.toString() + ":/app/exercises"),
-              Bind.parse(exerciseTestPath.toString() + ":/exercise")
-          )
-          .withMemory(language.getDefaultMemoryLimit())
-          .withCpuCount(language.getDefaultCpuLimit());
+          .withBinds(binds)
+          .withMemory(limits.memoryBytes())
+          .withCpuCount(language.cpuLimit());
       workingDir = "/app/exercises";
     } else {
+      binds.add(Bind.parse(codePath.toString() + ":/code"));
+      binds.add(Bind.parse(exerciseTestPath.toString() + ":/exercise"));
       hostConfig = HostConfig.newHostConfig()
-          .withBinds(
-              Bind.parse(codePath.toString() + ":/code"),
-              Bind.parse(exerciseTestPath.toString() + ":/exercise")
-          )
-          .withMemory(language.getDefaultMemoryLimit())
-          .withCpuCount(language.getDefaultCpuLimit());
+          .withBinds(binds)
+          .withMemory(limits.memoryBytes())
+          .withCpuCount(language.cpuLimit());
       workingDir = "/code";
     }
-    CreateContainerResponse container = dockerClient.createContainerCmd(language.getDockerImage())
+    if (cpusetCpus != null) {
+      hostConfig.withCpusetCpus(cpusetCpus);
+    }
+    String image = sandboxImageManager.resolve(language);
+    long createStart = System.nanoTime();
+    CreateContainerResponse container = dockerClient.createContainerCmd(image)
         .withHostConfig(hostConfig)
         .withName("code-execution-" + containerId)
-        .withCmd("sh", "-c", language.getExecuteCommand())
+        .withCmd("sh", "-c", command)
+        .withEnv(env)
         .withWorkingDir(workingDir)
         .exec();
-    try (AutoCloseableContainer _ = new AutoCloseableContainer(container, dockerClient)) {
-      dockerClient.startContainerCmd(container.getId()).exec();
-
-      ExecutionData executionData = executeAndCollectData(container.getId(),
-          language.getDefaultTimeout());
-
-      if (language.getName().equals("rust")) {
+    recordPhase("create", createStart);
+    try (AutoCloseableContainer _ = new AutoCloseableContainer(container, dockerClient);
+        MemoryPeakCallback memoryPeak = dockerClient.statsCmd(container.getId())
+            .exec(new MemoryPeakCallback())) {
+      ExecutionData executionData = executeAndCollectData(container.getId(), limits.timeoutMs(),
+          memoryPeak);
+
+      if (language.name().equals("rust")) {
         // Para Rust, combina stdout y stderr
         String combinedOutput = executionData.logs().stdout() + executionData.logs().stderr();
-        return new ExecutionResult(executionData.exitCode(), combinedOutput, "", 0L, 0L);
+        return new ExecutionResult(executionData.exitCode(), combinedOutput, "",
+            executionData.durationMs(), executionData.memoryPeak());
       } else {
         return new ExecutionResult(executionData.exitCode(), executionData.logs().stdout(),
-            executionData.logs().stderr(), 0L, 0L);
+            executionData.logs().stderr(), executionData.durationMs(),
+            executionData.memoryPeak());
       }
     } catch (RuntimeException e) {
       // Re-throw RuntimeExceptions (including our interrupted exception) as is
@@ -172,67 +336,161 @@ public class DockerExecutionService {
     } catch (Exception e) {
       log.error("Error executing code in Docker container", e);
       return new ExecutionResult(-1, "", e.getMessage(), 0L, 0L);
-    } finally {
-      if (container != null) {
-        try {
-          boolean containerExists =
-              dockerClient.inspectContainerCmd(container.getId()).exec() != null;
-          if (containerExists) {
-            dockerClient.removeContainerCmd(container.getId()).withForce(true).exec();
-            log.info("Container {} removed successfully", container.getId());
-          }
-        } catch (NotFoundException e) {
-          log.info("Container {} does not exist, skipping removal", container.getId());
-        } catch (Exception e) {
-          log.warn("Error removing Docker container: {}. Reason: {}", container.getId(),
-              e.getMessage());
-        }
-      }
     }
   }
 
-  private ExecutionData executeAndCollectData(String containerId, long timeout) {
-    try {
-      int exitCode = waitForContainer(containerId, timeout);
-      ContainerLogs logs = collectContainerLogs(containerId, timeout);
-      return new ExecutionData(exitCode, logs);
+  /**
+   * Starts the container and waits for it without holding a thread per Docker stream: the exit
+   * code and the followed log stream are delivered by docker-java's callbacks into futures, and
+   * the calling (virtual) thread only parks on those futures.
+   */
+  private ExecutionData executeAndCollectData(String containerId, long timeout,
+      MemoryPeakCallback memoryPeak) {
+    inFlight.incrementAndGet();
+    long startNanos = System.nanoTime();
+    try (ExitCodeCallback exit = new ExitCodeCallback();
+        LogCollector logs = new LogCollector()) {
+      dockerClient.startContainerCmd(containerId).exec();
+      recordPhase("start", startNanos);
+      long runStart = System.nanoTime();
+      dockerClient.waitContainerCmd(containerId).exec(exit);
+      dockerClient.logContainerCmd(containerId)
+          .withStdOut(true)
+          .withStdErr(true)
+          .withFollowStream(true)
+          .exec(logs);
+
+      Integer exitCode = awaitExitCode(containerId, exit, timeout);
+      long durationMs = (System.nanoTime() - runStart) / 1_000_000;
+      recordPhase("run", runStart);
+
+      long logsStart = System.nanoTime();
+      ContainerLogs containerLogs = logs.await(LOG_DRAIN_TIMEOUT_MS);
+      recordPhase("logs", logsStart);
+      if (exitCode == null) {
+        containerLogs = new ContainerLogs(containerLogs.stdout(),
+            containerLogs.stderr() + "\nExecution timed out after " + timeout + " ms");
+        exitCode = TIMEOUT_EXIT_CODE;
+      }
+      return new ExecutionData(exitCode, containerLogs, durationMs, memoryPeak.getPeak());
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       throw new ContainerExecutionException("Container execution was interrupted", e);
+    } catch (IOException e) {
+      throw new ContainerExecutionException("Could not close the container streams", e);
+    } finally {
+      inFlight.decrementAndGet();
     }
   }
 
-  private record ExecutionData(int exitCode, ContainerLogs logs) {
+  private record ExecutionData(int exitCode, ContainerLogs logs, long durationMs,
+                               long memoryPeak) {
+
+  }
+
+  /**
+   * Waits for the container to exit. A container that outlives the timeout is killed, which is
+   * the submitted code's fault and not a failure of the sandbox.
+   *
+   * @return the exit code, or {@code null} if the container timed out
+   */
+  private Integer awaitExitCode(String containerId, ExitCodeCallback exit, long timeout)
+      throws InterruptedException {
+    try {
+      return exit.exitCode.get(timeout, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      try {
+        dockerClient.killContainerCmd(containerId).exec();
+      } catch (NotFoundException | ConflictException ignored) {
+        // The container exited between the timeout and the kill
+      }
+      return null;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new ContainerExecutionException("Waiting for the container failed", e.getCause());
+    }
+  }
 
+  private void recordPhase(String phase, long startNanos) {
+    meterRegistry.timer("engine.execution.phase", "phase", phase)
+        .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
   }
 
-  private int waitForContainer(String containerId, long timeout) {
-    return dockerClient.waitContainerCmd(containerId)
-        .exec(new WaitContainerResultCallback())
-        .awaitStatusCode(timeout, TimeUnit.MILLISECONDS);
+  /**
+   * Completes a future with the exit code reported by the container's wait stream.
+   */
+  private static class ExitCodeCallback extends ResultCallback.Adapter<WaitResponse> {
+
+    private final CompletableFuture<Integer> exitCode = new CompletableFuture<>();
+
+    @Override
+    public void onNext(WaitResponse response) {
+      exitCode.complete(response.getStatusCode());
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      exitCode.completeExceptionally(throwable);
+      super.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      exitCode.completeExceptionally(
+          new ContainerExecutionException("Container wait ended without an exit code"));
+      super.onComplete();
+    }
   }
 
-  private ContainerLogs collectContainerLogs(String containerId, long timeout)
-      throws InterruptedException {
-    ByteArrayOutputStream stdout = new ByteArrayOutputStream();
-    ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+  /**
+   * Collects the followed log stream of a container, which ends when the container exits.
+   */
+  private static class LogCollector extends ResultCallback.Adapter<Frame> {
 
-    LogContainerCmd logContainerCmd = dockerClient.logContainerCmd(containerId)
-        .withStdOut(true)
-        .withStdErr(true);
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
 
-    logContainerCmd.exec(new ResultCallback.Adapter<Frame>() {
-      @Override
-      public void onNext(Frame item) {
+    @Override
+    public void onNext(Frame item) {
+      synchronized (this) {
         if (item.getStreamType() == StreamType.STDOUT) {
           stdout.writeBytes(item.getPayload());
         } else if (item.getStreamType() == StreamType.STDERR) {
           stderr.writeBytes(item.getPayload());
         }
       }
-    }).awaitCompletion(timeout, TimeUnit.MILLISECONDS);
+    }
 
-    return new ContainerLogs(stdout.toString(), stderr.toString());
+    @Override
+    public void onError(Throwable throwable) {
+      done.complete(null);
+      super.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      done.complete(null);
+      super.onComplete();
+    }
+
+    /**
+     * Waits for the stream to end and returns what was collected, which is everything the
+     * container wrote unless the stream did not end in time.
+     */
+    ContainerLogs await(long timeoutMs) throws InterruptedException {
+      try {
+        done.get(timeoutMs, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException | ExecutionException e) {
+        log.warn("Log stream did not end in {} ms, using the output collected so far", timeoutMs);
+      }
+      synchronized (this) {
+        return new ContainerLogs(stdout.toString(StandardCharsets.UTF_8),
+            stderr.toString(StandardCharsets.UTF_8));
+      }
+    }
   }
 
   private record ContainerLogs(String stdout, String stderr) {
@@ -329,8 +587,48 @@ public class DockerExecutionService {
     return "github.com/cuervolu/cortex-exercises/unknown-exercise";
   }
 
+  /**
+   * Tracks the highest memory usage reported by the Docker stats stream of a container.
+   */
+  private static class MemoryPeakCallback extends ResultCallback.Adapter<Statistics> {
+
+    private final AtomicLong peak = new AtomicLong();
+
+    @Override
+    public void onNext(Statistics statistics) {
+      MemoryStatsConfig memoryStats = statistics.getMemoryStats();
+      if (memoryStats == null) {
+        return;
+      }
+      long usage = Math.max(
+          Objects.requireNonNullElse(memoryStats.getUsage(), 0L),
+          Objects.requireNonNullElse(memoryStats.getMaxUsage(), 0L));
+      peak.accumulateAndGet(usage, Math::max);
+    }
+
+    long getPeak() {
+      return peak.get();
+    }
+  }
+
+  /**
+   * Result of a container run.
+   *
+   * @param exitCode      the container exit code, -1 if the run failed inside the engine
+   * @param stdout        the standard output
+   * @param stderr        the standard error
+   * @param executionTime how long the container ran, in milliseconds
+   * @param memoryUsed    the peak memory usage, in bytes
+   */
   public record ExecutionResult(int exitCode, String stdout, String stderr, long executionTime,
                                 long memoryUsed) {
 
+    /**
+     * Whether the container was stopped from outside, by its timeout or by the kernel for going
+     * over its memory limit, rather than exiting on its own.
+     */
+    public boolean killed() {
+      return exitCode == TIMEOUT_EXIT_CODE || exitCode == KILLED_EXIT_CODE;
+    }
   }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.cortex.backend.engine.internal.docker;
+
+/**
+ * Resource limits applied to one container run.
+ *
+ * @param timeoutMs   how long the container may run, in milliseconds
+ * @param memoryBytes the container memory limit, in bytes
+ * @param source      where the limits came from: {@code override}, {@code learned} or
+ *                    {@code default}
+ */
+public record ExecutionLimits(long timeoutMs, long memoryBytes, String source) {
+
+}
@@ -0,0 +1,220 @@
+package com.cortex.backend.engine.internal.docker;
+
+import com.cortex.backend.engine.internal.ExerciseConfig;
+import com.cortex.backend.engine.internal.assets.ExerciseAssetIndex;
+import com.cortex.backend.engine.internal.languages.LanguageProfile;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Works out the timeout and memory limit of each run from the exercise's run history.
+ *
+ * <p>Completed runs are recorded in a capped Redis list per language and exercise, shared by all
+ * nodes. Once an exercise has enough samples its timeout becomes the p99 run time times a safety
+ * factor and its memory limit the p99 peak usage plus headroom, never above the language defaults.
+ * {@code timeout_ms} and {@code memory_limit_mb} in the exercise's {@code .docs/config.yml} take
+ * precedence over both.
+ */
+@Component
+@Slf4j
+public class ExecutionLimitsResolver {
+
+  private static final String STATS_KEY_PREFIX = "engine:stats:";
+  private static final long MB = 1024 * 1024L;
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final ExerciseAssetIndex exerciseAssetIndex;
+  private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory())
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  private final Map<String, Overrides> overrides = new ConcurrentHashMap<>();
+  private final Map<String, Learned> learned = new ConcurrentHashMap<>();
+
+  @Value("${engine.limits.safety-factor:3.0}")
+  private double safetyFactor;
+
+  @Value("${engine.limits.memory-headroom:1.5}")
+  private double memoryHeadroom;
+
+  @Value("${engine.limits.min-samples:20}")
+  private int minSamples;
+
+  @Value("${engine.limits.history-size:200}")
+  private int historySize;
+
+  @Value("${engine.limits.min-timeout-ms:5000}")
+  private long minTimeoutMs;
+
+  @Value("${engine.limits.min-memory-mb:64}")
+  private long minMemoryMb;
+
+  @Value("${engine.limits.refresh-ms:60000}")
+  private long refreshMs;
+
+  public ExecutionLimitsResolver(StringRedisTemplate stringRedisTemplate,
+      ExerciseAssetIndex exerciseAssetIndex) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.exerciseAssetIndex = exerciseAssetIndex;
+  }
+
+  private record Overrides(String commit, Long timeoutMs, Long memoryBytes, Integer shards) {
+
+  }
+
+  private record Learned(long loadedAt, Long timeoutMs, Long memoryBytes) {
+
+  }
+
+  /**
+   * Resolves the limits of a run.
+   *
+   * @param language     the language profile, providing the upper bounds
+   * @param exercisePath the exercise directory in the local repository
+   * @return the limits to apply
+   */
+  public ExecutionLimits resolve(LanguageProfile language, Path exercisePath) {
+    long defaultTimeout = language.timeout();
+    long defaultMemory = language.memoryLimit();
+
+    Overrides configured = overridesFor(exercisePath);
+    if (configured.timeoutMs() != null || configured.memoryBytes() != null) {
+      return new ExecutionLimits(
+          Objects.requireNonNullElse(configured.timeoutMs(), defaultTimeout),
+          Objects.requireNonNullElse(configured.memoryBytes(), defaultMemory),
+          "override");
+    }
+
+    Learned history = learnedFor(statsKey(language, exercisePath));
+    if (history.timeoutMs() == null) {
+      return new ExecutionLimits(defaultTimeout, defaultMemory, "default");
+    }
+    long timeout = clamp((long) (history.timeoutMs() * safetyFactor), minTimeoutMs,
+        defaultTimeout);
+    long memory = history.memoryBytes() == null ? defaultMemory
+        : clamp((long) (history.memoryBytes() * memoryHeadroom), minMemoryMb * MB, defaultMemory);
+    return new ExecutionLimits(timeout, memory, "learned");
+  }
+
+  /**
+   * Returns the number of test shards an exercise asked for in its config, 1 if it runs
+   * unsharded.
+   *
+   * @param exercisePath the exercise directory in the local repository
+   * @return the number of shards
+   */
+  public int getShardCount(Path exercisePath) {
+    Integer shards = overridesFor(exercisePath).shards();
+    return shards == null ? 1 : Math.max(1, shards);
+  }
+
+  /**
+   * Records a completed run. Runs that timed out or failed inside the engine are not recorded.
+   *
+   * @param language     the language profile
+   * @param exercisePath the exercise directory in the local repository
+   * @param durationMs   how long the container ran
+   * @param memoryBytes  the peak memory usage of the container, 0 if unknown
+   */
+  public void record(LanguageProfile language, Path exercisePath, long durationMs,
+      long memoryBytes) {
+    String key = statsKey(language, exercisePath);
+    try {
+      stringRedisTemplate.opsForList().leftPush(key, durationMs + ":" + memoryBytes);
+      stringRedisTemplate.opsForList().trim(key, 0, historySize - 1L);
+    } catch (Exception e) {
+      log.warn("Could not record run stats for {}: {}", key, e.getMessage());
+    }
+  }
+
+  private Overrides overridesFor(Path exercisePath) {
+    String commit = exerciseAssetIndex.getCurrentCommit();
+    Overrides cached = overrides.get(exercisePath.toString());
+    if (cached != null && Objects.equals(cached.commit(), commit)) {
+      return cached;
+    }
+    Overrides loaded = readOverrides(exercisePath, commit);
+    overrides.put(exercisePath.toString(), loaded);
+    return loaded;
+  }
+
+  private Overrides readOverrides(Path exercisePath, String commit) {
+    Path configPath = exercisePath.resolve(".docs/config.yml");
+    if (!Files.isRegularFile(configPath)) {
+      return new Overrides(commit, null, null, null);
+    }
+    try {
+      ExerciseConfig config = yamlMapper.readValue(configPath.toFile(), ExerciseConfig.class);
+      Long memory = config.getMemoryLimitMb() != null ? config.getMemoryLimitMb() * MB : null;
+      return new Overrides(commit, config.getTimeoutMs(), memory, config.getShards());
+    } catch (IOException e) {
+      log.warn("Could not read limit overrides from {}: {}", configPath, e.getMessage());
+      return new Overrides(commit, null, null, null);
+    }
+  }
+
+  private Learned learnedFor(String key) {
+    long now = System.currentTimeMillis();
+    Learned cached = learned.get(key);
+    if (cached != null && now - cached.loadedAt() < refreshMs) {
+      return cached;
+    }
+    Learned loaded = loadHistory(key, now);
+    learned.put(key, loaded);
+    return loaded;
+  }
+
+  private Learned loadHistory(String key, long now) {
+    List<String> samples;
+    try {
+      samples = stringRedisTemplate.opsForList().range(key, 0, -1);
+    } catch (Exception e) {
+      log.warn("Could not read run stats for {}: {}", key, e.getMessage());
+      return new Learned(now, null, null);
+    }
+    if (samples == null || samples.size() < minSamples) {
+      return new Learned(now, null, null);
+    }
+
+    long[] durations = new long[samples.size()];
+    long[] memory = new long[samples.size()];
+    int memorySamples = 0;
+    for (int i = 0; i < samples.size(); i++) {
+      String[] parts = samples.get(i).split(":");
+      durations[i] = Long.parseLong(parts[0]);
+      long used = parts.length > 1 ? Long.parseLong(parts[1]) : 0L;
+      if (used > 0) {
+        memory[memorySamples++] = used;
+      }
+    }
+    Long memoryP99 = memorySamples >= minSamples
+        ? p99(Arrays.copyOf(memory, memorySamples)) : null;
+    return new Learned(now, p99(durations), memoryP99);
+  }
+
+  private static long p99(long[] values) {
+    Arrays.sort(values);
+    int index = (int) Math.ceil(values.length * 0.99) - 1;
+    return values[Math.max(0, index)];
+  }
+
+  private static long clamp(long value, long min, long max) {
+    return Math.max(Math.min(value, max), Math.min(min, max));
+  }
+
+  private static String statsKey(LanguageProfile language, Path exercisePath) {
+    return STATS_KEY_PREFIX + language.name() + ":" + exercisePath.getFileName();
+  }
+}
@@ -0,0 +1,280 @@
+package com.cortex.backend.engine.internal.docker;
+
+import com.cortex.backend.engine.internal.languages.LanguageProfile;
+import com.cortex.backend.engine.internal.languages.LanguageProfilesReloadedEvent;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectImageResponse;
+import com.github.dockerjava.api.command.PullImageResultCallback;
+import com.github.dockerjava.api.exception.NotFoundException;
+import jakarta.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes sure the sandbox image of every language is present on the Docker host before code is run
+ * in it. Images are pulled when the language profiles are (re)loaded and pinned to the repository
+ * digest they resolved to, so every run of a language uses exactly the same image until the next
+ * reload, even if the tag is moved meanwhile. Images without a repository digest, such as images
+ * built locally, are pinned to their id.
+ *
+ * <p>Docker has no way to protect an image from {@code docker image prune -a}, so the images are
+ * verified periodically and pulled again, by digest, if something removed them.
+ *
+ * <p>Every node reports the languages it can run to the {@code sandbox:ready} Redis hash every
+ * {@code engine.images.report-interval-ms}, and a report expires after three intervals. A node
+ * accepts a submission for a language when any node that consumes tasks can run it, so nodes that
+ * only serve the API, or whose own images are still being pulled, do not turn submissions away.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SandboxImageManager {
+
+  private static final String READY_KEY = "sandbox:ready";
+
+  private final DockerClient dockerClient;
+  private final StringRedisTemplate stringRedisTemplate;
+
+  private final ExecutorService executor =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("image-pull-", 0).factory());
+
+  private final Map<String, ImageStatus> images = new ConcurrentHashMap<>();
+  private final Set<String> pulling = ConcurrentHashMap.newKeySet();
+  private volatile Map<String, String> languageImages = Map.of();
+  private final String nodeId = UUID.randomUUID().toString();
+  private volatile WorkerLanguages workerLanguages = new WorkerLanguages(Set.of(), 0);
+
+  @Value("${engine.images.pull-timeout-ms:900000}")
+  private long pullTimeoutMs;
+
+  @Value("${engine.images.report-interval-ms:15000}")
+  private long reportIntervalMs;
+
+  /** The languages reported by the nodes, as read from Redis at {@code readAt}. */
+  private record WorkerLanguages(Set<String> languages, long readAt) {
+
+  }
+
+  public enum ImageState {
+    PULLING, READY, FAILED
+  }
+
+  /**
+   * Status of one sandbox image.
+   *
+   * @param state  the image state
+   * @param pinned the image id the image is pinned to, once ready
+   * @param error  the last error, if the image could not be pulled
+   */
+  public record ImageStatus(ImageState state, String pinned, String error) {
+
+  }
+
+  @EventListener
+  public void onLanguagesReloaded(LanguageProfilesReloadedEvent event) {
+    languageImages = event.profiles().stream()
+        .collect(Collectors.toUnmodifiableMap(LanguageProfile::name,
+            LanguageProfile::dockerImage));
+    Collection<String> configured = Set.copyOf(languageImages.values());
+    images.keySet().retainAll(configured);
+    configured.forEach(image -> executor.submit(() -> ensureImage(image, true)));
+  }
+
+  /**
+   * Verifies that the pinned images are still present and pulls the missing ones.
+   */
+  @Scheduled(fixedDelayString = "${engine.images.verify-interval-ms:300000}",
+      initialDelayString = "${engine.images.verify-interval-ms:300000}")
+  public void verifyImages() {
+    Set.copyOf(languageImages.values()).forEach(image -> executor.submit(() -> ensureImage(image,
+        false)));
+  }
+
+  /**
+   * Returns the image reference to run a language with: the pinned image id once the image is
+   * ready, otherwise the configured reference.
+   *
+   * @param language the language profile
+   * @return the image to create the container from
+   */
+  public String resolve(LanguageProfile language) {
+    ImageStatus status = images.get(language.dockerImage());
+    return status != null && status.state() == ImageState.READY
+        ? status.pinned() : language.dockerImage();
+  }
+
+  /**
+   * Checks whether this host can run a language.
+   */
+  public boolean isReady(String languageName) {
+    String image = languageImages.get(languageName);
+    ImageStatus status = image == null ? null : images.get(image);
+    return status != null && status.state() == ImageState.READY;
+  }
+
+  /**
+   * Checks whether this host or any other node has reported that it can run a language.
+   */
+  public boolean isAvailable(String languageName) {
+    return isReady(languageName) || reportedLanguages().contains(languageName);
+  }
+
+  /**
+   * Reports the languages this host can run.
+   */
+  @Scheduled(fixedDelayString = "${engine.images.report-interval-ms:15000}")
+  public void reportReadiness() {
+    long expiresAt = System.currentTimeMillis() + 3 * reportIntervalMs;
+    try {
+      stringRedisTemplate.opsForHash().put(READY_KEY, nodeId,
+          expiresAt + "|" + String.join(",", getReadyLanguages()));
+    } catch (DataAccessException e) {
+      log.warn("Could not report sandbox readiness: {}", e.getMessage());
+    }
+  }
+
+  private Set<String> reportedLanguages() {
+    WorkerLanguages cached = workerLanguages;
+    long now = System.currentTimeMillis();
+    if (now - cached.readAt() < reportIntervalMs / 3) {
+      return cached.languages();
+    }
+    Set<String> languages = new HashSet<>();
+    try {
+      stringRedisTemplate.<String, String>opsForHash().entries(READY_KEY).forEach((node, report) -> {
+        String[] parts = report.split("\\|", 2);
+        if (Long.parseLong(parts[0]) < now) {
+          stringRedisTemplate.opsForHash().delete(READY_KEY, node);
+        } else if (parts.length > 1 && !parts[1].isEmpty()) {
+          languages.addAll(List.of(parts[1].split(",")));
+        }
+      });
+    } catch (DataAccessException | NumberFormatException e) {
+      log.warn("Could not read sandbox readiness of the other nodes: {}", e.getMessage());
+    }
+    workerLanguages = new WorkerLanguages(Set.copyOf(languages), now);
+    return workerLanguages.languages();
+  }
+
+  /**
+   * Returns the names of the languages whose images are ready on this host.
+   */
+  public List<String> getReadyLanguages() {
+    return languageImages.keySet().stream().filter(this::isReady).sorted().toList();
+  }
+
+  /**
+   * Returns the status of every configured image, keyed by image reference.
+   */
+  public Map<String, ImageStatus> getImages() {
+    return Collections.unmodifiableMap(new TreeMap<>(images));
+  }
+
+  /**
+   * Returns the configured images, keyed by language name.
+   */
+  public Map<String, String> getLanguageImages() {
+    return languageImages;
+  }
+
+  private void ensureImage(String image, boolean repin) {
+    if (!pulling.add(image)) {
+      return;
+    }
+    try {
+      ImageStatus current = images.get(image);
+      if (!repin && current != null && current.state() == ImageState.READY
+          && inspect(current.pinned()) != null) {
+        return;
+      }
+
+      // A verified image that disappeared is pulled again by its digest, not by its tag
+      String reference = !repin && current != null && current.pinned() != null
+          && current.pinned().contains("@") ? current.pinned() : image;
+      InspectImageResponse found = inspect(reference);
+      if (found == null) {
+        images.put(image, new ImageStatus(ImageState.PULLING, null, null));
+        log.info("Pulling sandbox image {}", reference);
+        long start = System.nanoTime();
+        boolean completed = dockerClient.pullImageCmd(reference)
+            .exec(new PullImageResultCallback())
+            .awaitCompletion(pullTimeoutMs, TimeUnit.MILLISECONDS);
+        if (!completed) {
+          throw new IllegalStateException("Pull did not complete in " + pullTimeoutMs + " ms");
+        }
+        log.info("Pulled sandbox image {} in {} ms", reference,
+            (System.nanoTime() - start) / 1_000_000);
+        found = inspect(reference);
+        if (found == null) {
+          throw new IllegalStateException("Image not found after pull");
+        }
+      }
+      String pinned = pinnedReference(image, found);
+      images.put(image, new ImageStatus(ImageState.READY, pinned, null));
+      log.info("Sandbox image {} pinned to {}", image, pinned);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      images.put(image, new ImageStatus(ImageState.FAILED, null, "Interrupted"));
+    } catch (Exception e) {
+      log.error("Could not prepare sandbox image {}: {}", image, e.getMessage());
+      images.put(image, new ImageStatus(ImageState.FAILED, null, e.getMessage()));
+    } finally {
+      pulling.remove(image);
+      reportReadiness();
+    }
+  }
+
+  private InspectImageResponse inspect(String image) {
+    try {
+      return dockerClient.inspectImageCmd(image).exec();
+    } catch (NotFoundException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the repository digest of an image, for example {@code python@sha256:...}, or its id if
+   * it was never pushed to or pulled from a registry.
+   */
+  private static String pinnedReference(String image, InspectImageResponse response) {
+    String repository = repositoryOf(image);
+    List<String> digests = Optional.ofNullable(response.getRepoDigests()).orElse(List.of());
+    return digests.stream().filter(digest -> digest.startsWith(repository + "@")).findFirst()
+        .or(() -> digests.stream().findFirst())
+        .orElse(response.getId());
+  }
+
+  private static String repositoryOf(String image) {
+    int digest = image.indexOf('@');
+    if (digest >= 0) {
+      return image.substring(0, digest);
+    }
+    int tag = image.lastIndexOf(':');
+    return tag > image.lastIndexOf('/') ? image.substring(0, tag) : image;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
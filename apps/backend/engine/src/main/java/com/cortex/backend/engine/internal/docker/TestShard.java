@@ -0,0 +1,16 @@
+package com.cortex.backend.engine.internal.docker;
+
+import java.util.List;
+
+/**
+ * A subset of an exercise's tests run in its own container.
+ *
+ * @param index  the shard number, starting at 1
+ * @param total  the number of shards of the run
+ * @param tests  the names of the tests in the shard
+ * @param filter the command-line arguments selecting the tests, substituted for
+ *               {@code {testFilter}} in the language's execute command
+ */
+public record TestShard(int index, int total, List<String> tests, String filter) {
+
+}
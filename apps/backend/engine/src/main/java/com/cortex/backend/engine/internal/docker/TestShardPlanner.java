@@ -0,0 +1,269 @@
+package com.cortex.backend.engine.internal.docker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Splits the test suite of an exercise that opted into sharding ({@code shards} in
+ * {@code .docs/config.yml}) into groups that run in parallel containers. Tests are discovered from
+ * the exercise sources with a per-language pattern and dealt round-robin into the shards; each
+ * shard carries the test runner arguments that select its tests. Tests are selected by their full
+ * name and matched exactly, so a test whose name is a prefix of another's runs in one shard only.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TestShardPlanner {
+
+  private final ExecutionLimitsResolver executionLimitsResolver;
+
+  /**
+   * How to find and select the tests of one language.
+   *
+   * @param testFile matches the files that contain tests
+   * @param scan     finds the tests in the source of a file, by the name the runner knows them
+   *                 by within the file
+   * @param filter   builds the runner arguments from the exercise directory and the tests of a
+   *                 shard, keyed by file
+   */
+  private record Discovery(Predicate<Path> testFile, Function<String, List<String>> scan,
+                           BiFunction<Path, Map<Path, List<String>>, String> filter) {
+
+  }
+
+  private static final Pattern PYTHON_TESTS = Pattern.compile(
+      "^(?:class (?<suite>\\w+)|(?<top>[^\\s#@])|[ \\t]+def (?<test>test\\w*)\\s*\\()",
+      Pattern.MULTILINE);
+  private static final Pattern GO_TESTS = Pattern.compile(
+      "^func (Test\\w+)\\s*\\(\\s*\\w+\\s+\\*testing\\.T\\s*\\)", Pattern.MULTILINE);
+  private static final Pattern RUST_TESTS = Pattern.compile(
+      "(?:pub(?:\\([^)]*\\))?\\s+)?mod (?<module>\\w+)\\s*\\{"
+          + "|#\\[test]\\s*(?:#\\[[^\\]]*]\\s*)*fn (?<test>\\w+)"
+          + "|(?<open>\\{)|(?<close>})");
+  private static final Pattern JAVA_TESTS = Pattern.compile(
+      "@Test\\s*(?:@\\w+(?:\\([^)]*\\))?\\s*)*(?:public\\s+)?void (\\w+)");
+
+  private static final Map<String, Discovery> DISCOVERIES = Map.of(
+      "python", new Discovery(
+          file -> file.getFileName().toString().matches("(test_.*|.*_test)\\.py"),
+          TestShardPlanner::scanPython,
+          (root, tests) -> tests.entrySet().stream()
+              .flatMap(entry -> entry.getValue().stream()
+                  .map(test -> " -k '" + exactPattern(pythonModule(root, entry.getKey()) + "."
+                      + test) + "'"))
+              .collect(Collectors.joining())),
+      "go", new Discovery(
+          file -> file.getFileName().toString().endsWith("_test.go"),
+          source -> matches(GO_TESTS, source),
+          (root, tests) -> " -run '^(" + String.join("|", names(tests)) + ")$'"),
+      "rust", new Discovery(
+          file -> file.getFileName().toString().endsWith(".rs"),
+          TestShardPlanner::scanRust,
+          (root, tests) -> " -- --exact " + tests.entrySet().stream()
+              .flatMap(entry -> entry.getValue().stream()
+                  .map(test -> rustModule(root, entry.getKey()) + test))
+              .collect(Collectors.joining(" "))),
+      "java", new Discovery(
+          file -> file.getFileName().toString().endsWith("Test.java"),
+          source -> matches(JAVA_TESTS, source),
+          (root, tests) -> " -Dtest='" + tests.entrySet().stream()
+              .map(entry -> className(entry.getKey()) + "#" + String.join("+", entry.getValue()))
+              .collect(Collectors.joining(","))
+              + "' -Dsurefire.failIfNoSpecifiedTests=false")
+  );
+
+  /**
+   * Plans the shards of a run.
+   *
+   * @param language     the language name
+   * @param exercisePath the exercise directory in the local repository
+   * @return the shards, or an empty list if the exercise runs unsharded
+   */
+  public List<TestShard> plan(String language, Path exercisePath) {
+    int requested = executionLimitsResolver.getShardCount(exercisePath);
+    Discovery discovery = DISCOVERIES.get(language);
+    if (requested < 2 || discovery == null) {
+      return List.of();
+    }
+
+    Map<Path, List<String>> tests;
+    try {
+      tests = discover(exercisePath, discovery);
+    } catch (IOException e) {
+      log.warn("Could not discover tests in {}, running unsharded: {}", exercisePath,
+          e.getMessage());
+      return List.of();
+    }
+    int testCount = tests.values().stream().mapToInt(List::size).sum();
+    int shardCount = Math.min(requested, testCount);
+    if (shardCount < 2) {
+      return List.of();
+    }
+
+    List<Map<Path, List<String>>> buckets = new ArrayList<>();
+    for (int i = 0; i < shardCount; i++) {
+      buckets.add(new LinkedHashMap<>());
+    }
+    int next = 0;
+    for (Map.Entry<Path, List<String>> file : tests.entrySet()) {
+      for (String test : file.getValue()) {
+        buckets.get(next++ % shardCount)
+            .computeIfAbsent(file.getKey(), _ -> new ArrayList<>())
+            .add(test);
+      }
+    }
+
+    List<TestShard> shards = new ArrayList<>();
+    for (int i = 0; i < shardCount; i++) {
+      Map<Path, List<String>> bucket = buckets.get(i);
+      shards.add(new TestShard(i + 1, shardCount, names(bucket),
+          discovery.filter().apply(exercisePath, bucket)));
+    }
+    log.info("Split {} tests of {} into {} shards", testCount, exercisePath.getFileName(),
+        shardCount);
+    return shards;
+  }
+
+  private Map<Path, List<String>> discover(Path exercisePath, Discovery discovery)
+      throws IOException {
+    Map<Path, List<String>> tests = new LinkedHashMap<>();
+    List<Path> files;
+    try (Stream<Path> paths = Files.walk(exercisePath)) {
+      files = paths.filter(Files::isRegularFile)
+          .filter(path -> !exercisePath.relativize(path).startsWith(".docs"))
+          .filter(discovery.testFile())
+          .sorted()
+          .toList();
+    }
+    for (Path file : files) {
+      List<String> found = discovery.scan().apply(Files.readString(file));
+      if (!found.isEmpty()) {
+        tests.put(file, found);
+      }
+    }
+    return tests;
+  }
+
+  private static List<String> matches(Pattern pattern, String source) {
+    List<String> tests = new ArrayList<>();
+    Matcher matcher = pattern.matcher(source);
+    while (matcher.find()) {
+      tests.add(matcher.group(1));
+    }
+    return tests;
+  }
+
+  /**
+   * Finds the test methods of the top-level classes of a Python file, as {@code Class.method}.
+   */
+  private static List<String> scanPython(String source) {
+    List<String> tests = new ArrayList<>();
+    String suite = null;
+    Matcher matcher = PYTHON_TESTS.matcher(source);
+    while (matcher.find()) {
+      if (matcher.group("suite") != null) {
+        suite = matcher.group("suite");
+      } else if (matcher.group("top") != null) {
+        suite = null;
+      } else if (suite != null) {
+        tests.add(suite + "." + matcher.group("test"));
+      }
+    }
+    return tests;
+  }
+
+  /**
+   * Finds the tests of a Rust file with the path of the inline modules they are declared in, for
+   * example {@code tests::adds_numbers}. Modules are tracked by brace depth.
+   */
+  private static List<String> scanRust(String source) {
+    List<String> tests = new ArrayList<>();
+    Deque<Map.Entry<String, Integer>> modules = new ArrayDeque<>();
+    int depth = 0;
+    Matcher matcher = RUST_TESTS.matcher(source);
+    while (matcher.find()) {
+      if (matcher.group("module") != null) {
+        modules.push(Map.entry(matcher.group("module"), depth++));
+      } else if (matcher.group("open") != null) {
+        depth++;
+      } else if (matcher.group("close") != null) {
+        depth--;
+        if (!modules.isEmpty() && modules.peek().getValue() == depth) {
+          modules.pop();
+        }
+      } else {
+        StringBuilder path = new StringBuilder();
+        modules.descendingIterator()
+            .forEachRemaining(module -> path.append(module.getKey()).append("::"));
+        tests.add(path + matcher.group("test"));
+      }
+    }
+    return tests;
+  }
+
+  /**
+   * Returns the module {@code unittest discover} imports a file as, from the exercise directory.
+   */
+  private static String pythonModule(Path root, Path file) {
+    String relative = root.relativize(file).toString();
+    return relative.substring(0, relative.length() - ".py".length())
+        .replace(file.getFileSystem().getSeparator(), ".");
+  }
+
+  /**
+   * Returns the path prefix of the tests of a Rust file: empty for integration tests and the crate
+   * root, {@code module::} for the other files under {@code src}.
+   */
+  private static String rustModule(Path root, Path file) {
+    Path relative = root.relativize(file);
+    if (!relative.startsWith("src") || relative.getNameCount() < 2) {
+      return "";
+    }
+    List<String> parts = new ArrayList<>();
+    relative.subpath(1, relative.getNameCount()).forEach(part -> parts.add(part.toString()));
+    String last = parts.removeLast();
+    if (parts.isEmpty() && (last.equals("lib.rs") || last.equals("main.rs"))) {
+      return "";
+    }
+    if (!last.equals("mod.rs")) {
+      parts.add(last.substring(0, last.length() - ".rs".length()));
+    }
+    return parts.isEmpty() ? "" : String.join("::", parts) + "::";
+  }
+
+  /**
+   * Makes a unittest {@code -k} pattern match one test name exactly. unittest wraps a pattern
+   * without a {@code *} in wildcards, turning it into a substring match; putting the first
+   * character in a class with {@code *} keeps the pattern whole while still matching only that
+   * character, since test names never contain {@code *}.
+   */
+  private static String exactPattern(String name) {
+    return "[" + name.charAt(0) + "*]" + name.substring(1);
+  }
+
+  private static List<String> names(Map<Path, List<String>> tests) {
+    return tests.values().stream().flatMap(List::stream).toList();
+  }
+
+  private static String className(Path file) {
+    String name = file.getFileName().toString();
+    return name.substring(0, name.length() - ".java".length());
+  }
+}
@@ -0,0 +1,80 @@
+package com.cortex.backend.engine.internal.languages;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A container command split once into literal text and {@code {placeholder}} segments, so every
+ * execution renders it by concatenation instead of re-scanning the raw string. Placeholders without
+ * a value are rendered unchanged, which keeps shell constructs such as {@code ${HOME}} intact.
+ */
+public final class CommandTemplate {
+
+  private static final Pattern PLACEHOLDER = Pattern.compile("\\{([A-Za-z][A-Za-z0-9_]*)}");
+
+  private final String source;
+  private final List<Segment> segments;
+
+  private CommandTemplate(String source, List<Segment> segments) {
+    this.source = source;
+    this.segments = segments;
+  }
+
+  private record Segment(String text, boolean placeholder) {
+
+  }
+
+  /**
+   * Tokenises a command template.
+   *
+   * @param source the raw command, may contain {@code {name}} placeholders
+   * @return the compiled template
+   */
+  public static CommandTemplate compile(String source) {
+    List<Segment> segments = new ArrayList<>();
+    Matcher matcher = PLACEHOLDER.matcher(source);
+    int last = 0;
+    while (matcher.find()) {
+      if (matcher.start() > last) {
+        segments.add(new Segment(source.substring(last, matcher.start()), false));
+      }
+      segments.add(new Segment(matcher.group(1), true));
+      last = matcher.end();
+    }
+    if (last < source.length()) {
+      segments.add(new Segment(source.substring(last), false));
+    }
+    return new CommandTemplate(source, List.copyOf(segments));
+  }
+
+  /**
+   * Renders the command with the given placeholder values.
+   *
+   * @param variables the values of the placeholders
+   * @return the command to run
+   */
+  public String render(Map<String, String> variables) {
+    StringBuilder command = new StringBuilder(source.length() + 32);
+    for (Segment segment : segments) {
+      if (!segment.placeholder()) {
+        command.append(segment.text());
+        continue;
+      }
+      String value = variables.get(segment.text());
+      command.append(value != null ? value : "{" + segment.text() + "}");
+    }
+    return command.toString();
+  }
+
+  public String getSource() {
+    return source;
+  }
+
+  @Override
+  public String toString() {
+    return source;
+  }
+}
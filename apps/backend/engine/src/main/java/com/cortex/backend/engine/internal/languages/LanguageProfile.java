@@ -0,0 +1,43 @@
+package com.cortex.backend.engine.internal.languages;
+
+import com.cortex.backend.core.domain.Language;
+
+/**
+ * Immutable snapshot of a {@link Language} row used on the execution path.
+ *
+ * @param id             the language id, used to reference the row without loading it
+ * @param name           the language name
+ * @param dockerImage    the image the code runs in
+ * @param fileExtension  the extension of the exercise source files
+ * @param executeCommand the compiled execute command
+ * @param compileCommand the compile command, if any
+ * @param memoryLimit    the default memory limit in bytes
+ * @param cpuLimit       the default number of CPUs
+ * @param timeout        the default timeout in milliseconds
+ */
+public record LanguageProfile(
+    Long id,
+    String name,
+    String dockerImage,
+    String fileExtension,
+    CommandTemplate executeCommand,
+    String compileCommand,
+    Long memoryLimit,
+    Long cpuLimit,
+    Long timeout
+) {
+
+  static LanguageProfile from(Language language) {
+    return new LanguageProfile(
+        language.getId(),
+        language.getName(),
+        language.getDockerImage(),
+        language.getFileExtension(),
+        CommandTemplate.compile(language.getExecuteCommand()),
+        language.getCompileCommand(),
+        language.getDefaultMemoryLimit(),
+        language.getDefaultCpuLimit(),
+        language.getDefaultTimeout()
+    );
+  }
+}
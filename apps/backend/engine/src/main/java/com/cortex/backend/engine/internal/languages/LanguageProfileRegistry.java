@@ -0,0 +1,95 @@
+package com.cortex.backend.engine.internal.languages;
+
+import com.cortex.backend.core.common.exception.UnsupportedLanguageException;
+import com.cortex.backend.engine.api.LanguageRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory registry of the supported languages. The registry is loaded from the {@code language}
+ * table when the languages startup phase runs and replaced as a whole on every reload, so readers
+ * never see a partially updated map and never hit the database.
+ *
+ * <p>Nodes notify each other of changes on a Redis channel; every other node reloads its registry
+ * when it receives the notification.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LanguageProfileRegistry implements MessageListener {
+
+  public static final String LANGUAGES_CHANNEL = "engine:languages:changed";
+
+  private final LanguageRepository languageRepository;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+
+  private final String nodeId = UUID.randomUUID().toString();
+
+  private volatile Map<String, LanguageProfile> profiles = Map.of();
+
+  /**
+   * Returns the profile of a language.
+   *
+   * @param name the language name
+   * @return the profile
+   * @throws UnsupportedLanguageException if the language is not registered
+   */
+  public LanguageProfile get(String name) {
+    return find(name)
+        .orElseThrow(() -> new UnsupportedLanguageException("Unsupported language: " + name));
+  }
+
+  public Optional<LanguageProfile> find(String name) {
+    return name == null ? Optional.empty() : Optional.ofNullable(profiles.get(name));
+  }
+
+  public boolean supports(String name) {
+    return find(name).isPresent();
+  }
+
+  /**
+   * Reloads the registry from the database.
+   */
+  public void reload() {
+    profiles = StreamSupport.stream(languageRepository.findAll().spliterator(), false)
+        .map(LanguageProfile::from)
+        .collect(Collectors.toUnmodifiableMap(LanguageProfile::name, Function.identity()));
+    log.info("Loaded {} language profiles: {}", profiles.size(), profiles.keySet());
+    eventPublisher.publishEvent(new LanguageProfilesReloadedEvent(profiles.values()));
+  }
+
+  /**
+   * Reloads the registry and tells the other nodes to do the same.
+   */
+  public void reloadAndPublish() {
+    reload();
+    try {
+      stringRedisTemplate.convertAndSend(LANGUAGES_CHANNEL, nodeId);
+    } catch (Exception e) {
+      log.warn("Could not publish language changes: {}", e.getMessage());
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String sender = new String(message.getBody(), StandardCharsets.UTF_8);
+    if (nodeId.equals(sender)) {
+      return;
+    }
+    log.info("Languages changed on node {}, reloading profiles", sender);
+    reload();
+  }
+}
@@ -0,0 +1,12 @@
+package com.cortex.backend.engine.internal.languages;
+
+import java.util.Collection;
+
+/**
+ * Published after the {@link LanguageProfileRegistry} has been reloaded on this node.
+ *
+ * @param profiles the profiles now in the registry
+ */
+public record LanguageProfilesReloadedEvent(Collection<LanguageProfile> profiles) {
+
+}
@@ -0,0 +1,149 @@
+package com.cortex.backend.engine.internal.results;
+
+import com.cortex.backend.engine.api.dto.CodeExecutionResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Stores execution results in Redis in a versioned envelope, compressing the large ones.
+ *
+ * <p>An entry starts with a magic byte, the format version and a flags byte, followed by the
+ * Jackson payload of the result, deflated when it is larger than the compression threshold. Output
+ * text makes up nearly all of a large result and compresses well, so fast deflate is used rather
+ * than the slower high ratio levels. Entries without the magic byte are plain JSON written before
+ * the envelope existed and are still read; with {@code binary} set to {@code false} results are
+ * written in that format too, which keeps nodes that only know JSON working during a rollout.
+ *
+ * <p>The size of the stored entries and the time spent encoding and decoding them are recorded by
+ * format, to compare both formats on real results.
+ */
+public class CodeExecutionResultRedisSerializer implements RedisSerializer<CodeExecutionResult> {
+
+  private static final byte MAGIC = (byte) 0xCE;
+  private static final byte VERSION = 1;
+  private static final byte FLAG_DEFLATED = 1;
+  private static final int HEADER_SIZE = 3;
+
+  private final ObjectMapper objectMapper;
+  private final boolean binary;
+  private final int compressThresholdBytes;
+  private final DistributionSummary binarySize;
+  private final DistributionSummary jsonSize;
+  private final Timer binaryEncode;
+  private final Timer jsonEncode;
+  private final Timer binaryDecode;
+  private final Timer jsonDecode;
+
+  public CodeExecutionResultRedisSerializer(ObjectMapper objectMapper, boolean binary,
+      int compressThresholdBytes, MeterRegistry meterRegistry) {
+    this.objectMapper = objectMapper;
+    this.binary = binary;
+    this.compressThresholdBytes = compressThresholdBytes;
+    this.binarySize = size(meterRegistry, "binary");
+    this.jsonSize = size(meterRegistry, "json");
+    this.binaryEncode = timer(meterRegistry, "encode", "binary");
+    this.jsonEncode = timer(meterRegistry, "encode", "json");
+    this.binaryDecode = timer(meterRegistry, "decode", "binary");
+    this.jsonDecode = timer(meterRegistry, "decode", "json");
+  }
+
+  @Override
+  public byte[] serialize(CodeExecutionResult result) throws SerializationException {
+    if (result == null) {
+      return new byte[0];
+    }
+    long start = System.nanoTime();
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(result);
+      if (!binary) {
+        jsonEncode.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        jsonSize.record(json.length);
+        return json;
+      }
+      byte[] entry = json.length > compressThresholdBytes ? envelope(deflate(json), FLAG_DEFLATED)
+          : envelope(json, (byte) 0);
+      binaryEncode.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      binarySize.record(entry.length);
+      return entry;
+    } catch (IOException e) {
+      throw new SerializationException("Could not serialize execution result", e);
+    }
+  }
+
+  @Override
+  public CodeExecutionResult deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    long start = System.nanoTime();
+    try {
+      if (bytes[0] != MAGIC) {
+        CodeExecutionResult result = objectMapper.readValue(bytes, CodeExecutionResult.class);
+        jsonDecode.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+      }
+      if (bytes.length < HEADER_SIZE || bytes[1] != VERSION) {
+        throw new SerializationException("Unsupported execution result format version "
+            + (bytes.length > 1 ? bytes[1] : -1));
+      }
+      InputStream payload = new ByteArrayInputStream(bytes, HEADER_SIZE,
+          bytes.length - HEADER_SIZE);
+      if ((bytes[2] & FLAG_DEFLATED) != 0) {
+        payload = new InflaterInputStream(payload);
+      }
+      CodeExecutionResult result = objectMapper.readValue(payload, CodeExecutionResult.class);
+      binaryDecode.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return result;
+    } catch (IOException e) {
+      throw new SerializationException("Could not deserialize execution result", e);
+    }
+  }
+
+  private static byte[] envelope(byte[] payload, byte flags) {
+    byte[] entry = new byte[HEADER_SIZE + payload.length];
+    entry[0] = MAGIC;
+    entry[1] = VERSION;
+    entry[2] = flags;
+    System.arraycopy(payload, 0, entry, HEADER_SIZE, payload.length);
+    return entry;
+  }
+
+  private static byte[] deflate(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try (DeflaterOutputStream deflating = new DeflaterOutputStream(out, deflater)) {
+      deflating.write(bytes);
+    } finally {
+      deflater.end();
+    }
+    return out.toByteArray();
+  }
+
+  private static DistributionSummary size(MeterRegistry meterRegistry, String format) {
+    return DistributionSummary.builder("engine.results.redis.size")
+        .description("Size of execution results stored in Redis")
+        .baseUnit("bytes")
+        .tag("format", format)
+        .register(meterRegistry);
+  }
+
+  private static Timer timer(MeterRegistry meterRegistry, String operation, String format) {
+    return Timer.builder("engine.results.redis.serialization")
+        .description("Time spent encoding and decoding execution results for Redis")
+        .tag("operation", operation)
+        .tag("format", format)
+        .register(meterRegistry);
+  }
+}
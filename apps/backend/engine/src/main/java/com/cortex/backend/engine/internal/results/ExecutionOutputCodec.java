@@ -0,0 +1,72 @@
+package com.cortex.backend.engine.internal.results;
+
+import com.cortex.backend.engine.internal.utils.GzipUtil;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caps and compresses the output streams of a run for storage. Output over
+ * {@code engine.results.max-output-kb} keeps its beginning and its end, where compiler errors and
+ * test summaries are, and drops the middle.
+ */
+@Component
+public class ExecutionOutputCodec {
+
+  private final int maxOutputBytes;
+
+  public ExecutionOutputCodec(@Value("${engine.results.max-output-kb:256}") int maxOutputKb) {
+    this.maxOutputBytes = maxOutputKb * 1024;
+  }
+
+  /**
+   * An encoded output stream.
+   *
+   * @param data      the gzip-compressed output, {@code null} for no output
+   * @param size      the size of the output as produced, in bytes
+   * @param truncated whether the middle of the output was dropped
+   */
+  public record EncodedOutput(byte[] data, int size, boolean truncated) {
+
+  }
+
+  public EncodedOutput encode(String output) {
+    if (output == null || output.isEmpty()) {
+      return new EncodedOutput(null, 0, false);
+    }
+    byte[] bytes = output.getBytes(StandardCharsets.UTF_8);
+    boolean truncated = bytes.length > maxOutputBytes;
+    return new EncodedOutput(GzipUtil.gzip(truncated ? truncate(bytes) : bytes), bytes.length, truncated);
+  }
+
+  public String decode(byte[] data) {
+    if (data == null) {
+      return "";
+    }
+    return new String(GzipUtil.gunzip(data), StandardCharsets.UTF_8);
+  }
+
+  private byte[] truncate(byte[] bytes) {
+    int half = maxOutputBytes / 2;
+    // Both cuts move away from the middle of a multi-byte character, onto its first byte
+    int headEnd = half;
+    while (headEnd > 0 && isContinuation(bytes[headEnd])) {
+      headEnd--;
+    }
+    int tailStart = bytes.length - half;
+    while (tailStart < bytes.length && isContinuation(bytes[tailStart])) {
+      tailStart++;
+    }
+    String marker = "\n... [" + (tailStart - headEnd) + " bytes truncated] ...\n";
+    ByteArrayOutputStream out = new ByteArrayOutputStream(maxOutputBytes + marker.length());
+    out.write(bytes, 0, headEnd);
+    out.writeBytes(marker.getBytes(StandardCharsets.UTF_8));
+    out.write(bytes, tailStart, bytes.length - tailStart);
+    return out.toByteArray();
+  }
+
+  private static boolean isContinuation(byte b) {
+    return (b & 0xC0) == 0x80;
+  }
+}
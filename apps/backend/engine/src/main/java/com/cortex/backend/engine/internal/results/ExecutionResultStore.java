@@ -0,0 +1,269 @@
+package com.cortex.backend.engine.internal.results;
+
+import static com.cortex.backend.engine.internal.utils.Constants.RESULT_KEY_PREFIX;
+import static com.cortex.backend.engine.internal.utils.Constants.RESULT_PENDING_KEY_PREFIX;
+
+import com.cortex.backend.engine.api.SubmissionService;
+import com.cortex.backend.engine.api.dto.CodeExecutionResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Looks up execution results by task id in three tiers: a small in-process near cache, Redis, and
+ * the result stored with the submission in the database. A result found in a lower tier is copied
+ * back into the tiers above it, so a result that is polled again after it left Redis is served
+ * from memory from then on.
+ *
+ * <p>A task's result does not change once it is stored, so the near cache needs no invalidation;
+ * its entries expire after {@code engine.results.near-cache.ttl-seconds} only to bound how long
+ * they hold memory. Redis keeps results for {@code engine.results.redis.ttl-minutes}, which can be
+ * kept short since the database tier answers for older tasks.
+ *
+ * <p>A task is marked pending in Redis from the moment it is queued until its result is stored, so
+ * polls for an unfinished task are answered by Redis and never reach the database.
+ */
+@Component
+@Slf4j
+public class ExecutionResultStore {
+
+  private final RedisTemplate<String, CodeExecutionResult> redisTemplate;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final SubmissionService submissionService;
+  private final MeterRegistry meterRegistry;
+  private final Duration redisTtl;
+  private final long nearCacheTtlNanos;
+  private final Map<String, NearEntry> nearCache;
+
+  private record NearEntry(CodeExecutionResult result, long expiresAt) {
+
+  }
+
+  public ExecutionResultStore(RedisTemplate<String, CodeExecutionResult> redisTemplate,
+      StringRedisTemplate stringRedisTemplate, SubmissionService submissionService,
+      MeterRegistry meterRegistry,
+      @Value("${engine.results.redis.ttl-minutes:60}") long redisTtlMinutes,
+      @Value("${engine.results.near-cache.size:1000}") int nearCacheSize,
+      @Value("${engine.results.near-cache.ttl-seconds:60}") long nearCacheTtlSeconds) {
+    this.redisTemplate = redisTemplate;
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.submissionService = submissionService;
+    this.meterRegistry = meterRegistry;
+    this.redisTtl = Duration.ofMinutes(redisTtlMinutes);
+    this.nearCacheTtlNanos = Duration.ofSeconds(nearCacheTtlSeconds).toNanos();
+    this.nearCache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, NearEntry> eldest) {
+        return size() > nearCacheSize;
+      }
+    };
+  }
+
+  /**
+   * Marks a task as queued, so polls for it are answered without the database until its result
+   * is stored.
+   */
+  public void markPending(String taskId) {
+    try {
+      stringRedisTemplate.opsForValue().set(RESULT_PENDING_KEY_PREFIX + taskId, "1", redisTtl);
+    } catch (DataAccessException e) {
+      log.warn("Could not mark task {} as pending: {}", taskId, e.getMessage());
+    }
+  }
+
+  /**
+   * Stores the result of a task in Redis. The database copy is written with the submission.
+   */
+  public void put(String taskId, CodeExecutionResult result) {
+    redisTemplate.opsForValue().set(RESULT_KEY_PREFIX + taskId, result, redisTtl);
+    stringRedisTemplate.delete(RESULT_PENDING_KEY_PREFIX + taskId);
+  }
+
+  /**
+   * Finds the result of a task.
+   *
+   * @return the result, empty if the task has not finished or is unknown
+   */
+  public Optional<CodeExecutionResult> get(String taskId) {
+    CodeExecutionResult result = fromNearCache(taskId);
+    if (result != null) {
+      hit("near");
+      return Optional.of(result);
+    }
+
+    result = fromRedis(taskId);
+    if (result != null) {
+      hit("redis");
+      remember(taskId, result);
+      return Optional.of(result);
+    }
+    if (!pending(List.of(taskId)).isEmpty()) {
+      hit("pending");
+      return Optional.empty();
+    }
+
+    Optional<CodeExecutionResult> stored = submissionService.findResultByTaskId(taskId);
+    stored.ifPresentOrElse(found -> {
+      hit("database");
+      remember(taskId, found);
+      rehydrate(taskId, found);
+    }, () -> hit("none"));
+    return stored;
+  }
+
+  /**
+   * Finds the results of many tasks, reading the ones not in the near cache from Redis in one
+   * round trip and the ones that left Redis, and are not pending, from the database in one query.
+   *
+   * @return the results by task id, in the order of {@code taskIds}; tasks without a result are
+   *     left out
+   */
+  public Map<String, CodeExecutionResult> getAll(List<String> taskIds) {
+    Map<String, CodeExecutionResult> found = fromCaches(taskIds);
+    List<String> missing = taskIds.stream().filter(taskId -> !found.containsKey(taskId))
+        .distinct().toList();
+    if (!missing.isEmpty()) {
+      Set<String> pending = pending(missing);
+      pending.forEach(_ -> hit("pending"));
+      missing = missing.stream().filter(taskId -> !pending.contains(taskId)).toList();
+    }
+    if (!missing.isEmpty()) {
+      submissionService.findResultsByTaskIds(missing).forEach((taskId, result) -> {
+        hit("database");
+        remember(taskId, result);
+        rehydrate(taskId, result);
+        found.put(taskId, result);
+      });
+    }
+    Map<String, CodeExecutionResult> ordered = new LinkedHashMap<>();
+    taskIds.forEach(taskId -> {
+      if (found.containsKey(taskId)) {
+        ordered.put(taskId, found.get(taskId));
+      }
+    });
+    return ordered;
+  }
+
+  /**
+   * Returns the first of the given tasks that has a result in the near cache or Redis, without
+   * going to the database.
+   *
+   * @param taskIds the tasks, in order of preference
+   * @return the task and its result, empty if none has a cached result
+   */
+  public Optional<Map.Entry<String, CodeExecutionResult>> firstCached(List<String> taskIds) {
+    Map<String, CodeExecutionResult> found = fromCaches(taskIds);
+    return taskIds.stream().filter(found::containsKey).findFirst()
+        .map(taskId -> Map.entry(taskId, found.get(taskId)));
+  }
+
+  private Map<String, CodeExecutionResult> fromCaches(List<String> taskIds) {
+    Map<String, CodeExecutionResult> found = new HashMap<>();
+    List<String> missing = new ArrayList<>();
+    for (String taskId : taskIds) {
+      CodeExecutionResult result = fromNearCache(taskId);
+      if (result != null) {
+        hit("near");
+        found.put(taskId, result);
+      } else if (!missing.contains(taskId)) {
+        missing.add(taskId);
+      }
+    }
+    if (missing.isEmpty()) {
+      return found;
+    }
+    List<CodeExecutionResult> cached;
+    try {
+      cached = redisTemplate.opsForValue().multiGet(
+          missing.stream().map(taskId -> RESULT_KEY_PREFIX + taskId).toList());
+    } catch (DataAccessException e) {
+      log.warn("Could not read {} results from Redis: {}", missing.size(), e.getMessage());
+      return found;
+    }
+    for (int i = 0; cached != null && i < missing.size(); i++) {
+      if (cached.get(i) != null) {
+        hit("redis");
+        remember(missing.get(i), cached.get(i));
+        found.put(missing.get(i), cached.get(i));
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Returns the tasks that are still marked pending; none if Redis cannot be read, so lookups fall
+   * back to the database.
+   */
+  private Set<String> pending(List<String> taskIds) {
+    List<String> markers;
+    try {
+      markers = stringRedisTemplate.opsForValue().multiGet(
+          taskIds.stream().map(taskId -> RESULT_PENDING_KEY_PREFIX + taskId).toList());
+    } catch (DataAccessException e) {
+      log.warn("Could not read the pending markers of {} tasks: {}", taskIds.size(),
+          e.getMessage());
+      return Set.of();
+    }
+    Set<String> pending = new HashSet<>();
+    for (int i = 0; markers != null && i < taskIds.size(); i++) {
+      if (markers.get(i) != null) {
+        pending.add(taskIds.get(i));
+      }
+    }
+    return pending;
+  }
+
+  private CodeExecutionResult fromNearCache(String taskId) {
+    synchronized (nearCache) {
+      NearEntry entry = nearCache.get(taskId);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.expiresAt() - System.nanoTime() < 0) {
+        nearCache.remove(taskId);
+        return null;
+      }
+      return entry.result();
+    }
+  }
+
+  private CodeExecutionResult fromRedis(String taskId) {
+    try {
+      return redisTemplate.opsForValue().get(RESULT_KEY_PREFIX + taskId);
+    } catch (DataAccessException e) {
+      log.warn("Could not read the result of task {} from Redis: {}", taskId, e.getMessage());
+      return null;
+    }
+  }
+
+  private void remember(String taskId, CodeExecutionResult result) {
+    synchronized (nearCache) {
+      nearCache.put(taskId, new NearEntry(result, System.nanoTime() + nearCacheTtlNanos));
+    }
+  }
+
+  private void rehydrate(String taskId, CodeExecutionResult result) {
+    try {
+      put(taskId, result);
+    } catch (DataAccessException e) {
+      log.warn("Could not copy the result of task {} back to Redis: {}", taskId, e.getMessage());
+    }
+  }
+
+  private void hit(String tier) {
+    meterRegistry.counter("engine.results.lookups", "tier", tier).increment();
+  }
+}
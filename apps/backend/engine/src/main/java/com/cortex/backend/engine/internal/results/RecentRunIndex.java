@@ -0,0 +1,92 @@
+package com.cortex.backend.engine.internal.results;
+
+import com.cortex.backend.engine.api.dto.RecentRun;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the ids of each user's latest tasks per exercise in a Redis sorted set scored by
+ * submission time, next to the {@code result:} keys. Each set is capped at
+ * {@code engine.results.recent.max-per-exercise} entries and expires
+ * {@code engine.results.recent.ttl-hours} after the last submission to it. The index is a
+ * convenience for clients: when Redis is unavailable runs are not indexed and lookups come back
+ * empty.
+ */
+@Component
+@Slf4j
+public class RecentRunIndex {
+
+  private static final String KEY_PREFIX = "recent:";
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final int maxPerExercise;
+  private final Duration ttl;
+
+  public RecentRunIndex(StringRedisTemplate stringRedisTemplate,
+      @Value("${engine.results.recent.max-per-exercise:20}") int maxPerExercise,
+      @Value("${engine.results.recent.ttl-hours:24}") long ttlHours) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.maxPerExercise = maxPerExercise;
+    this.ttl = Duration.ofHours(ttlHours);
+  }
+
+  /**
+   * Adds a task to the runs of a user on an exercise, dropping the oldest runs over the cap.
+   */
+  public void record(Long userId, Long exerciseId, String taskId) {
+    String key = key(userId, exerciseId);
+    double score = System.currentTimeMillis();
+    try {
+      stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Object execute(RedisOperations<K, V> operations) {
+          RedisOperations<String, String> redis = (RedisOperations<String, String>) operations;
+          redis.opsForZSet().add(key, taskId, score);
+          redis.opsForZSet().removeRange(key, 0, -(maxPerExercise + 1L));
+          redis.expire(key, ttl);
+          return null;
+        }
+      });
+    } catch (DataAccessException e) {
+      log.warn("Could not index task {}: {}", taskId, e.getMessage());
+    }
+  }
+
+  /**
+   * Returns the latest runs of a user on an exercise, newest first.
+   */
+  public List<RecentRun> recent(Long userId, Long exerciseId) {
+    try {
+      Set<ZSetOperations.TypedTuple<String>> runs = stringRedisTemplate.opsForZSet()
+          .reverseRangeWithScores(key(userId, exerciseId), 0, maxPerExercise - 1);
+      if (runs == null) {
+        return List.of();
+      }
+      return runs.stream()
+          .map(run -> new RecentRun(run.getValue(), LocalDateTime.ofInstant(
+              Instant.ofEpochMilli(run.getScore().longValue()), ZoneId.systemDefault())))
+          .toList();
+    } catch (DataAccessException e) {
+      log.warn("Could not read the runs of user {} on exercise {}: {}", userId, exerciseId,
+          e.getMessage());
+      return List.of();
+    }
+  }
+
+  private static String key(Long userId, Long exerciseId) {
+    return KEY_PREFIX + userId + ":" + exerciseId;
+  }
+}
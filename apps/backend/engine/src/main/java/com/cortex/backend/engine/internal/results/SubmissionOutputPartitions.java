@@ -0,0 +1,313 @@
+package com.cortex.backend.engine.internal.results;
+
+import com.cortex.backend.engine.internal.utils.GzipUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps {@code submission_output}, the bulk of the submission data, range-partitioned by the month
+ * of {@code created_at}, and applies its retention policy.
+ *
+ * <p>The schema update creates the table unpartitioned, so on startup it is converted in one
+ * transaction: the rows are moved to a partitioned table with the same columns, whose primary key
+ * also holds {@code created_at} as Postgres requires. The maintenance job, run by
+ * {@code engine.partitions.maintenance-cron} on one node at a time, creates the partitions of the
+ * next {@code months-ahead} months and retires the partitions older than {@code retention-months}:
+ * their rows and test results are written in batches to a gzip-compressed JSON lines file in
+ * {@code archive-path}, then the test results are deleted and the partition is detached and
+ * dropped. A partition is only dropped once its archive is complete, and a complete archive is
+ * never rewritten, so an interrupted run resumes where it stopped. The archive is the only copy
+ * left, and the job may run on any node, so {@code archive-path} must be durable storage shared by
+ * all nodes; while it is unset expired partitions are kept.
+ *
+ * <p>{@code submission} itself stays a plain table: the output, test results and solutions
+ * reference it by id, and a partitioned table cannot have a unique key without its partition key.
+ */
+@Component
+@Slf4j
+public class SubmissionOutputPartitions {
+
+  private static final String TABLE = "submission_output";
+  private static final String UNPARTITIONED = "submission_output_unpartitioned";
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+  // Identifies the maintenance job among the advisory locks of the database
+  private static final long MAINTENANCE_LOCK = 0x5542_4F55_5450_5554L;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedJdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+
+  @Value("${engine.partitions.months-ahead:2}")
+  private int monthsAhead;
+
+  @Value("${engine.partitions.retention-months:12}")
+  private int retentionMonths;
+
+  @Value("${engine.partitions.archive-path:}")
+  private String archivePath;
+
+  @Value("${engine.partitions.batch-size:1000}")
+  private int batchSize;
+
+  // The entity manager factory is injected so the schema is updated before this bean starts
+  public SubmissionOutputPartitions(JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+      EntityManagerFactory entityManagerFactory) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    this.transactionTemplate = transactionTemplate;
+    this.objectMapper = objectMapper;
+  }
+
+  @PostConstruct
+  void partition() {
+    if (!isPartitioned()) {
+      transactionTemplate.executeWithoutResult(_ -> convert());
+    }
+    createPartitions(YearMonth.now());
+  }
+
+  @Scheduled(cron = "${engine.partitions.maintenance-cron:0 30 3 * * *}")
+  public void maintain() {
+    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      try (var lock = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+        lock.setLong(1, MAINTENANCE_LOCK);
+        try (ResultSet rs = lock.executeQuery()) {
+          if (!rs.next() || !rs.getBoolean(1)) {
+            log.info("Partition maintenance is running on another node");
+            return null;
+          }
+        }
+      }
+      try {
+        createPartitions(YearMonth.now());
+        retireExpiredPartitions(YearMonth.now().minusMonths(retentionMonths));
+      } finally {
+        try (var unlock = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+          unlock.setLong(1, MAINTENANCE_LOCK);
+          unlock.execute();
+        }
+      }
+      return null;
+    });
+  }
+
+  private boolean isPartitioned() {
+    return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+        "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table p JOIN pg_class c "
+            + "ON c.oid = p.partrelid WHERE c.oid = to_regclass(?))", Boolean.class, TABLE));
+  }
+
+  private void convert() {
+    // Nodes starting together convert the table once
+    jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, MAINTENANCE_LOCK);
+    if (isPartitioned()) {
+      return;
+    }
+    log.info("Converting {} to a table partitioned by month", TABLE);
+    jdbcTemplate.execute("LOCK TABLE " + TABLE + " IN ACCESS EXCLUSIVE MODE");
+    jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + UNPARTITIONED);
+    jdbcTemplate.execute("ALTER INDEX IF EXISTS " + TABLE + "_pkey RENAME TO "
+        + UNPARTITIONED + "_pkey");
+    jdbcTemplate.execute("""
+        CREATE TABLE submission_output (
+          submission_id bigint NOT NULL REFERENCES submission (id),
+          success boolean NOT NULL,
+          execution_time_ms integer,
+          memory_used_kb integer,
+          stdout bytea,
+          stderr bytea,
+          stdout_size integer,
+          stderr_size integer,
+          truncated boolean NOT NULL,
+          created_at timestamp(6) NOT NULL,
+          PRIMARY KEY (submission_id, created_at)
+        ) PARTITION BY RANGE (created_at)
+        """);
+
+    LocalDate oldest = jdbcTemplate.queryForObject(
+        "SELECT CAST(MIN(created_at) AS date) FROM " + UNPARTITIONED, LocalDate.class);
+    YearMonth month = oldest == null ? YearMonth.now() : YearMonth.from(oldest);
+    for (; month.isBefore(YearMonth.now()); month = month.plusMonths(1)) {
+      createPartition(month);
+    }
+    createPartitions(YearMonth.now());
+
+    int moved = jdbcTemplate.update("INSERT INTO " + TABLE + " SELECT submission_id, success, "
+        + "execution_time_ms, memory_used_kb, stdout, stderr, stdout_size, stderr_size, "
+        + "truncated, created_at FROM " + UNPARTITIONED);
+    jdbcTemplate.execute("DROP TABLE " + UNPARTITIONED);
+    log.info("Moved {} rows to the partitioned {}", moved, TABLE);
+  }
+
+  private void createPartitions(YearMonth current) {
+    for (int i = 0; i <= monthsAhead; i++) {
+      createPartition(current.plusMonths(i));
+    }
+  }
+
+  private void createPartition(YearMonth month) {
+    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF "
+        + TABLE + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('"
+        + month.plusMonths(1).atDay(1) + "')");
+  }
+
+  private void retireExpiredPartitions(YearMonth oldestKept) {
+    if (archivePath.isBlank()) {
+      log.warn("engine.partitions.archive-path is not set, keeping {} partitions past retention",
+          TABLE);
+      return;
+    }
+    List<String> partitions = jdbcTemplate.queryForList(
+        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = to_regclass(?) ORDER BY c.relname", String.class, TABLE);
+    for (String partition : partitions) {
+      YearMonth month = monthOf(partition);
+      if (month != null && month.isBefore(oldestKept)) {
+        retire(partition);
+      }
+    }
+  }
+
+  private void retire(String partition) {
+    Path archive = Paths.get(archivePath, partition + ".jsonl.gz");
+    long rows = 0;
+    try {
+      // A complete archive is from an earlier run that stopped before dropping the partition;
+      // its test results may already be deleted, so it is kept as it is
+      if (!Files.exists(archive)) {
+        rows = archive(partition, archive);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not archive " + partition, e);
+    }
+
+    long deleted = 0;
+    int batch;
+    do {
+      batch = jdbcTemplate.update("DELETE FROM submission_test_result WHERE submission_id IN ("
+          + "SELECT t.submission_id FROM submission_test_result t JOIN " + partition
+          + " o ON o.submission_id = t.submission_id LIMIT ?)", batchSize);
+      deleted += batch;
+    } while (batch > 0);
+
+    jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+    jdbcTemplate.execute("DROP TABLE " + partition);
+    log.info("Archived {} outputs and {} test results of {} to {} and dropped the partition",
+        rows, deleted, partition, archive);
+  }
+
+  /**
+   * Writes the rows of a partition and their test results to a compressed archive, in batches
+   * ordered by submission id. The file is written under a temporary name and moved into place
+   * once complete.
+   *
+   * @return the number of rows archived
+   */
+  private long archive(String partition, Path archive) throws IOException {
+    Files.createDirectories(archive.getParent());
+    Path partial = archive.resolveSibling(archive.getFileName() + ".partial");
+    long rows = 0;
+    try (OutputStream out = GzipUtil.newOutputStream(partial);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+      generator.setRootValueSeparator(null);
+      long afterId = 0;
+      while (true) {
+        List<Map<String, Object>> page = jdbcTemplate.query(
+            "SELECT submission_id, success, execution_time_ms, memory_used_kb, stdout, stderr, "
+                + "stdout_size, stderr_size, truncated, created_at FROM " + partition
+                + " WHERE submission_id > ? ORDER BY submission_id LIMIT ?",
+            (rs, _) -> row(rs), afterId, batchSize);
+        if (page.isEmpty()) {
+          break;
+        }
+        Map<Long, List<Map<String, Object>>> tests = testResults(page);
+        for (Map<String, Object> row : page) {
+          row.put("test_results", tests.getOrDefault((Long) row.get("submission_id"), List.of()));
+          objectMapper.writeValue(generator, row);
+          generator.writeRaw('\n');
+        }
+        rows += page.size();
+        afterId = (Long) page.getLast().get("submission_id");
+      }
+    }
+    Files.move(partial, archive, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    return rows;
+  }
+
+  private Map<Long, List<Map<String, Object>>> testResults(List<Map<String, Object>> page) {
+    Map<Long, List<Map<String, Object>>> tests = new HashMap<>();
+    namedJdbcTemplate.query(
+        "SELECT submission_id, position, passed, input, expected_output, actual_output, message, "
+            + "duration_ms FROM submission_test_result WHERE submission_id IN (:ids) "
+            + "ORDER BY submission_id, position",
+        Map.of("ids", page.stream().map(row -> row.get("submission_id")).toList()),
+        rs -> {
+          Map<String, Object> test = new HashMap<>();
+          test.put("passed", rs.getBoolean("passed"));
+          test.put("input", rs.getString("input"));
+          test.put("expected_output", rs.getString("expected_output"));
+          test.put("actual_output", rs.getString("actual_output"));
+          test.put("message", rs.getString("message"));
+          test.put("duration_ms", rs.getObject("duration_ms"));
+          tests.computeIfAbsent(rs.getLong("submission_id"), _ -> new ArrayList<>()).add(test);
+        });
+    return tests;
+  }
+
+  private static Map<String, Object> row(ResultSet rs) throws SQLException {
+    Map<String, Object> row = new HashMap<>();
+    row.put("submission_id", rs.getLong("submission_id"));
+    row.put("success", rs.getBoolean("success"));
+    row.put("execution_time_ms", rs.getObject("execution_time_ms"));
+    row.put("memory_used_kb", rs.getObject("memory_used_kb"));
+    // Still gzip-compressed, written as base64
+    row.put("stdout", rs.getBytes("stdout"));
+    row.put("stderr", rs.getBytes("stderr"));
+    row.put("stdout_size", rs.getObject("stdout_size"));
+    row.put("stderr_size", rs.getObject("stderr_size"));
+    row.put("truncated", rs.getBoolean("truncated"));
+    row.put("created_at", rs.getTimestamp("created_at").toLocalDateTime().toString());
+    return row;
+  }
+
+  private static String partitionName(YearMonth month) {
+    return TABLE + "_" + month.format(PARTITION_SUFFIX);
+  }
+
+  private static YearMonth monthOf(String partition) {
+    try {
+      return YearMonth.parse(partition.substring(TABLE.length() + 1), PARTITION_SUFFIX);
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+}
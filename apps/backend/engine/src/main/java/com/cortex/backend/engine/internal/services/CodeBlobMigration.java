@@ -0,0 +1,105 @@
+package com.cortex.backend.engine.internal.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves the code of submissions written before {@link CodeBlobStore} existed into
+ * {@code code_blob}.
+ *
+ * <p>The schema update does not relax constraints, so the {@code NOT NULL} of
+ * {@code submission.code} is dropped once the entity manager factory has updated the schema, before
+ * any submission is written without inline code. Existing rows are then migrated in the background
+ * in batches of {@code engine.code-blobs.migration.batch-size}, each in its own transaction; a
+ * migrated row gets its {@code code_hash} and loses its inline code. Readers resolve both kinds of
+ * row, so the migration can be stopped and resumed at any point.
+ */
+@Component
+@Slf4j
+public class CodeBlobMigration {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final CodeBlobStore codeBlobStore;
+
+  @Value("${engine.code-blobs.migration.enabled:true}")
+  private boolean enabled;
+
+  @Value("${engine.code-blobs.migration.batch-size:500}")
+  private int batchSize;
+
+  private record LegacySubmission(long id, String code) {
+
+  }
+
+  // The entity manager factory is injected so the schema is updated before this bean starts
+  public CodeBlobMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+      CodeBlobStore codeBlobStore, EntityManagerFactory entityManagerFactory) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.codeBlobStore = codeBlobStore;
+  }
+
+  @PostConstruct
+  void relaxInlineCode() {
+    jdbcTemplate.execute("ALTER TABLE submission ALTER COLUMN code DROP NOT NULL");
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void migrate() {
+    if (enabled) {
+      Thread.ofVirtual().name("code-blob-migration").start(this::migrateAll);
+    }
+  }
+
+  private void migrateAll() {
+    long migrated = 0;
+    try {
+      int batch;
+      do {
+        batch = migrateBatch();
+        migrated += batch;
+      } while (batch == batchSize);
+    } catch (DataAccessException e) {
+      log.error("Moving submission code to code_blob stopped after {} submissions", migrated, e);
+      return;
+    }
+    if (migrated > 0) {
+      log.info("Moved the code of {} submissions to code_blob", migrated);
+    }
+  }
+
+  private int migrateBatch() {
+    Integer migrated = transactionTemplate.execute(_ -> {
+      List<LegacySubmission> legacy = jdbcTemplate.query(
+          "SELECT id, code FROM submission WHERE code_hash IS NULL AND code IS NOT NULL "
+              + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+          (rs, _) -> new LegacySubmission(rs.getLong("id"), rs.getString("code")), batchSize);
+      if (legacy.isEmpty()) {
+        return 0;
+      }
+      List<CodeBlobStore.EncodedBlob> blobs = new ArrayList<>();
+      List<Object[]> updates = new ArrayList<>();
+      for (LegacySubmission submission : legacy) {
+        CodeBlobStore.EncodedBlob blob = codeBlobStore.encode(submission.code());
+        blobs.add(blob);
+        updates.add(new Object[]{blob.hash(), submission.id()});
+      }
+      codeBlobStore.insert(blobs);
+      jdbcTemplate.batchUpdate("UPDATE submission SET code_hash = ?, code = NULL WHERE id = ?",
+          updates);
+      return legacy.size();
+    });
+    return migrated == null ? 0 : migrated;
+  }
+}
@@ -0,0 +1,149 @@
+package com.cortex.backend.engine.internal.services;
+
+import com.cortex.backend.engine.internal.utils.GzipUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores submitted source code in the {@code code_blob} table, keyed by the SHA-256 of its
+ * content, so code that is submitted again unchanged (the starter code, or the same attempt
+ * resubmitted) is stored once. Reads go through an in-memory LRU cache of
+ * {@code engine.code-blobs.cache-size} entries; since a hash always maps to the same content,
+ * cached entries never go stale.
+ */
+@Component
+public class CodeBlobStore {
+
+  private static final HexFormat HEX = HexFormat.of();
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, String> cache;
+
+  /**
+   * A blob ready to be inserted.
+   *
+   * @param hash    the hex SHA-256 of the source
+   * @param content the gzip-compressed source
+   * @param size    the size of the source in bytes
+   */
+  public record EncodedBlob(String hash, byte[] content, int size) {
+
+  }
+
+  public CodeBlobStore(NamedParameterJdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+      @Value("${engine.code-blobs.cache-size:2000}") int cacheSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.meterRegistry = meterRegistry;
+    this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+        return size() > cacheSize;
+      }
+    };
+  }
+
+  /**
+   * Hashes and compresses source code.
+   */
+  public EncodedBlob encode(String code) {
+    byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+    return new EncodedBlob(HEX.formatHex(sha256(bytes)), GzipUtil.gzip(bytes), bytes.length);
+  }
+
+  /**
+   * Inserts blobs that are not stored yet, in the caller's transaction.
+   */
+  public void insert(Collection<EncodedBlob> blobs) {
+    if (blobs.isEmpty()) {
+      return;
+    }
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    // Sorted so concurrent writers lock the keys in the same order
+    MapSqlParameterSource[] rows = blobs.stream()
+        .collect(Collectors.toMap(EncodedBlob::hash, blob -> blob, (first, _) -> first))
+        .values().stream()
+        .sorted((a, b) -> a.hash().compareTo(b.hash()))
+        .map(blob -> new MapSqlParameterSource("hash", blob.hash())
+            .addValue("content", blob.content())
+            .addValue("size", blob.size())
+            .addValue("createdAt", now))
+        .toArray(MapSqlParameterSource[]::new);
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO code_blob (hash, content, size, created_at) "
+            + "VALUES (:hash, :content, :size, :createdAt) ON CONFLICT (hash) DO NOTHING", rows);
+  }
+
+  /**
+   * Loads the source stored under a hash.
+   *
+   * @return the source, {@code null} if no blob has that hash
+   */
+  public String load(String hash) {
+    return loadAll(List.of(hash)).get(hash);
+  }
+
+  /**
+   * Loads the sources stored under the given hashes in one query for the ones not cached.
+   *
+   * @return the sources by hash; hashes without a blob are left out
+   */
+  public Map<String, String> loadAll(Collection<String> hashes) {
+    Map<String, String> found = new HashMap<>();
+    synchronized (cache) {
+      for (String hash : hashes) {
+        String code = cache.get(hash);
+        if (code != null) {
+          found.put(hash, code);
+        }
+      }
+    }
+    meterRegistry.counter("engine.code_blobs.cache", "result", "hit").increment(found.size());
+
+    Set<String> missing = hashes.stream().filter(hash -> !found.containsKey(hash))
+        .collect(Collectors.toSet());
+    if (missing.isEmpty()) {
+      return found;
+    }
+    meterRegistry.counter("engine.code_blobs.cache", "result", "miss").increment(missing.size());
+    jdbcTemplate.query("SELECT hash, content FROM code_blob WHERE hash IN (:hashes)",
+        Map.of("hashes", missing), rs -> {
+          String hash = rs.getString("hash");
+          String code = new String(GzipUtil.gunzip(rs.getBytes("content")), StandardCharsets.UTF_8);
+          remember(hash, code);
+          found.put(hash, code);
+        });
+    return found;
+  }
+
+  private void remember(String hash, String code) {
+    synchronized (cache) {
+      cache.put(hash, code);
+    }
+  }
+
+  private static byte[] sha256(byte[] bytes) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(bytes);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+}
@@ -1,36 +1,55 @@
 package com.cortex.backend.engine.internal.services;
 
-import static com.cortex.backend.engine.internal.utils.Constants.CODE_EXECUTION_QUEUE;
-import static com.cortex.backend.engine.internal.utils.Constants.RESULT_EXPIRATION_HOURS;
-import static com.cortex.backend.engine.internal.utils.Constants.RESULT_KEY_PREFIX;
+import static com.cortex.backend.engine.internal.utils.Constants.STARTUP_PHASE_EXERCISES;
+import static com.cortex.backend.engine.internal.utils.Constants.STARTUP_PHASE_LANGUAGES;
 
+import com.cortex.backend.core.common.exception.ContainerExecutionException;
 import com.cortex.backend.core.common.exception.ContentChangedException;
+import com.cortex.backend.core.common.exception.EngineNotReadyException;
+import com.cortex.backend.core.common.exception.OperationNotPermittedException;
+import com.cortex.backend.core.common.exception.PlatformFaultException;
 import com.cortex.backend.core.common.exception.ResultNotAvailableException;
 import com.cortex.backend.core.common.exception.UnsupportedLanguageException;
+import com.cortex.backend.core.common.startup.StartupTaskTracker;
 import com.cortex.backend.core.domain.Exercise;
 import com.cortex.backend.engine.api.ExerciseRepository;
-import com.cortex.backend.engine.api.LanguageRepository;
 import com.cortex.backend.engine.api.SubmissionService;
 import com.cortex.backend.engine.api.dto.CodeExecutionRequest;
 import com.cortex.backend.engine.api.dto.CodeExecutionResult;
 import com.cortex.backend.engine.api.dto.CodeExecutionTask;
+import com.cortex.backend.engine.api.dto.RecentRun;
 import com.cortex.backend.engine.api.dto.SubmissionResponse;
 import com.cortex.backend.engine.api.dto.TestCaseResult;
+import com.cortex.backend.engine.internal.assets.ExerciseAssetIndex;
 import com.cortex.backend.engine.internal.docker.DockerExecutionService;
+import com.cortex.backend.engine.internal.docker.SandboxImageManager;
+import com.cortex.backend.engine.internal.docker.TestShard;
+import com.cortex.backend.engine.internal.docker.TestShardPlanner;
+import com.cortex.backend.engine.internal.languages.LanguageProfileRegistry;
 import com.cortex.backend.engine.internal.parser.TestResultParser;
 import com.cortex.backend.engine.internal.parser.TestResultParserFactory;
+import com.cortex.backend.engine.internal.results.ExecutionResultStore;
+import com.cortex.backend.engine.internal.results.RecentRunIndex;
 import com.cortex.backend.engine.internal.utils.HashUtil;
+import com.github.dockerjava.api.exception.DockerClientException;
+import com.github.dockerjava.api.exception.DockerException;
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.AmqpException;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -38,72 +57,180 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class CodeExecutionService {
 
-  private final LanguageRepository languageRepository;
+  private final LanguageProfileRegistry languageProfileRegistry;
   private final ExerciseRepository exerciseRepository;
-  private final RabbitTemplate rabbitTemplate;
-  private final RedisTemplate<String, CodeExecutionResult> redisTemplate;
+  private final CodeExecutionTransport codeExecutionTransport;
+  private final ExecutionResultStore executionResultStore;
   private final DockerExecutionService dockerExecutionService;
   private final SubmissionService submissionService;
+  private final StartupTaskTracker startupTaskTracker;
+  private final SandboxImageManager sandboxImageManager;
+  private final TestShardPlanner testShardPlanner;
+  private final ExecutionCoalescer executionCoalescer;
+  private final RecentRunIndex recentRunIndex;
+  private final ExerciseAssetIndex exerciseAssetIndex;
+
+  @Value("${engine.results.batch.max-ids:50}")
+  private int maxBatchIds;
 
   @Value("${github.exercises.local-path}")
   private String localExercisesPath;
 
   public String submitCodeExecution(CodeExecutionRequest request, Long userId) {
-    Exercise exercise = exerciseRepository.findById(request.exerciseId())
-        .orElseThrow(() -> new IllegalArgumentException("Exercise not found"));
-    if (!languageRepository.existsByName(request.language())) {
+    if (!startupTaskTracker.isCompleted(STARTUP_PHASE_LANGUAGES, STARTUP_PHASE_EXERCISES)) {
+      throw new EngineNotReadyException("Exercises are still being initialized, try again shortly");
+    }
+    String githubPath = findGithubPath(request.exerciseId());
+    if (!languageProfileRegistry.supports(request.language())) {
       throw new UnsupportedLanguageException("Unsupported language: " + request.language());
     }
+    if (!sandboxImageManager.isAvailable(request.language())) {
+      throw new EngineNotReadyException(
+          "The " + request.language() + " sandbox is still being prepared, try again shortly");
+    }
 
     String taskId = UUID.randomUUID().toString();
-    SubmissionResponse submission = submissionService.createSubmission(request, userId);
-    CodeExecutionTask task = new CodeExecutionTask(taskId, request,
-        exercise.getGithubPath(), submission.getId());
-    rabbitTemplate.convertAndSend(CODE_EXECUTION_QUEUE, task);
+    SubmissionResponse submission = submissionService.createSubmission(request, userId, taskId);
+    CodeExecutionTask task = new CodeExecutionTask(taskId, request, githubPath,
+        submission.getId());
+    codeExecutionTransport.submit(task);
+    // Marked once queued, so a task that failed to enqueue is not reported as running; a result
+    // stored in the meantime is still found since it is looked up before the mark
+    executionResultStore.markPending(taskId);
+    recentRunIndex.record(userId, request.exerciseId(), taskId);
 
     return taskId;
   }
 
+  /**
+   * Returns the repository path of an exercise from the asset index, reading the exercise from the
+   * database only if it is not indexed.
+   *
+   * @throws IllegalArgumentException if the exercise does not exist
+   */
+  private String findGithubPath(Long exerciseId) {
+    return exerciseAssetIndex.findGithubPath(exerciseId).orElseGet(() -> {
+      String githubPath = exerciseRepository.findById(exerciseId)
+          .map(Exercise::getGithubPath)
+          .orElseThrow(() -> new IllegalArgumentException("Exercise not found"));
+      exerciseAssetIndex.putGithubPath(exerciseId, githubPath);
+      return githubPath;
+    });
+  }
+
+  /**
+   * Cancels a task that has not started running yet.
+   *
+   * @param taskId the task
+   */
+  public void cancelExecution(String taskId) {
+    codeExecutionTransport.cancel(taskId);
+  }
+
   public CodeExecutionResult getExecutionResult(String taskId) {
-    CodeExecutionResult result = redisTemplate.opsForValue().get(RESULT_KEY_PREFIX + taskId);
+    return executionResultStore.get(taskId).orElseThrow(() -> {
+      log.debug("Execution result not available yet for task: {}", taskId);
+      return new ResultNotAvailableException("Execution result not available yet");
+    });
+  }
 
-    if (result == null) {
-      log.error("Execution result not available yet for task: {}", taskId);
-      throw new ResultNotAvailableException("Execution result not available yet");
+  /**
+   * Fetches the results of many tasks at once.
+   *
+   * @param taskIds the tasks, at most {@code engine.results.batch.max-ids}
+   * @return the results by task id; tasks that have not finished are left out
+   * @throws OperationNotPermittedException if too many tasks are requested
+   */
+  public Map<String, CodeExecutionResult> getExecutionResults(List<String> taskIds) {
+    if (taskIds.size() > maxBatchIds) {
+      throw new OperationNotPermittedException(
+          "At most " + maxBatchIds + " results can be fetched at once");
     }
+    return executionResultStore.getAll(taskIds);
+  }
 
-    return result;
+  /**
+   * Lists the latest runs of a user on an exercise, newest first.
+   */
+  public List<RecentRun> getRecentRuns(Long userId, Long exerciseId) {
+    return recentRunIndex.recent(userId, exerciseId);
   }
 
+  /**
+   * Returns the result of the latest run of a user on an exercise that has finished, from the
+   * caches only.
+   *
+   * @throws ResultNotAvailableException if none of the recent runs has a cached result
+   */
+  public CodeExecutionResult getLatestResult(Long userId, Long exerciseId) {
+    List<String> taskIds = recentRunIndex.recent(userId, exerciseId).stream()
+        .map(RecentRun::taskId)
+        .toList();
+    return executionResultStore.firstCached(taskIds)
+        .map(Map.Entry::getValue)
+        .orElseThrow(() -> new ResultNotAvailableException("No recent result for this exercise"));
+  }
+
+  /**
+   * Runs a queued task and stores its result. Failures of the code itself are stored as a failed
+   * result; failures of the platform are rethrown so the consumer can retry the task.
+   *
+   * @param task the task to run
+   * @throws PlatformFaultException if Docker, Redis or the database failed while running the task
+   */
   public void processCodeExecution(CodeExecutionTask task) {
     try {
-      CodeExecutionResult result = executeCode(task.request(), task.githubPath());
+      CodeExecutionResult result = executionCoalescer.execute(task.request(), task.githubPath(),
+          () -> executeCode(task.request(), task.githubPath(), true));
       submissionService.updateSubmissionWithResult(task.submissionId(), result);
-      redisTemplate.opsForValue().set(
-          RESULT_KEY_PREFIX + task.taskId(),
-          result,
-          RESULT_EXPIRATION_HOURS,
-          TimeUnit.HOURS
-      );
+      executionResultStore.put(task.taskId(), result);
+    } catch (PlatformFaultException e) {
+      throw e;
     } catch (Exception e) {
+      if (isPlatformFault(e)) {
+        throw new PlatformFaultException("Platform failure processing task " + task.taskId(), e);
+      }
       log.error("Error processing code execution task", e);
+      storeFailure(task, "Internal error: " + e.getMessage());
+    }
+  }
 
-      CodeExecutionResult errorResult = CodeExecutionResult.builder()
-          .success(false)
-          .language(task.request().language())
-          .stderr("Internal error: " + e.getMessage())
-          .build();
+  /**
+   * Stores a failed result for a task that will not be run, so clients polling for it stop
+   * waiting. It is also stored with the submission, without grading it, so it is still found
+   * after it left Redis.
+   *
+   * @param task    the task
+   * @param message the error shown to the user
+   */
+  public void storeFailure(CodeExecutionTask task, String message) {
+    CodeExecutionResult errorResult = CodeExecutionResult.builder()
+        .success(false)
+        .language(task.request().language())
+        .stderr(message)
+        .build();
 
-      redisTemplate.opsForValue().set(
-          RESULT_KEY_PREFIX + task.taskId(),
-          errorResult,
-          RESULT_EXPIRATION_HOURS,
-          TimeUnit.HOURS
-      );
-    }
+    executionResultStore.put(task.taskId(), errorResult);
+    submissionService.storeUngradedResult(task.submissionId(), errorResult);
+  }
+
+  /**
+   * Runs code against an exercise without storing the result, for callers that grade
+   * submissions outside the queue. The run gets the language's default limits, so a grade does
+   * not depend on the limits learned from recent runs, and it is not coalesced with queued runs,
+   * which use the learned ones.
+   *
+   * @param request    the code, language and exercise
+   * @param githubPath the exercise path in the exercises repository
+   * @return the execution result
+   * @throws PlatformFaultException if the platform failed while running the code
+   */
+  public CodeExecutionResult evaluate(CodeExecutionRequest request, String githubPath) {
+    return executeCode(request, githubPath, false);
   }
 
-  private CodeExecutionResult executeCode(CodeExecutionRequest request, String githubPath) {
+  private CodeExecutionResult executeCode(CodeExecutionRequest request, String githubPath,
+      boolean learnedLimits) {
     try {
       String decodedCode = new String(Base64.getDecoder().decode(request.code()));
       Path exercisePath = Paths.get(localExercisesPath, githubPath);
@@ -113,12 +240,15 @@ public class CodeExecutionService {
       log.info("Decoded code length: {}", decodedCode.length());
       log.debug("Decoded code content: \n{}", decodedCode);
 
-      DockerExecutionService.ExecutionResult dockerResult = dockerExecutionService.executeCode(
-          decodedCode,
-          exercisePath,
-          request.language()
-      );
-      Thread.sleep(500);
+      List<TestShard> shards = testShardPlanner.plan(request.language(), exercisePath);
+      if (!shards.isEmpty()) {
+        return executeSharded(request, decodedCode, exercisePath, shards, learnedLimits);
+      }
+
+      DockerExecutionService.ExecutionResult dockerResult = learnedLimits
+          ? dockerExecutionService.executeCode(decodedCode, exercisePath, request.language())
+          : dockerExecutionService.executeCodeWithDefaultLimits(decodedCode, exercisePath,
+              request.language());
       log.info("Docker execution result - Exit code: {}", dockerResult.exitCode());
       log.info("Docker execution stdout: \n{}", dockerResult.stdout());
       log.info("Docker execution stderr: \n{}", dockerResult.stderr());
@@ -135,10 +265,14 @@ public class CodeExecutionService {
           .stderr(dockerResult.stderr())
           .executionTime((int) dockerResult.executionTime())
           .language(request.language())
-          .memoryUsed((int) dockerResult.memoryUsed())
+          .memoryUsed((int) (dockerResult.memoryUsed() / 1024))
+          .killed(dockerResult.killed())
           .testCaseResults(testCaseResults)
           .build();
     } catch (Exception e) {
+      if (isPlatformFault(e)) {
+        throw new PlatformFaultException("Platform failure executing code", e);
+      }
       log.error("Unexpected error executing code", e);
       return CodeExecutionResult.builder()
           .success(false)
@@ -148,8 +282,84 @@ public class CodeExecutionService {
     }
   }
 
+  /**
+   * Runs the shards of an exercise and merges their results. Every test case gets the run time of
+   * the shard it ran in unless the parser reported its own timing.
+   */
+  private CodeExecutionResult executeSharded(CodeExecutionRequest request, String decodedCode,
+      Path exercisePath, List<TestShard> shards, boolean learnedLimits) throws IOException {
+    List<DockerExecutionService.ExecutionResult> shardResults =
+        dockerExecutionService.executeShards(decodedCode, exercisePath, request.language(),
+            shards, learnedLimits);
+
+    boolean success = true;
+    boolean killed = false;
+    long executionTime = 0;
+    long memoryUsed = 0;
+    StringBuilder stdout = new StringBuilder();
+    StringBuilder stderr = new StringBuilder();
+    List<TestCaseResult> testCaseResults = new ArrayList<>();
+    for (int i = 0; i < shards.size(); i++) {
+      TestShard shard = shards.get(i);
+      DockerExecutionService.ExecutionResult shardResult = shardResults.get(i);
+      log.info("Shard {}/{} exit code: {} in {} ms", shard.index(), shard.total(),
+          shardResult.exitCode(), shardResult.executionTime());
+
+      success &= shardResult.exitCode() == 0;
+      killed |= shardResult.killed();
+      executionTime = Math.max(executionTime, shardResult.executionTime());
+      memoryUsed = Math.max(memoryUsed, shardResult.memoryUsed());
+      String header = String.format("=== shard %d/%d ===%n", shard.index(), shard.total());
+      stdout.append(header).append(shardResult.stdout()).append(System.lineSeparator());
+      if (!shardResult.stderr().isEmpty()) {
+        stderr.append(header).append(shardResult.stderr()).append(System.lineSeparator());
+      }
+
+      for (TestCaseResult testCaseResult : parseTestResults(shardResult.stdout(),
+          shardResult.stderr(), request.language())) {
+        if (testCaseResult.getDurationMs() == null) {
+          testCaseResult.setDurationMs(shardResult.executionTime());
+        }
+        testCaseResults.add(testCaseResult);
+      }
+    }
+
+    return CodeExecutionResult.builder()
+        .success(success)
+        .stdout(stdout.toString())
+        .stderr(stderr.toString())
+        .executionTime((int) executionTime)
+        .language(request.language())
+        .memoryUsed((int) (memoryUsed / 1024))
+        .killed(killed)
+        .testCaseResults(testCaseResults)
+        .build();
+  }
+
   private List<TestCaseResult> parseTestResults(String stdout, String stderr, String language) {
     TestResultParser parser = TestResultParserFactory.getParser(language);
     return parser.parseTestResults(stdout + "\n" + stderr);
   }
-}
\ No newline at end of file
+
+  /**
+   * Tells failures of the execution platform (Docker daemon, sandbox capacity, Redis, the database
+   * or the broker) apart from failures caused by the submitted code or the exercise.
+   */
+  private static boolean isPlatformFault(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof PlatformFaultException
+          || cause instanceof ContainerExecutionException
+          || cause instanceof DockerException
+          || cause instanceof DockerClientException
+          || cause instanceof TransientDataAccessException
+          || cause instanceof DataAccessResourceFailureException
+          || cause instanceof RecoverableDataAccessException
+          || cause instanceof AmqpException
+          || cause instanceof SocketException
+          || cause instanceof SocketTimeoutException) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,200 @@
+package com.cortex.backend.engine.internal.services;
+
+import com.cortex.backend.core.common.exception.PlatformFaultException;
+import com.cortex.backend.engine.api.dto.CodeExecutionTask;
+import com.cortex.backend.engine.internal.docker.SandboxImageManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs the code execution tasks handed over by a {@link CodeExecutionTransport} and decides what
+ * happens to a task that failed, so every transport retries, dead-letters, quarantines and cancels
+ * tasks the same way.
+ *
+ * <p>Platform failures are retried after the delays in {@code engine.queue.retry-delays-ms}; a
+ * task that fails on every attempt is dead-lettered. Deliveries are counted in Redis until they
+ * finish, so a task that keeps taking down the worker processing it (and is therefore redelivered
+ * without ever reaching the error handling) is quarantined instead of crashing every worker in
+ * turn. Cancelled tasks are skipped when they are picked up.
+ *
+ * <p>A worker only runs languages whose sandbox image is ready on its host. A task for another
+ * language is handed back without using up an attempt while some other node reports the language
+ * ready, and retried like a platform failure otherwise.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CodeExecutionTaskHandler {
+
+  private static final String DELIVERIES_KEY_PREFIX = "engine:deliveries:";
+  private static final String CANCELLED_KEY_PREFIX = "engine:cancelled:";
+  private static final Duration KEY_TTL = Duration.ofHours(1);
+  private static final String UNAVAILABLE_MESSAGE =
+      "The execution service is temporarily unavailable, please submit your code again";
+  private static final String CANCELLED_MESSAGE = "The execution was cancelled";
+
+  private final CodeExecutionService codeExecutionService;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final SandboxImageManager sandboxImageManager;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${engine.queue.retry-delays-ms:1000,5000,25000}")
+  private long[] retryDelaysMs;
+
+  @Value("${engine.queue.max-deliveries:3}")
+  private int maxDeliveries;
+
+  public enum Outcome {
+    /** The task ran, or failed in a way that was reported to the user. */
+    COMPLETED,
+    /** The task hit a platform failure and should be delivered again after the retry delay. */
+    RETRY,
+    /**
+     * The task's language cannot run on this worker; it should be delivered again after the first
+     * retry delay, keeping its attempt number.
+     */
+    REQUEUE,
+    /** The task will not be run; a failed result was stored for it. */
+    DEAD_LETTER,
+    /** The task was cancelled before it ran. */
+    CANCELLED
+  }
+
+  /**
+   * What happened to a task.
+   *
+   * @param outcome the outcome
+   * @param reason  why the task was dead-lettered, {@code null} otherwise
+   */
+  public record Result(Outcome outcome, String reason) {
+
+  }
+
+  /**
+   * Runs a task.
+   *
+   * @param task    the task
+   * @param attempt the attempt number, starting at 1
+   * @return what the transport has to do with the task
+   */
+  public Result handle(CodeExecutionTask task, int attempt) {
+    if (isCancelled(task.taskId())) {
+      log.info("Skipping cancelled task {}", task.taskId());
+      meterRegistry.counter("engine.code_execution.cancelled").increment();
+      storeFailure(task, CANCELLED_MESSAGE);
+      return new Result(Outcome.CANCELLED, null);
+    }
+
+    String language = task.request().language();
+    if (!sandboxImageManager.isReady(language)) {
+      meterRegistry.counter("engine.code_execution.not_ready", "language", language).increment();
+      if (sandboxImageManager.isAvailable(language)) {
+        log.info("The {} sandbox is not ready on this worker, handing task {} back", language,
+            task.taskId());
+        return new Result(Outcome.REQUEUE, null);
+      }
+      if (attempt <= retryDelaysMs.length) {
+        log.warn("No worker can run {} yet, retrying task {} (attempt {})", language,
+            task.taskId(), attempt);
+        return new Result(Outcome.RETRY, null);
+      }
+      return deadLetter(task, "no worker has the " + language + " sandbox ready");
+    }
+
+    long deliveries = countDelivery(task);
+    if (deliveries > maxDeliveries) {
+      log.error("Task {} was delivered {} times without finishing, quarantining it",
+          task.taskId(), deliveries);
+      meterRegistry.counter("engine.code_execution.quarantined").increment();
+      finishDelivery(task);
+      return deadLetter(task, "quarantined after " + deliveries + " unfinished deliveries");
+    }
+
+    try {
+      codeExecutionService.processCodeExecution(task);
+      return new Result(Outcome.COMPLETED, null);
+    } catch (PlatformFaultException e) {
+      if (attempt <= retryDelaysMs.length) {
+        log.warn("Platform failure on task {} (attempt {}), retrying in {} ms: {}",
+            task.taskId(), attempt, retryDelaysMs[attempt - 1], e.getMessage());
+        meterRegistry.counter("engine.code_execution.retries", "attempt", String.valueOf(attempt))
+            .increment();
+        return new Result(Outcome.RETRY, null);
+      }
+      log.error("Task {} failed on all {} attempts, dead-lettering it", task.taskId(), attempt, e);
+      return deadLetter(task, e.getMessage());
+    } catch (Exception e) {
+      log.error("Error processing code execution task: {}", task.taskId(), e);
+      return new Result(Outcome.COMPLETED, null);
+    } finally {
+      finishDelivery(task);
+    }
+  }
+
+  /**
+   * Returns the delay before retry {@code attempt} of a task.
+   */
+  public long getRetryDelayMs(int attempt) {
+    return retryDelaysMs[attempt - 1];
+  }
+
+  /**
+   * Marks a task as cancelled, so it is skipped if it has not started yet.
+   *
+   * @param taskId the task
+   */
+  public void cancel(String taskId) {
+    stringRedisTemplate.opsForValue().set(CANCELLED_KEY_PREFIX + taskId, "1", KEY_TTL);
+  }
+
+  private Result deadLetter(CodeExecutionTask task, String reason) {
+    meterRegistry.counter("engine.code_execution.dead_lettered").increment();
+    storeFailure(task, UNAVAILABLE_MESSAGE);
+    return new Result(Outcome.DEAD_LETTER, reason);
+  }
+
+  private void storeFailure(CodeExecutionTask task, String message) {
+    try {
+      codeExecutionService.storeFailure(task, message);
+    } catch (DataAccessException | PlatformFaultException e) {
+      log.warn("Could not store the failure of task {}: {}", task.taskId(), e.getMessage());
+    }
+  }
+
+  private boolean isCancelled(String taskId) {
+    try {
+      return Boolean.TRUE.equals(stringRedisTemplate.hasKey(CANCELLED_KEY_PREFIX + taskId));
+    } catch (DataAccessException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Counts a delivery of the task that has not finished yet. Without Redis no task is quarantined.
+   */
+  private long countDelivery(CodeExecutionTask task) {
+    try {
+      String key = DELIVERIES_KEY_PREFIX + task.taskId();
+      Long deliveries = stringRedisTemplate.opsForValue().increment(key);
+      stringRedisTemplate.expire(key, KEY_TTL);
+      return deliveries == null ? 1 : deliveries;
+    } catch (DataAccessException e) {
+      log.warn("Could not count delivery of task {}: {}", task.taskId(), e.getMessage());
+      return 1;
+    }
+  }
+
+  private void finishDelivery(CodeExecutionTask task) {
+    try {
+      stringRedisTemplate.delete(DELIVERIES_KEY_PREFIX + task.taskId());
+    } catch (DataAccessException e) {
+      log.warn("Could not clear delivery count of task {}: {}", task.taskId(), e.getMessage());
+    }
+  }
+}
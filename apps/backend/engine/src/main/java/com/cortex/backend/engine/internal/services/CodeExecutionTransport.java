@@ -0,0 +1,26 @@
+package com.cortex.backend.engine.internal.services;
+
+import com.cortex.backend.engine.api.dto.CodeExecutionTask;
+
+/**
+ * Carries code execution tasks from the API to the workers running them. The default transport
+ * is RabbitMQ; single-node deployments can run the {@code in-process-queue} profile instead, which
+ * keeps the queue in the JVM. Both hand their tasks to {@link CodeExecutionTaskHandler}.
+ */
+public interface CodeExecutionTransport {
+
+  /**
+   * Queues a task.
+   *
+   * @param task the task
+   * @throws com.cortex.backend.core.common.exception.EngineNotReadyException if the queue is full
+   */
+  void submit(CodeExecutionTask task);
+
+  /**
+   * Cancels a task that has not started yet. A task that is already running is not interrupted.
+   *
+   * @param taskId the task
+   */
+  void cancel(String taskId);
+}
@@ -0,0 +1,103 @@
+package com.cortex.backend.engine.internal.services;
+
+import com.cortex.backend.engine.api.dto.CodeExecutionRequest;
+import com.cortex.backend.engine.api.dto.CodeExecutionResult;
+import com.cortex.backend.engine.internal.assets.ExerciseAssetIndex;
+import com.cortex.backend.engine.internal.utils.HashUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs identical executions once when they overlap. Two runs are identical when they are for the
+ * same exercise at the same repository commit, in the same language and with the same code; a run
+ * that starts while an identical one is in flight on this node waits for it and gets its result
+ * instead of starting another container. Each task still stores the result under its own
+ * submission.
+ *
+ * <p>A failure of the run is passed on to every task waiting for it, so they are retried or
+ * reported the same way. Runs on different nodes are not coalesced.
+ */
+@Component
+@Slf4j
+public class ExecutionCoalescer {
+
+  private final ExerciseAssetIndex exerciseAssetIndex;
+  private final boolean enabled;
+  private final Counter coalesced;
+  private final Counter leaders;
+  private final Map<RunKey, CompletableFuture<CodeExecutionResult>> inFlight =
+      new ConcurrentHashMap<>();
+
+  private record RunKey(String commit, String githubPath, String language, String codeHash) {
+
+  }
+
+  public ExecutionCoalescer(ExerciseAssetIndex exerciseAssetIndex, MeterRegistry meterRegistry,
+      @Value("${engine.coalescing.enabled:true}") boolean enabled) {
+    this.exerciseAssetIndex = exerciseAssetIndex;
+    this.enabled = enabled;
+    this.coalesced = Counter.builder("engine.code_execution.coalesced")
+        .description("Executions that reused the result of an identical run in flight")
+        .register(meterRegistry);
+    this.leaders = Counter.builder("engine.code_execution.runs")
+        .description("Executions that started a run")
+        .register(meterRegistry);
+    Gauge.builder("engine.code_execution.coalescing.in_flight", inFlight, Map::size)
+        .description("Distinct runs in flight that identical executions can attach to")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Runs an execution, or waits for the identical one in flight.
+   *
+   * @param request    the code, language and exercise
+   * @param githubPath the exercise path in the exercises repository
+   * @param run        runs the execution
+   * @return the result of the run
+   */
+  public CodeExecutionResult execute(CodeExecutionRequest request, String githubPath,
+      Supplier<CodeExecutionResult> run) {
+    if (!enabled) {
+      return run.get();
+    }
+    RunKey key = new RunKey(Objects.toString(exerciseAssetIndex.getCurrentCommit(), "local"),
+        githubPath, request.language(), HashUtil.generateSHA256Hash(request.code()));
+    CompletableFuture<CodeExecutionResult> own = new CompletableFuture<>();
+    CompletableFuture<CodeExecutionResult> running = inFlight.putIfAbsent(key, own);
+    if (running != null) {
+      coalesced.increment();
+      log.info("Attaching to the identical run in flight for {} in {}", githubPath,
+          request.language());
+      try {
+        return running.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+          throw cause;
+        }
+        throw e;
+      }
+    }
+
+    leaders.increment();
+    try {
+      CodeExecutionResult result = run.get();
+      own.complete(result);
+      return result;
+    } catch (RuntimeException e) {
+      own.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, own);
+    }
+  }
+}
@@ -1,33 +1,34 @@
 package com.cortex.backend.engine.internal.services;
 
+import static com.cortex.backend.engine.internal.utils.Constants.STARTUP_PHASE_EXERCISES;
+
 import com.cortex.backend.auth.config.ApplicationAuditAware;
 import com.cortex.backend.core.common.PageResponse;
+import com.cortex.backend.core.common.exception.EngineNotReadyException;
 import com.cortex.backend.core.common.exception.ExerciseCreationException;
-import com.cortex.backend.core.common.exception.ExerciseReadException;
+import com.cortex.backend.core.common.startup.StartupTaskTracker;
 import com.cortex.backend.core.domain.Exercise;
 import com.cortex.backend.core.domain.Lesson;
 import com.cortex.backend.education.lesson.api.LessonRepository;
 import com.cortex.backend.engine.api.ExerciseRepository;
 import com.cortex.backend.engine.api.ExerciseService;
 import com.cortex.backend.engine.api.dto.CreateExercise;
+import com.cortex.backend.engine.api.dto.ExerciseBundle;
 import com.cortex.backend.engine.api.dto.ExerciseDetailsResponse;
 import com.cortex.backend.engine.api.dto.ExerciseResponse;
 import com.cortex.backend.engine.api.dto.UpdateExercise;
-import com.cortex.backend.engine.internal.CodeFileReader;
 import com.cortex.backend.engine.internal.ExerciseConfig;
+import com.cortex.backend.engine.internal.assets.ExerciseAssetIndex;
+import com.cortex.backend.engine.internal.assets.ExerciseAssets;
+import com.cortex.backend.engine.internal.assets.ExerciseBundleStore;
 import com.cortex.backend.engine.internal.mappers.ExerciseMapper;
+import com.cortex.backend.engine.internal.utils.HashUtil;
 import com.cortex.backend.user.api.UserService;
 import com.cortex.backend.user.api.dto.UserResponse;
 import jakarta.persistence.EntityNotFoundException;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -37,6 +38,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -48,11 +50,9 @@ public class ExerciseServiceImpl implements ExerciseService {
   private final LessonRepository lessonRepository;
   private final ExerciseMapper exerciseMapper;
   private final UserService userService;
-  private final CodeFileReader codeFileReader;
-
-
-  @Value("${github.exercises.local-path}")
-  private String localRepoPath;
+  private final ExerciseAssetIndex exerciseAssetIndex;
+  private final ExerciseBundleStore exerciseBundleStore;
+  private final StartupTaskTracker startupTaskTracker;
 
   @Override
   @Transactional
@@ -69,6 +69,7 @@ public class ExerciseServiceImpl implements ExerciseService {
         .orElseThrow(() -> new EntityNotFoundException("Exercise not found"));
     exerciseMapper.updateExerciseFromDto(updateExerciseDTO, exercise);
     Exercise updatedExercise = exerciseRepository.save(exercise);
+    exerciseAssetIndex.forget(id);
     return exerciseMapper.exerciseToExerciseResponse(updatedExercise);
   }
 
@@ -107,6 +108,7 @@ public class ExerciseServiceImpl implements ExerciseService {
   @Transactional
   public void deleteExercise(Long id) {
     exerciseRepository.deleteById(id);
+    exerciseAssetIndex.forget(id);
   }
 
   @Override
@@ -191,47 +193,38 @@ public class ExerciseServiceImpl implements ExerciseService {
   @Override
   @Transactional(readOnly = true)
   public ExerciseDetailsResponse getExerciseDetails(Long id) {
+    if (!startupTaskTracker.isCompleted(STARTUP_PHASE_EXERCISES)) {
+      throw new EngineNotReadyException("Exercise files are still being synchronized");
+    }
     Exercise exercise = exerciseRepository.findById(id)
         .orElseThrow(() -> new EntityNotFoundException("Exercise not found with id: " + id));
 
-    Path exercisePath = Paths.get(localRepoPath, exercise.getGithubPath());
-
-    try {
-      String language = determineLanguage(exercise.getGithubPath());
-      String initialCode = "";
-      String testCode = "";
+    ExerciseAssets assets = exerciseAssetIndex.get(exercise);
+    String lessonName = exercise.getLesson().getName();
 
-      if ("python".equals(language)) {
-        String baseFileName = exercise.getTitle().toLowerCase().replace("-", "_");
-        initialCode = codeFileReader.readFileContent(exercisePath.resolve(baseFileName + ".py"));
-        testCode = codeFileReader.readFileContent(
-            exercisePath.resolve("test_" + baseFileName + ".py"));
-      } else if ("go".equals(language)) {
-        String baseFileName = exercise.getTitle().toLowerCase().replace("-", "_");
-        initialCode = codeFileReader.readFileContent(exercisePath.resolve(baseFileName + ".go"));
-        testCode = codeFileReader.readFileContent(exercisePath.resolve(baseFileName + "_test.go"));
-      } else {
-        initialCode = codeFileReader.readInitialCode(exercisePath);
-        testCode = codeFileReader.readTestCode(exercisePath);
-      }
-
-      String fileName = determineFileName(exercisePath, language);
+    return ExerciseDetailsResponse.builder()
+        .id(exercise.getId())
+        .title(exercise.getTitle())
+        .instructions(exercise.getInstructions())
+        .hints(exercise.getHints())
+        .initialCode(assets.initialCode())
+        .testCode(assets.testCode())
+        .lessonName(lessonName)
+        .fileName(assets.fileName())
+        .language(assets.language())
+        .etag(buildEtag(exercise, assets, lessonName))
+        .build();
+  }
 
-      return ExerciseDetailsResponse.builder()
-          .id(exercise.getId())
-          .title(exercise.getTitle())
-          .instructions(exercise.getInstructions())
-          .hints(exercise.getHints())
-          .initialCode(initialCode)
-          .testCode(testCode)
-          .lessonName(exercise.getLesson().getName())
-          .fileName(fileName)
-          .language(language)
-          .build();
-    } catch (IOException e) {
-      log.error("Error reading exercise files for exercise id: {}", id, e);
-      throw new ExerciseReadException("Failed to read exercise files", e);
+  @Override
+  @Transactional(readOnly = true)
+  public ExerciseBundle getExerciseBundle(Long id) {
+    if (!startupTaskTracker.isCompleted(STARTUP_PHASE_EXERCISES)) {
+      throw new EngineNotReadyException("Exercise files are still being synchronized");
     }
+    Exercise exercise = exerciseRepository.findById(id)
+        .orElseThrow(() -> new EntityNotFoundException("Exercise not found with id: " + id));
+    return exerciseBundleStore.get(exercise);
   }
 
   @Override
@@ -244,38 +237,15 @@ public class ExerciseServiceImpl implements ExerciseService {
         .orElseThrow(() -> new IllegalArgumentException("Lesson not found with id: " + lessonId));
   }
 
-  private String determineLanguage(String githubPath) {
-    String[] parts = githubPath.split("/");
-    if (parts.length > 1) {
-      return parts[1];
-    }
-    return "unknown";
-  }
-
-  private String determineFileName(Path exercisePath, String language) throws IOException {
-    try (Stream<Path> paths = Files.walk(exercisePath)) {
-      return paths
-          .filter(Files::isRegularFile)
-          .map(Path::getFileName)
-          .map(Path::toString)
-          .filter(name -> name.endsWith(getFileExtension(language)))
-          .filter(name -> !name.contains("test") && !name.contains("Test"))
-          .findFirst()
-          .orElse("main" + getFileExtension(language));
-    }
-  }
-
-  private String getFileExtension(String language) {
-    // Mapeo de lenguajes a extensiones de archivo
-    return switch (language.toLowerCase()) {
-      case "java" -> ".java";
-      case "python" -> ".py";
-      case "javascript" -> ".js";
-      case "typescript" -> ".ts";
-      case "go" -> ".go";
-      case "rust" -> ".rs";
-      default -> ".txt";
-    };
+  /**
+   * Builds the ETag of the exercise details from the repository commit, the hash of the exercise
+   * files and the exercise fields stored in the database.
+   */
+  private String buildEtag(Exercise exercise, ExerciseAssets assets, String lessonName) {
+    String contentHash = HashUtil.generateSHA256Hash(String.join("\0", assets.contentHash(),
+        exercise.getTitle(), Objects.toString(exercise.getInstructions(), ""),
+        Objects.toString(exercise.getHints(), ""), lessonName));
+    return Objects.toString(assets.commit(), "local") + "-" + contentHash.substring(0, 16);
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,254 @@
+package com.cortex.backend.engine.internal.services;
+
+import com.cortex.backend.core.domain.ExerciseStats;
+import com.cortex.backend.core.domain.ExerciseStatsBucket;
+import com.cortex.backend.engine.api.ExerciseRepository;
+import com.cortex.backend.engine.api.ExerciseStatsBucketRepository;
+import com.cortex.backend.engine.api.ExerciseStatsRepository;
+import com.cortex.backend.engine.api.dto.ExerciseStatsResponse;
+import jakarta.persistence.EntityNotFoundException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps per-exercise statistics up to date as results are written, so they are read from
+ * {@code exercise_stats} and {@code exercise_stats_bucket} instead of being computed from the
+ * submissions.
+ *
+ * <p>{@link SubmissionWriteBehind} passes each flushed batch of results to {@link #record} inside
+ * its transaction. The batch is aggregated per exercise in memory and added to the stored totals
+ * with one upsert per exercise and per histogram bucket, so the statistics are exactly as current
+ * as the results and a rolled back flush leaves them untouched. Run time and memory of passing runs
+ * are kept as log-scale histograms: a value {@code v} falls in bucket {@code ceil(log(v) /
+ * log(GAMMA))}, which keeps any percentile within about 5% of the real value, and histograms from
+ * different batches and nodes merge by adding the samples of equal buckets.
+ *
+ * <p>Statistics count results written since the tables were created; earlier results are not
+ * backfilled.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExerciseStatsService {
+
+  static final String RUN_TIME = "run_time";
+  static final String MEMORY = "memory";
+
+  private static final double GAMMA = 1.1;
+  private static final double LOG_GAMMA = Math.log(GAMMA);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ExerciseRepository exerciseRepository;
+  private final ExerciseStatsRepository exerciseStatsRepository;
+  private final ExerciseStatsBucketRepository exerciseStatsBucketRepository;
+
+  /**
+   * A graded run of a submission.
+   */
+  public record Run(long submissionId, boolean success, int executionTimeMs, int memoryUsedKb) {
+
+  }
+
+  private record Owner(long exerciseId, long userId) {
+
+  }
+
+  private record BucketKey(long exerciseId, String metric, int bucket) {
+
+  }
+
+  private static final class Totals {
+
+    private long attempts;
+    private long passed;
+    private long solvers;
+  }
+
+  /**
+   * Adds a batch of runs to the statistics of their exercises. Must be called in the transaction
+   * that stores the runs, each run once.
+   */
+  public void record(List<Run> runs, LocalDateTime updatedAt) {
+    if (runs.isEmpty()) {
+      return;
+    }
+    Map<Long, Owner> owners = owners(runs);
+
+    Map<Long, Totals> totals = new TreeMap<>();
+    Map<BucketKey, Long> buckets = new TreeMap<>(Comparator.comparingLong(BucketKey::exerciseId)
+        .thenComparing(BucketKey::metric).thenComparingInt(BucketKey::bucket));
+    TreeSet<Owner> solved = new TreeSet<>(Comparator.comparingLong(Owner::exerciseId)
+        .thenComparingLong(Owner::userId));
+    for (Run run : runs) {
+      Owner owner = owners.get(run.submissionId());
+      if (owner == null) {
+        continue;
+      }
+      Totals exercise = totals.computeIfAbsent(owner.exerciseId(), id -> new Totals());
+      exercise.attempts++;
+      if (!run.success()) {
+        continue;
+      }
+      exercise.passed++;
+      solved.add(owner);
+      if (run.executionTimeMs() > 0) {
+        buckets.merge(new BucketKey(owner.exerciseId(), RUN_TIME, bucketOf(run.executionTimeMs())),
+            1L, Long::sum);
+      }
+      if (run.memoryUsedKb() > 0) {
+        buckets.merge(new BucketKey(owner.exerciseId(), MEMORY, bucketOf(run.memoryUsedKb())),
+            1L, Long::sum);
+      }
+    }
+    if (totals.isEmpty()) {
+      return;
+    }
+
+    List<Owner> solvers = new ArrayList<>(solved);
+    if (!solvers.isEmpty()) {
+      int[] inserted = jdbcTemplate.batchUpdate(
+          "INSERT INTO exercise_solver (exercise_id, user_id, solved_at) VALUES (?, ?, ?) "
+              + "ON CONFLICT (exercise_id, user_id) DO NOTHING",
+          solvers.stream().map(owner -> new Object[]{owner.exerciseId(), owner.userId(),
+              Timestamp.valueOf(updatedAt)}).toList());
+      for (int i = 0; i < solvers.size(); i++) {
+        if (inserted[i] > 0) {
+          totals.get(solvers.get(i).exerciseId()).solvers++;
+        }
+      }
+    }
+
+    // Rows are upserted in key order so concurrent flushes on other nodes cannot deadlock
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO exercise_stats (exercise_id, attempts, passed, solvers, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?) ON CONFLICT (exercise_id) DO UPDATE SET "
+            + "attempts = exercise_stats.attempts + EXCLUDED.attempts, "
+            + "passed = exercise_stats.passed + EXCLUDED.passed, "
+            + "solvers = exercise_stats.solvers + EXCLUDED.solvers, "
+            + "updated_at = EXCLUDED.updated_at",
+        totals.entrySet().stream().map(entry -> new Object[]{entry.getKey(),
+            entry.getValue().attempts, entry.getValue().passed, entry.getValue().solvers,
+            Timestamp.valueOf(updatedAt)}).toList());
+    if (!buckets.isEmpty()) {
+      jdbcTemplate.batchUpdate(
+          "INSERT INTO exercise_stats_bucket (exercise_id, metric, bucket, samples) "
+              + "VALUES (?, ?, ?, ?) ON CONFLICT (exercise_id, metric, bucket) DO UPDATE SET "
+              + "samples = exercise_stats_bucket.samples + EXCLUDED.samples",
+          buckets.entrySet().stream().map(entry -> new Object[]{entry.getKey().exerciseId(),
+              entry.getKey().metric(), entry.getKey().bucket(), entry.getValue()}).toList());
+    }
+  }
+
+  /**
+   * Returns the statistics of an exercise; an exercise without graded runs has zero attempts and
+   * no percentiles.
+   *
+   * @throws EntityNotFoundException if the exercise does not exist
+   */
+  @Transactional(readOnly = true)
+  public ExerciseStatsResponse getStats(Long exerciseId) {
+    if (!exerciseRepository.existsById(exerciseId)) {
+      throw new EntityNotFoundException("Exercise not found with id: " + exerciseId);
+    }
+    ExerciseStats stats = exerciseStatsRepository.findById(exerciseId)
+        .orElseGet(() -> ExerciseStats.builder().exerciseId(exerciseId).attempts(0L).passed(0L)
+            .solvers(0L).build());
+    return toResponse(stats, exerciseStatsBucketRepository.findByIdExerciseId(exerciseId));
+  }
+
+  /**
+   * Returns the statistics of every exercise with graded runs, by exercise id.
+   */
+  @Transactional(readOnly = true)
+  public List<ExerciseStatsResponse> getAllStats() {
+    Map<Long, List<ExerciseStatsBucket>> buckets = StreamSupport.stream(
+            exerciseStatsBucketRepository.findAll().spliterator(), false)
+        .collect(Collectors.groupingBy(bucket -> bucket.getId().getExerciseId()));
+    return StreamSupport.stream(exerciseStatsRepository.findAll().spliterator(), false)
+        .sorted(Comparator.comparing(ExerciseStats::getExerciseId))
+        .map(stats -> toResponse(stats,
+            buckets.getOrDefault(stats.getExerciseId(), List.of())))
+        .toList();
+  }
+
+  private Map<Long, Owner> owners(List<Run> runs) {
+    Map<Long, Owner> owners = new HashMap<>();
+    new NamedParameterJdbcTemplate(jdbcTemplate).query(
+        "SELECT s.id, sol.exercise_id, sol.user_id FROM submission s "
+            + "JOIN solution sol ON sol.id = s.solution_id WHERE s.id IN (:ids)",
+        Map.of("ids", runs.stream().map(Run::submissionId).distinct().toList()),
+        rs -> {
+          owners.put(rs.getLong(1), new Owner(rs.getLong(2), rs.getLong(3)));
+        });
+    return owners;
+  }
+
+  private static ExerciseStatsResponse toResponse(ExerciseStats stats,
+      List<ExerciseStatsBucket> buckets) {
+    Map<Integer, Long> runTime = histogram(buckets, RUN_TIME);
+    Map<Integer, Long> memory = histogram(buckets, MEMORY);
+    return ExerciseStatsResponse.builder()
+        .exerciseId(stats.getExerciseId())
+        .attempts(stats.getAttempts())
+        .passed(stats.getPassed())
+        .passRate(stats.getAttempts() == 0 ? null
+            : (double) stats.getPassed() / stats.getAttempts())
+        .solvers(stats.getSolvers())
+        .runTimeP50Ms(percentile(runTime, 0.50))
+        .runTimeP90Ms(percentile(runTime, 0.90))
+        .runTimeP99Ms(percentile(runTime, 0.99))
+        .memoryP50Kb(percentile(memory, 0.50))
+        .memoryP90Kb(percentile(memory, 0.90))
+        .memoryP99Kb(percentile(memory, 0.99))
+        .updatedAt(stats.getUpdatedAt())
+        .build();
+  }
+
+  private static Map<Integer, Long> histogram(List<ExerciseStatsBucket> buckets, String metric) {
+    Map<Integer, Long> histogram = new TreeMap<>();
+    buckets.stream().filter(bucket -> metric.equals(bucket.getId().getMetric()))
+        .forEach(bucket -> histogram.merge(bucket.getId().getBucket(), bucket.getSamples(),
+            Long::sum));
+    return histogram;
+  }
+
+  static int bucketOf(long value) {
+    return value <= 1 ? 0 : (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+  }
+
+  /**
+   * Estimates a percentile from a histogram as the midpoint, relative to the bucket bounds, of the
+   * bucket holding it.
+   *
+   * @return the estimate, {@code null} if the histogram is empty
+   */
+  static Long percentile(Map<Integer, Long> histogram, double quantile) {
+    long total = histogram.values().stream().mapToLong(Long::longValue).sum();
+    if (total == 0) {
+      return null;
+    }
+    long rank = Math.max(1, (long) Math.ceil(quantile * total));
+    long seen = 0;
+    for (Map.Entry<Integer, Long> entry : histogram.entrySet()) {
+      seen += entry.getValue();
+      if (seen >= rank) {
+        return entry.getKey() == 0 ? 1L
+            : Math.round(2 * Math.pow(GAMMA, entry.getKey()) / (GAMMA + 1));
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,14 @@
+package com.cortex.backend.engine.internal.services;
+
+import java.util.Collection;
+
+/**
+ * Published after an incremental sync changed the graded files (anything outside {@code .docs})
+ * of some exercises.
+ *
+ * @param githubPaths the paths of the changed exercises in the exercises repository
+ * @param commit      the commit the repository was synced to
+ */
+public record ExercisesChangedEvent(Collection<String> githubPaths, String commit) {
+
+}
@@ -1,27 +1,42 @@
 package com.cortex.backend.engine.internal.services;
 
+import static com.cortex.backend.engine.internal.utils.Constants.STARTUP_PHASE_EXERCISES;
+
 import com.cortex.backend.core.common.SlugUtils;
 import com.cortex.backend.core.common.exception.GitSyncException;
+import com.cortex.backend.core.common.startup.StartupTaskTracker;
+import com.cortex.backend.core.domain.Exercise;
 import com.cortex.backend.engine.api.ExerciseRepository;
 import com.cortex.backend.engine.api.ExerciseService;
 import com.cortex.backend.engine.internal.ExerciseConfig;
+import com.cortex.backend.engine.internal.assets.ExerciseAssetIndex;
+import com.cortex.backend.engine.internal.assets.ExerciseBundleStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jgit.api.CreateBranchCommand.SetupUpstreamMode;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.eclipse.jgit.transport.URIish;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -38,6 +53,11 @@ public class GithubSyncService {
   private final ExerciseService exerciseService;
   private final ExerciseRepository exerciseRepository;
   private final SlugUtils slugUtils;
+  private final StartupTaskTracker startupTaskTracker;
+  private final TaskScheduler taskScheduler;
+  private final ExerciseAssetIndex exerciseAssetIndex;
+  private final ExerciseBundleStore exerciseBundleStore;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Value("${github.exercises.repo-url}")
   private String repoUrl;
@@ -48,18 +68,42 @@ public class GithubSyncService {
   @Value("${github.exercises.branch}")
   private String branch;
 
+  @Value("${github.exercises.webhook-debounce-ms:5000}")
+  private long webhookDebounceMs;
+
+  @Value("${github.exercises.webhook-max-postpones:12}")
+  private int webhookMaxPostpones = 12;
 
   private String lastSyncedCommit;
 
-  private static final String ORIGIN = "origin/";
+  private final ReentrantLock syncLock = new ReentrantLock();
 
-  @EventListener(ApplicationReadyEvent.class)
+  private ScheduledFuture<?> pendingWebhookSync;
+
+  private static final String ORIGIN = "origin/";
+  private static final String EXERCISES_DIR = "exercises";
+  private static final String PRACTICE_DIR = "practice";
+  private static final String DOCS_DIR = ".docs";
+
+  /**
+   * Initializes the exercises on startup. Runs as a background startup phase, see
+   * {@link com.cortex.backend.engine.config.EngineStartup}.
+   */
   public void initializeExercises() {
     if (!exerciseService.areLessonsAvailable()) {
       log.warn("No lessons found in the database. Skipping exercise initialization.");
       return;
     }
 
+    syncLock.lock();
+    try {
+      initializeExercisesFromRepository();
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  private void initializeExercisesFromRepository() {
     if (exerciseService.isExerciseRepositoryEmpty()) {
       log.info("Exercise repository is empty but lessons are available. Initializing exercises...");
       Path localPath = Path.of(localPathString);
@@ -72,6 +116,7 @@ public class GithubSyncService {
       log.info("Exercises already exist. Proceeding with normal sync.");
       syncExercises();
     }
+    refreshAssetIndex();
   }
 
   private void forceUpdateExercises(Path localPath) {
@@ -86,18 +131,106 @@ public class GithubSyncService {
       log.warn("No lessons found in the database. Skipping scheduled sync.");
       return;
     }
-    log.info("Starting scheduled sync of exercises");
-    syncExercises();
+    if (!startupTaskTracker.isCompleted(STARTUP_PHASE_EXERCISES)) {
+      log.info("Exercise initialization has not completed yet. Skipping scheduled sync.");
+      return;
+    }
+    if (!syncLock.tryLock()) {
+      log.info("A sync is already in progress. Skipping scheduled sync.");
+      return;
+    }
+    try {
+      log.info("Starting scheduled sync of exercises");
+      syncExercises();
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  /**
+   * Requests a sync triggered by a push webhook. Bursts of pushes are debounced: every new request
+   * postpones the pending one, so a single sync runs once the pushes have settled.
+   *
+   * <p>A request that arrives before exercise initialization has completed is dropped, since
+   * initialization syncs to the head of the branch itself. A request that finds another sync in
+   * progress is postponed at most {@code github.exercises.webhook-max-postpones} times and then
+   * left to the next push or scheduled sync.
+   *
+   * @param commitId the commit the branch was pushed to
+   */
+  public void requestSync(String commitId) {
+    schedule(commitId, 0);
+  }
+
+  private synchronized void schedule(String commitId, int postpones) {
+    if (pendingWebhookSync != null) {
+      pendingWebhookSync.cancel(false);
+    }
+    log.info("Sync to commit {} requested, running in {} ms", commitId, webhookDebounceMs);
+    pendingWebhookSync = taskScheduler.schedule(() -> syncToCommit(commitId, postpones),
+        Instant.now().plusMillis(webhookDebounceMs));
+  }
+
+  void syncToCommit(String commitId, int postpones) {
+    if (!startupTaskTracker.isCompleted(STARTUP_PHASE_EXERCISES)) {
+      log.info("Exercise initialization has not completed yet. Dropping sync to {}", commitId);
+      return;
+    }
+    if (!syncLock.tryLock()) {
+      if (postpones >= webhookMaxPostpones) {
+        log.warn("A sync is still in progress after {} postponements. Dropping sync to {}",
+            postpones, commitId);
+        return;
+      }
+      log.info("A sync is already in progress. Postponing sync to {}", commitId);
+      schedule(commitId, postpones + 1);
+      return;
+    }
+    try {
+      if (commitId != null && commitId.equals(getCurrentCommit())) {
+        log.info("Repository is already at commit {}. Skipping sync.", commitId);
+        return;
+      }
+      syncExercises();
+    } catch (GitSyncException e) {
+      log.error("Webhook triggered sync to {} failed", commitId, e);
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the commit the local exercises repository is checked out at.
+   *
+   * @return the commit id, or {@code null} if the repository has not been cloned yet
+   */
+  public String getCurrentCommit() {
+    File gitDir = new File(Path.of(localPathString).toFile(), ".git");
+    if (!gitDir.exists()) {
+      return null;
+    }
+    try (Repository repository = new FileRepositoryBuilder().setGitDir(gitDir).build()) {
+      ObjectId head = repository.resolve("HEAD");
+      return head != null ? head.getName() : null;
+    } catch (IOException e) {
+      log.error("Could not resolve HEAD of the exercises repository", e);
+      return null;
+    }
   }
 
   public void syncExercises() {
     Path localPath = Path.of(localPathString);
     log.info("Checking for updates in repository at {}", localPath);
     try {
-      if (pullLatestChanges(localPath)) {
+      SyncDelta delta = pullLatestChanges(localPath);
+      if (delta == null) {
+        log.info("No new changes in the repository. Skipping update.");
+      } else if (delta.isFullSync()) {
         updateExercisesFromLocalRepo(localPath);
+        refreshAssetIndex();
       } else {
-        log.info("No new changes in the repository. Skipping update.");
+        updateChangedExercises(localPath, delta);
+        refreshAssetIndex();
       }
     } catch (Exception e) {
       log.error("Failed to sync exercises", e);
@@ -105,11 +238,36 @@ public class GithubSyncService {
     }
   }
 
-  private boolean pullLatestChanges(Path localPath) throws Exception {
+  private void refreshAssetIndex() {
+    String commit = getCurrentCommit();
+    if (commit != null && commit.equals(exerciseAssetIndex.getCurrentCommit())) {
+      return;
+    }
+    Iterable<Exercise> exercises = exerciseRepository.findAll();
+    exerciseAssetIndex.onSync(commit, exercises);
+    exerciseBundleStore.onSync(commit, exercises);
+  }
+
+  /**
+   * Commits before and after a pull. A delta without an old head means the repository was
+   * (re-)cloned and every exercise has to be processed.
+   */
+  private record SyncDelta(ObjectId oldHead, ObjectId newHead) {
+
+    static SyncDelta full() {
+      return new SyncDelta(null, null);
+    }
+
+    boolean isFullSync() {
+      return oldHead == null || newHead == null;
+    }
+  }
+
+  private SyncDelta pullLatestChanges(Path localPath) throws Exception {
     File gitDir = new File(localPath.toFile(), ".git");
     if (!gitDir.exists()) {
       log.warn("Git directory not found. Attempting to clone the repository.");
-      return cloneRepository(localPath);
+      return cloneRepository(localPath) ? SyncDelta.full() : null;
     }
 
     try (Repository repository = new FileRepositoryBuilder()
@@ -160,14 +318,14 @@ public class GithubSyncService {
         String newCommitId = latestCommit.getName();
         log.info("New changes detected. Latest commit: {}", newCommitId);
         lastSyncedCommit = newCommitId;
-        return true;
+        return new SyncDelta(oldHead, latestCommit.getId());
       }
 
       log.info("No new changes detected in the remote repository.");
-      return false;
+      return null;
     } catch (IOException e) {
       log.error("IO error occurred while pulling changes. Attempting to re-clone.", e);
-      return cloneRepository(localPath);
+      return cloneRepository(localPath) ? SyncDelta.full() : null;
     } catch (GitAPIException e) {
       log.error("Git API error occurred while pulling changes.", e);
       throw e;
@@ -212,6 +370,71 @@ public class GithubSyncService {
     log.info("Updated or created {} exercises", updatedCount);
   }
 
+  private void updateChangedExercises(Path localPath, SyncDelta delta) throws IOException {
+    Set<String> gradedDirectories = new LinkedHashSet<>();
+    Set<String> changedDirectories = findChangedExerciseDirectories(localPath, delta,
+        gradedDirectories);
+    log.info("{} exercises changed between {} and {}", changedDirectories.size(),
+        delta.oldHead().getName(), delta.newHead().getName());
+
+    int updatedCount = 0;
+    for (String directory : changedDirectories) {
+      File exerciseDir = localPath.resolve(directory).toFile();
+      if (isInvalidDirectory(exerciseDir)) {
+        log.info("Exercise directory {} no longer exists. Skipping.", directory);
+        continue;
+      }
+      String language = Path.of(directory).getName(1).toString();
+      if (updateExercise(exerciseDir, language)) {
+        updatedCount++;
+      }
+    }
+    log.info("Updated or created {} exercises", updatedCount);
+
+    if (!gradedDirectories.isEmpty()) {
+      eventPublisher.publishEvent(
+          new ExercisesChangedEvent(gradedDirectories, delta.newHead().getName()));
+    }
+  }
+
+  /**
+   * Lists the exercise directories ({@code exercises/<language>/practice/<exercise>}) touched by
+   * the commits between the old and the new head. Directories where files outside {@code .docs}
+   * changed, which may change how submissions are graded, are also added to
+   * {@code gradedDirectories}.
+   */
+  private Set<String> findChangedExerciseDirectories(Path localPath, SyncDelta delta,
+      Set<String> gradedDirectories) throws IOException {
+    Set<String> directories = new LinkedHashSet<>();
+    try (Repository repository = new FileRepositoryBuilder()
+        .setGitDir(new File(localPath.toFile(), ".git"))
+        .build();
+        RevWalk revWalk = new RevWalk(repository);
+        DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+      diffFormatter.setRepository(repository);
+      RevCommit oldCommit = revWalk.parseCommit(delta.oldHead());
+      RevCommit newCommit = revWalk.parseCommit(delta.newHead());
+      for (DiffEntry entry : diffFormatter.scan(oldCommit.getTree(), newCommit.getTree())) {
+        addExerciseDirectory(entry.getOldPath(), directories, gradedDirectories);
+        addExerciseDirectory(entry.getNewPath(), directories, gradedDirectories);
+      }
+    }
+    return directories;
+  }
+
+  private void addExerciseDirectory(String changedPath, Set<String> directories,
+      Set<String> gradedDirectories) {
+    String[] parts = changedPath.split("/");
+    if (parts.length > 4 && EXERCISES_DIR.equals(parts[0]) && PRACTICE_DIR.equals(parts[2])
+        && !parts[3].startsWith(".")) {
+      String directory = String.join("/", parts[0], parts[1], parts[2], parts[3]);
+      directories.add(directory);
+      if (!DOCS_DIR.equals(parts[4])) {
+        gradedDirectories.add(directory);
+      }
+    }
+  }
+
   private boolean isInvalidDirectory(File directory) {
     return !directory.exists() || !directory.isDirectory();
   }
@@ -0,0 +1,117 @@
+package com.cortex.backend.engine.internal.services;
+
+import com.cortex.backend.core.common.exception.HashGenerationException;
+import com.cortex.backend.core.common.exception.InvalidWebhookPayloadException;
+import com.cortex.backend.core.common.exception.InvalidWebhookSignatureException;
+import com.cortex.backend.engine.api.dto.GithubPushEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Handles push webhooks from the exercises repository. Payloads are authenticated with the
+ * {@code X-Hub-Signature-256} HMAC and pushes to the tracked branch trigger a debounced sync.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class GithubWebhookService {
+
+  private static final String SIGNATURE_PREFIX = "sha256=";
+  private static final String HMAC_SHA256 = "HmacSHA256";
+  private static final String PUSH_EVENT = "push";
+  private static final String PING_EVENT = "ping";
+  private static final String DELETED_REF = "0000000000000000000000000000000000000000";
+
+  private final GithubSyncService githubSyncService;
+  private final ObjectMapper objectMapper;
+
+  @Value("${github.exercises.webhook-secret:}")
+  private String webhookSecret;
+
+  @Value("${github.exercises.branch}")
+  private String branch;
+
+  /**
+   * Verifies and handles a webhook delivery.
+   *
+   * @param event     the value of the {@code X-GitHub-Event} header
+   * @param signature the value of the {@code X-Hub-Signature-256} header
+   * @param payload   the raw request body
+   * @return true if a sync was requested, false if the delivery was ignored
+   * @throws InvalidWebhookSignatureException if the signature does not match the payload
+   */
+  public boolean handleDelivery(String event, String signature, byte[] payload) {
+    verifySignature(signature, payload);
+
+    if (PING_EVENT.equals(event)) {
+      log.info("Received webhook ping");
+      return false;
+    }
+    if (!PUSH_EVENT.equals(event)) {
+      log.info("Ignoring webhook event: {}", event);
+      return false;
+    }
+
+    GithubPushEvent push = readPushEvent(payload);
+    if (!("refs/heads/" + branch).equals(push.ref())) {
+      log.info("Ignoring push to {}", push.ref());
+      return false;
+    }
+    if (push.after() == null || DELETED_REF.equals(push.after())) {
+      log.warn("Ignoring push that deleted {}", push.ref());
+      return false;
+    }
+
+    log.info("Push to {} received ({} -> {})", push.ref(), push.before(), push.after());
+    githubSyncService.requestSync(push.after());
+    return true;
+  }
+
+  void verifySignature(String signature, byte[] payload) {
+    if (webhookSecret == null || webhookSecret.isBlank()) {
+      throw new InvalidWebhookSignatureException("Webhook secret is not configured");
+    }
+    if (signature == null || !signature.startsWith(SIGNATURE_PREFIX)) {
+      throw new InvalidWebhookSignatureException("Missing or malformed signature");
+    }
+
+    byte[] provided;
+    try {
+      provided = HexFormat.of().parseHex(signature.substring(SIGNATURE_PREFIX.length()));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidWebhookSignatureException("Malformed signature");
+    }
+
+    if (!MessageDigest.isEqual(sign(payload), provided)) {
+      throw new InvalidWebhookSignatureException("Signature does not match payload");
+    }
+  }
+
+  private byte[] sign(byte[] payload) {
+    try {
+      Mac mac = Mac.getInstance(HMAC_SHA256);
+      mac.init(new SecretKeySpec(webhookSecret.getBytes(StandardCharsets.UTF_8), HMAC_SHA256));
+      return mac.doFinal(payload);
+    } catch (GeneralSecurityException e) {
+      throw new HashGenerationException("Failed to compute webhook signature", e);
+    }
+  }
+
+  private GithubPushEvent readPushEvent(byte[] payload) {
+    try {
+      return objectMapper.readValue(payload, GithubPushEvent.class);
+    } catch (IOException e) {
+      throw new InvalidWebhookPayloadException("Invalid push event payload");
+    }
+  }
+}
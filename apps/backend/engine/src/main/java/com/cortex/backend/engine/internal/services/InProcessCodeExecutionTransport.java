@@ -0,0 +1,128 @@
+package com.cortex.backend.engine.internal.services;
+
+import static com.cortex.backend.engine.internal.utils.Constants.IN_PROCESS_QUEUE_PROFILE;
+
+import com.cortex.backend.core.common.exception.EngineNotReadyException;
+import com.cortex.backend.engine.api.dto.CodeExecutionTask;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps code execution tasks in a bounded queue inside the JVM and runs them on virtual-thread
+ * workers, for single-node deployments and benchmarks that should not need a broker.
+ *
+ * <p>Tasks are taken in submission order. A retried task waits its retry delay off the queue and
+ * then goes back in with its original position, so it runs before tasks submitted after it; this
+ * is the order the broker's retry tiers produce when the queue is not backed up. Retries are
+ * always accepted, the bound only applies to new submissions. Queued tasks are lost if the process
+ * stops, which is acceptable for the deployments this mode is meant for.
+ */
+@Component
+@Slf4j
+@Profile(IN_PROCESS_QUEUE_PROFILE)
+public class InProcessCodeExecutionTransport implements CodeExecutionTransport {
+
+  private final ObjectProvider<CodeExecutionTaskHandler> taskHandler;
+  private final PriorityBlockingQueue<QueuedTask> queue = new PriorityBlockingQueue<>(64,
+      Comparator.comparingLong(QueuedTask::sequence));
+  private final AtomicLong sequence = new AtomicLong();
+  private final ExecutorService workers =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("execution-worker-", 0).factory());
+  private final int capacity;
+  private final int workerCount;
+
+  private record QueuedTask(long sequence, CodeExecutionTask task, int attempt) {
+
+  }
+
+  public InProcessCodeExecutionTransport(ObjectProvider<CodeExecutionTaskHandler> taskHandler,
+      MeterRegistry meterRegistry,
+      @Value("${engine.queue.in-process.capacity:1000}") int capacity,
+      @Value("${engine.queue.in-process.workers:0}") int workers) {
+    this.taskHandler = taskHandler;
+    this.capacity = capacity;
+    this.workerCount = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+    Gauge.builder("engine.code_execution.queue.depth", queue, PriorityBlockingQueue::size)
+        .description("Code execution tasks waiting in the in-process queue")
+        .register(meterRegistry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void startWorkers() {
+    log.info("Running code execution tasks in process with {} workers", workerCount);
+    for (int i = 0; i < workerCount; i++) {
+      workers.submit(this::work);
+    }
+  }
+
+  @Override
+  public void submit(CodeExecutionTask task) {
+    synchronized (queue) {
+      if (queue.size() >= capacity) {
+        throw new EngineNotReadyException("The execution queue is full, try again shortly");
+      }
+      queue.add(new QueuedTask(sequence.incrementAndGet(), task, 1));
+    }
+  }
+
+  @Override
+  public void cancel(String taskId) {
+    taskHandler.getObject().cancel(taskId);
+  }
+
+  private void work() {
+    while (!Thread.currentThread().isInterrupted()) {
+      QueuedTask queued;
+      try {
+        queued = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      try {
+        CodeExecutionTaskHandler handler = taskHandler.getObject();
+        CodeExecutionTaskHandler.Result result = handler.handle(queued.task(), queued.attempt());
+        switch (result.outcome()) {
+          case RETRY -> workers.submit(() -> retry(queued,
+              handler.getRetryDelayMs(queued.attempt()), queued.attempt() + 1));
+          case REQUEUE -> workers.submit(() -> retry(queued, handler.getRetryDelayMs(1),
+              queued.attempt()));
+          case DEAD_LETTER -> log.error("Dropped task {}: {}", queued.task().taskId(),
+              result.reason());
+          case COMPLETED, CANCELLED -> {
+            // Nothing left to do
+          }
+        }
+      } catch (Exception e) {
+        log.error("Error processing code execution task: {}", queued.task().taskId(), e);
+      }
+    }
+  }
+
+  private void retry(QueuedTask queued, long delayMs, int attempt) {
+    try {
+      Thread.sleep(delayMs);
+      queue.add(new QueuedTask(queued.sequence(), queued.task(), attempt));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    workers.shutdownNow();
+  }
+}
@@ -0,0 +1,378 @@
+package com.cortex.backend.engine.internal.services;
+
+import static com.cortex.backend.engine.internal.utils.Constants.STARTUP_PHASE_EXERCISES;
+import static com.cortex.backend.engine.internal.utils.Constants.STARTUP_PHASE_LANGUAGES;
+
+import com.cortex.backend.auth.config.ApplicationAuditAware;
+import com.cortex.backend.core.common.exception.PlatformFaultException;
+import com.cortex.backend.core.common.startup.StartupTaskTracker;
+import com.cortex.backend.core.domain.Exercise;
+import com.cortex.backend.core.domain.RegradeJob;
+import com.cortex.backend.core.domain.RegradeJobStatus;
+import com.cortex.backend.engine.api.ExerciseRepository;
+import com.cortex.backend.engine.api.RegradeJobRepository;
+import com.cortex.backend.engine.api.SolutionRepository;
+import com.cortex.backend.engine.api.SubmissionRepository;
+import com.cortex.backend.engine.api.dto.CodeExecutionRequest;
+import com.cortex.backend.engine.api.dto.CodeExecutionResult;
+import com.cortex.backend.engine.api.dto.RegradeCandidate;
+import com.cortex.backend.engine.api.dto.RegradeJobResponse;
+import com.cortex.backend.engine.internal.docker.CpuSlotAllocator;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Re-runs the latest submission of every solution of a set of exercises after their tests changed
+ * and updates the stored solution status and points.
+ *
+ * <p>Jobs run one at a time on a single background thread, so regrades never take more than one
+ * sandbox at a time, and each run waits until the host has spare CPU cores beyond those kept for
+ * interactive submissions. Submissions are streamed with a keyset cursor stored on the job, which
+ * makes a job resumable after a restart; solutions are updated once per page.
+ *
+ * <p>Every node syncs the same commits and resumes unfinished jobs, so a job only runs on the node
+ * that claimed it in the database. The owner renews the claim while it works, and any node resumes
+ * a job whose claim went stale. A regraded grade is only stored while the regraded submission is
+ * still the latest of its solution.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RegradeService {
+
+  private static final Long SYSTEM_USER_ID = 1L;
+  private static final String TRIGGER_ADMIN = "admin";
+  private static final String TRIGGER_SYNC = "sync";
+  private static final long COMPLETED_STATUS = 1L;
+  private static final long FAILED_STATUS = 2L;
+
+  private final RegradeJobRepository regradeJobRepository;
+  private final SubmissionRepository submissionRepository;
+  private final SolutionRepository solutionRepository;
+  private final ExerciseRepository exerciseRepository;
+  private final CodeExecutionService codeExecutionService;
+  private final CpuSlotAllocator cpuSlotAllocator;
+  private final StartupTaskTracker startupTaskTracker;
+  private final TransactionTemplate transactionTemplate;
+  private final CodeBlobStore codeBlobStore;
+
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(Thread.ofVirtual().name("regrade-", 0).factory());
+  private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+  private final String nodeId = UUID.randomUUID().toString();
+
+  @Value("${engine.regrade.batch-size:50}")
+  private int batchSize;
+
+  @Value("${engine.regrade.on-sync:true}")
+  private boolean regradeOnSync;
+
+  @Value("${engine.regrade.reserved-cores:2}")
+  private int reservedCores;
+
+  @Value("${engine.regrade.throttle-ms:2000}")
+  private long throttleMs;
+
+  @Value("${engine.regrade.claim-timeout-ms:300000}")
+  private long claimTimeoutMs;
+
+  /**
+   * Creates a regrade job for the given exercises and schedules it.
+   *
+   * @param exerciseIds the exercises to regrade
+   * @return the created job
+   */
+  public RegradeJobResponse requestRegrade(List<Long> exerciseIds) {
+    RegradeJob job = createJob(exerciseIds, TRIGGER_ADMIN, null);
+    schedule(job.getId());
+    return toResponse(job);
+  }
+
+  public RegradeJobResponse getJob(Long jobId) {
+    return toResponse(findJob(jobId));
+  }
+
+  /**
+   * Cancels a job. A running job stops before its next submission.
+   *
+   * @param jobId the job to cancel
+   * @return the job
+   */
+  public RegradeJobResponse cancelJob(Long jobId) {
+    findJob(jobId);
+    regradeJobRepository.cancel(jobId, LocalDateTime.now());
+    return toResponse(findJob(jobId));
+  }
+
+  @EventListener
+  public void onExercisesChanged(ExercisesChangedEvent event) {
+    if (!regradeOnSync) {
+      return;
+    }
+    List<Long> exerciseIds = event.githubPaths().stream()
+        .map(exerciseRepository::findByGithubPath)
+        .flatMap(Optional::stream)
+        .map(Exercise::getId)
+        .toList();
+    if (exerciseIds.isEmpty()) {
+      return;
+    }
+    try {
+      ApplicationAuditAware.setCurrentAuditor(SYSTEM_USER_ID);
+      RegradeJob job = createJob(exerciseIds, TRIGGER_SYNC, event.commit());
+      log.info("Exercises {} changed at {}, scheduled regrade job {}", exerciseIds,
+          event.commit(), job.getId());
+      schedule(job.getId());
+    } catch (DataIntegrityViolationException e) {
+      log.debug("The regrade job for {} was already created by another node", event.commit());
+    } finally {
+      ApplicationAuditAware.clearCurrentAuditor();
+    }
+  }
+
+  /**
+   * Resumes the jobs that nobody runs: jobs never claimed, and jobs whose node stopped or lost its
+   * claim.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(initialDelayString = "${engine.regrade.claim-timeout-ms:300000}",
+      fixedDelayString = "${engine.regrade.claim-timeout-ms:300000}")
+  public void resumeJobs() {
+    LocalDateTime staleBefore = LocalDateTime.now().minusNanos(claimTimeoutMs * 1_000_000);
+    regradeJobRepository.findByStatusInOrderByIdAsc(
+            List.of(RegradeJobStatus.PENDING, RegradeJobStatus.RUNNING)).stream()
+        .filter(job -> job.getOwner() == null || job.getHeartbeatAt() == null
+            || job.getHeartbeatAt().isBefore(staleBefore))
+        .filter(job -> !scheduled.contains(job.getId()))
+        .forEach(job -> {
+          log.info("Resuming regrade job {} after submission {}", job.getId(),
+              job.getLastSubmissionId());
+          schedule(job.getId());
+        });
+  }
+
+  private RegradeJob createJob(List<Long> exerciseIds, String triggeredBy, String commit) {
+    RegradeJob job = RegradeJob.builder()
+        .status(RegradeJobStatus.PENDING)
+        .exerciseIds(exerciseIds.stream().distinct().map(String::valueOf)
+            .collect(Collectors.joining(",")))
+        .triggeredBy(triggeredBy)
+        .commitId(commit)
+        .lastSubmissionId(0L)
+        .processed(0)
+        .changed(0)
+        .failed(0)
+        .build();
+    return regradeJobRepository.save(job);
+  }
+
+  private void schedule(Long jobId) {
+    if (!scheduled.add(jobId)) {
+      return;
+    }
+    executor.submit(() -> {
+      try {
+        ApplicationAuditAware.setCurrentAuditor(SYSTEM_USER_ID);
+        runJob(jobId);
+      } catch (InterruptedException e) {
+        // The node is stopping, let another node resume the job right away
+        regradeJobRepository.release(jobId, nodeId);
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        log.error("Regrade job {} failed", jobId, e);
+        regradeJobRepository.finish(jobId, nodeId, RegradeJobStatus.FAILED, e.getMessage(),
+            LocalDateTime.now());
+      } finally {
+        scheduled.remove(jobId);
+        ApplicationAuditAware.clearCurrentAuditor();
+      }
+    });
+  }
+
+  private void runJob(Long jobId) throws InterruptedException {
+    while (!startupTaskTracker.isCompleted(STARTUP_PHASE_LANGUAGES, STARTUP_PHASE_EXERCISES)) {
+      Thread.sleep(throttleMs);
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    if (regradeJobRepository.claim(jobId, nodeId, now,
+        now.minusNanos(claimTimeoutMs * 1_000_000)) == 0) {
+      log.debug("Regrade job {} has ended or is run by another node", jobId);
+      return;
+    }
+    RegradeJob job = findJob(jobId);
+
+    List<Long> exerciseIds = Arrays.stream(job.getExerciseIds().split(","))
+        .map(Long::valueOf)
+        .toList();
+
+    while (true) {
+      List<RegradeCandidate> page = submissionRepository.findLatestSubmissionsForRegrade(
+          exerciseIds, job.getLastSubmissionId(), Limit.of(batchSize));
+      if (page.isEmpty()) {
+        break;
+      }
+
+      Map<String, String> blobs = codeBlobStore.loadAll(page.stream()
+          .map(RegradeCandidate::getCodeHash).filter(Objects::nonNull).distinct().toList());
+      Map<Long, Outcome> outcomes = new HashMap<>();
+      int failed = 0;
+      for (RegradeCandidate candidate : page) {
+        String code = candidate.getCodeHash() == null
+            ? candidate.getCode() : blobs.get(candidate.getCodeHash());
+        if (code == null) {
+          log.warn("Regrade job {}: the code of submission {} is missing", jobId,
+              candidate.getSubmissionId());
+          failed++;
+          continue;
+        }
+        if (!awaitSpareCapacity(jobId)) {
+          log.info("Regrade job {} was cancelled or taken over by another node", jobId);
+          return;
+        }
+        CodeExecutionResult result;
+        try {
+          result = codeExecutionService.evaluate(new CodeExecutionRequest(
+              Base64.getEncoder().encodeToString(code.getBytes(StandardCharsets.UTF_8)),
+              candidate.getLanguage(),
+              candidate.getExerciseId()), candidate.getGithubPath());
+        } catch (PlatformFaultException e) {
+          log.warn("Regrade job {}: submission {} could not be run: {}", jobId,
+              candidate.getSubmissionId(), e.getMessage());
+          failed++;
+          continue;
+        }
+        if (result.isKilled()
+            || result.getTestCaseResults() == null && !result.isSuccess()) {
+          // The run timed out, ran out of memory or failed itself, keep the stored grade
+          failed++;
+          continue;
+        }
+        outcomes.put(candidate.getSolutionId(), new Outcome(candidate.getSubmissionId(),
+            result.isSuccess(), candidate.getExercisePoints()));
+      }
+
+      int changed = applyOutcomes(outcomes);
+      if (regradeJobRepository.recordPage(jobId, nodeId, page.getLast().getSubmissionId(),
+          page.size(), changed, failed, LocalDateTime.now()) == 0) {
+        log.info("Regrade job {} was taken over by another node", jobId);
+        return;
+      }
+      job = findJob(jobId);
+      log.info("Regrade job {}: {} submissions processed, {} solutions changed", jobId,
+          job.getProcessed(), job.getChanged());
+
+      if (job.getStatus() == RegradeJobStatus.CANCELLED) {
+        log.info("Regrade job {} was cancelled", jobId);
+        return;
+      }
+    }
+
+    if (regradeJobRepository.finish(jobId, nodeId, RegradeJobStatus.COMPLETED, null,
+        LocalDateTime.now()) > 0) {
+      log.info("Regrade job {} completed", jobId);
+    }
+  }
+
+  private record Outcome(Long submissionId, boolean passed, Integer points) {
+
+  }
+
+  /**
+   * Updates the solutions of a page in one transaction. A solution is skipped if it got a newer
+   * submission than the regraded one, whose own result then stands.
+   *
+   * @return the number of solutions whose status or points changed
+   */
+  private int applyOutcomes(Map<Long, Outcome> outcomes) {
+    if (outcomes.isEmpty()) {
+      return 0;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    Integer changed = transactionTemplate.execute(_ -> {
+      int count = 0;
+      for (Map.Entry<Long, Outcome> entry : outcomes.entrySet()) {
+        Outcome outcome = entry.getValue();
+        long status = outcome.passed() ? COMPLETED_STATUS : FAILED_STATUS;
+        int points = outcome.passed() ? Objects.requireNonNullElse(outcome.points(), 0) : 0;
+        count += solutionRepository.applyRegrade(entry.getKey(), outcome.submissionId(), status,
+            points, now, SYSTEM_USER_ID);
+      }
+      return count;
+    });
+    return changed == null ? 0 : changed;
+  }
+
+  /**
+   * Waits until more cores are free than the ones kept for interactive submissions, renewing the
+   * claim of the job meanwhile.
+   *
+   * @return {@code false} if the job was cancelled or taken over by another node
+   */
+  private boolean awaitSpareCapacity(Long jobId) throws InterruptedException {
+    while (true) {
+      if (regradeJobRepository.heartbeat(jobId, nodeId, LocalDateTime.now()) == 0) {
+        return false;
+      }
+      if (cpuSlotAllocator.getTotalCores() <= 0
+          || cpuSlotAllocator.getFreeCores() > reservedCores) {
+        return true;
+      }
+      Thread.sleep(throttleMs);
+    }
+  }
+
+  private RegradeJob findJob(Long jobId) {
+    return regradeJobRepository.findById(jobId)
+        .orElseThrow(() -> new EntityNotFoundException("Regrade job not found with id: " + jobId));
+  }
+
+  private RegradeJobResponse toResponse(RegradeJob job) {
+    List<Long> exerciseIds = Arrays.stream(job.getExerciseIds().split(","))
+        .map(Long::valueOf)
+        .toList();
+    return RegradeJobResponse.builder()
+        .id(job.getId())
+        .status(job.getStatus().name())
+        .exerciseIds(exerciseIds)
+        .triggeredBy(job.getTriggeredBy())
+        .commitId(job.getCommitId())
+        .processed(job.getProcessed())
+        .changed(job.getChanged())
+        .failed(job.getFailed())
+        .startedAt(job.getStartedAt())
+        .finishedAt(job.getFinishedAt())
+        .error(job.getError())
+        .build();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
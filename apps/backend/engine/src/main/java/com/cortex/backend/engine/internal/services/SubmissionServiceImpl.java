@@ -1,99 +1,252 @@
 package com.cortex.backend.engine.internal.services;
 
-import com.cortex.backend.core.domain.Exercise;
-import com.cortex.backend.core.domain.Language;
-import com.cortex.backend.core.domain.Solution;
+import com.cortex.backend.core.common.exception.OperationNotPermittedException;
+import com.cortex.backend.core.common.exception.ResultNotAvailableException;
 import com.cortex.backend.core.domain.Submission;
-import com.cortex.backend.core.domain.User;
-import com.cortex.backend.engine.api.ExerciseRepository;
-import com.cortex.backend.engine.api.LanguageRepository;
-import com.cortex.backend.engine.api.SolutionRepository;
+import com.cortex.backend.core.domain.SubmissionOutput;
+import com.cortex.backend.engine.api.SubmissionOutputRepository;
 import com.cortex.backend.engine.api.SubmissionRepository;
 import com.cortex.backend.engine.api.SubmissionService;
+import com.cortex.backend.engine.api.SubmissionTestResultRepository;
 import com.cortex.backend.engine.api.dto.CodeExecutionRequest;
 import com.cortex.backend.engine.api.dto.CodeExecutionResult;
+import com.cortex.backend.engine.api.dto.SubmissionHistoryEntry;
+import com.cortex.backend.engine.api.dto.SubmissionHistoryItem;
+import com.cortex.backend.engine.api.dto.SubmissionHistoryResponse;
 import com.cortex.backend.engine.api.dto.SubmissionResponse;
+import com.cortex.backend.engine.api.dto.TestCaseResult;
+import com.cortex.backend.engine.internal.languages.LanguageProfileRegistry;
 import com.cortex.backend.engine.internal.mappers.SubmissionMapper;
-import com.cortex.backend.user.repository.UserRepository;
-import jakarta.persistence.EntityNotFoundException;
+import com.cortex.backend.engine.internal.results.ExecutionOutputCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Base64;
-import java.util.HashSet;
 
 @Service
 @RequiredArgsConstructor
 public class SubmissionServiceImpl implements SubmissionService {
 
+  // Later than any submission, so the first page starts from the newest one
+  private static final LocalDateTime HISTORY_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+
   private final SubmissionRepository submissionRepository;
-  private final SolutionRepository solutionRepository;
-  private final ExerciseRepository exerciseRepository;
-  private final LanguageRepository languageRepository;
-  private final UserRepository userRepository;
   private final SubmissionMapper submissionMapper;
+  private final LanguageProfileRegistry languageProfileRegistry;
+  private final SubmissionWriteBehind submissionWriteBehind;
+  private final SubmissionOutputRepository submissionOutputRepository;
+  private final SubmissionTestResultRepository submissionTestResultRepository;
+  private final ExecutionOutputCodec outputCodec;
+  private final CodeBlobStore codeBlobStore;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${engine.submissions.history.max-page-size:100}")
+  private int maxHistoryPageSize;
+
+  @Value("${engine.submissions.history.p99-target-ms:50}")
+  private long historyP99TargetMs;
 
+  /**
+   * Inserts the submission and, for a first attempt, the user's solution with
+   * {@link SubmissionWriteBehind}, before the caller queues its task. The caller is expected to
+   * have validated the exercise.
+   */
   @Override
-  @Transactional
-  public SubmissionResponse createSubmission(CodeExecutionRequest request, Long userId) {
-    User user = userRepository.findById(userId)
-        .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-    Exercise exercise = exerciseRepository.findById(request.exerciseId())
-        .orElseThrow(() -> new EntityNotFoundException("Exercise not found"));
-    Language language = languageRepository.findByName(request.language())
-        .orElseThrow(() -> new EntityNotFoundException("Language not found"));
-
-    Solution solution = solutionRepository.findByUserAndExercise(user, exercise)
-        .orElseGet(() -> {
-          Solution newSolution = Solution.builder()
-              .user(user)
-              .exercise(exercise)
-              .status(0L)  // Pending status
-              .pointsEarned(0)
-              .submissions(new HashSet<>())
-              .build();
-          return solutionRepository.save(newSolution);
-        });
-
-    Submission submission = Submission.builder()
-        .code(new String(Base64.getDecoder().decode(request.code())))
-        .language(language)
-        .solution(solution)
+  public SubmissionResponse createSubmission(CodeExecutionRequest request, Long userId,
+      String taskId) {
+    Long languageId = languageProfileRegistry.get(request.language()).id();
+    String code = new String(Base64.getDecoder().decode(request.code()));
+    long submissionId = submissionWriteBehind.reserveSubmissionId();
+    submissionWriteBehind.insertSubmission(submissionId, userId, request.exerciseId(),
+        languageId, code, UUID.fromString(taskId));
+
+    return SubmissionResponse.builder()
+        .id(submissionId)
+        .code(code)
+        .languageId(languageId)
         .build();
+  }
 
-    solution.getSubmissions().add(submission);
-    submissionRepository.save(submission);
+  /**
+   * Stores the result with the next batch of {@link SubmissionWriteBehind} and returns once it is
+   * committed.
+   */
+  @Override
+  public void updateSubmissionWithResult(Long submissionId, CodeExecutionResult result) {
+    submissionWriteBehind.writeResult(submissionId, result, true);
+  }
 
-    return submissionMapper.submissionToSubmissionResponse(submission);
+  /**
+   * Stores the result of a task that was not graded, so it can be read back once it left Redis;
+   * the solution is left as it is.
+   */
+  @Override
+  public void storeUngradedResult(Long submissionId, CodeExecutionResult result) {
+    submissionWriteBehind.writeResult(submissionId, result, false);
   }
+
   @Override
-  @Transactional
-  public void updateSubmissionWithResult(Long submissionId, CodeExecutionResult result) {
+  @Transactional(readOnly = true)
+  public SubmissionResponse getSubmission(Long submissionId) {
     Submission submission = submissionRepository.findById(submissionId)
         .orElseThrow(() -> new IllegalArgumentException("Submission not found"));
+    SubmissionResponse response = submissionMapper.submissionToSubmissionResponse(submission);
+    if (submission.getCodeHash() != null) {
+      response.setCode(codeBlobStore.load(submission.getCodeHash()));
+    }
+    return response;
+  }
 
-    submission.setStdin(result.getStdout());
-    submission.setExpectedOutput(result.getStderr());
+  /**
+   * Loads the stored output and test results of one of the user's submissions.
+   *
+   * @throws ResultNotAvailableException if the output is not stored yet or the submission belongs
+   *                                     to another user
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public CodeExecutionResult getSubmissionOutput(Long submissionId, Long userId) {
+    SubmissionOutput output = submissionOutputRepository
+        .findBySubmissionIdAndUserId(submissionId, userId)
+        .orElseThrow(() -> new ResultNotAvailableException("Submission output not available"));
+    return toResult(output);
+  }
 
-    Solution solution = submission.getSolution();
-    if (result.isSuccess()) {
-      solution.setStatus(1L);  // Completed status
-      solution.setPointsEarned(solution.getExercise().getPoints());
-    } else {
-      solution.setStatus(2L);  // Failed status
+  /**
+   * Loads the stored result of the submission run by a task.
+   *
+   * @return the result, empty if the task is unknown or its result is not stored yet
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Optional<CodeExecutionResult> findResultByTaskId(String taskId) {
+    UUID id;
+    try {
+      id = UUID.fromString(taskId);
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
     }
+    return submissionOutputRepository.findBySubmissionTaskId(id).map(this::toResult);
+  }
 
-    submissionRepository.save(submission);
-    solutionRepository.save(solution);
+  /**
+   * Loads the stored results of the submissions run by the given tasks.
+   *
+   * @return the results by task id; unknown tasks and results not stored yet are left out
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Map<String, CodeExecutionResult> findResultsByTaskIds(Collection<String> taskIds) {
+    List<UUID> ids = new ArrayList<>();
+    for (String taskId : taskIds) {
+      try {
+        ids.add(UUID.fromString(taskId));
+      } catch (IllegalArgumentException e) {
+        // Not a task id, so there is no result for it
+      }
+    }
+    if (ids.isEmpty()) {
+      return Map.of();
+    }
+    Map<String, CodeExecutionResult> results = new HashMap<>();
+    submissionOutputRepository.findBySubmissionTaskIdIn(ids).forEach(output ->
+        results.put(output.getSubmission().getTaskId().toString(), toResult(output)));
+    return results;
   }
 
+  /**
+   * Reads a page of a user's history of an exercise. Pages are cut by the creation time and id of
+   * the last submission returned, so reading a page costs the same however far back it is. Read
+   * times are recorded with their 99th percentile against
+   * {@code engine.submissions.history.p99-target-ms}.
+   *
+   * @param cursor the {@code next_cursor} of the previous page, {@code null} for the first page
+   * @throws OperationNotPermittedException if the cursor is not valid
+   */
   @Override
   @Transactional(readOnly = true)
-  public SubmissionResponse getSubmission(Long submissionId) {
-    Submission submission = submissionRepository.findById(submissionId)
-        .orElseThrow(() -> new IllegalArgumentException("Submission not found"));
-    return submissionMapper.submissionToSubmissionResponse(submission);
+  public SubmissionHistoryResponse getSubmissionHistory(Long userId, Long exerciseId,
+      String cursor, int size) {
+    int pageSize = Math.clamp(size, 1, maxHistoryPageSize);
+    LocalDateTime createdAt = HISTORY_START;
+    long id = Long.MAX_VALUE;
+    if (cursor != null && !cursor.isBlank()) {
+      try {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor),
+            StandardCharsets.UTF_8).split("\\|", 2);
+        createdAt = LocalDateTime.parse(parts[0]);
+        id = Long.parseLong(parts[1]);
+      } catch (RuntimeException e) {
+        throw new OperationNotPermittedException("Invalid history cursor");
+      }
+    }
+
+    Timer.Sample sample = Timer.start(meterRegistry);
+    List<SubmissionHistoryEntry> entries = submissionRepository.findHistory(userId, exerciseId,
+        createdAt, id, Limit.of(pageSize));
+    sample.stop(Timer.builder("engine.submissions.history")
+        .description("Time to read a page of submission history")
+        .publishPercentiles(0.99)
+        .serviceLevelObjectives(Duration.ofMillis(historyP99TargetMs))
+        .register(meterRegistry));
+
+    List<SubmissionHistoryItem> items = entries.stream()
+        .map(entry -> new SubmissionHistoryItem(
+            entry.getId(),
+            entry.getCreatedAt(),
+            entry.getSuccess() == null ? "PENDING" : entry.getSuccess() ? "PASSED" : "FAILED",
+            entry.getLanguage(),
+            entry.getCodeHash(),
+            entry.getExecutionTimeMs(),
+            entry.getMemoryUsedKb()))
+        .toList();
+    String nextCursor = null;
+    if (entries.size() == pageSize) {
+      SubmissionHistoryEntry last = entries.getLast();
+      nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+          (last.getCreatedAt() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+    }
+    return new SubmissionHistoryResponse(items, nextCursor);
+  }
+
+  private CodeExecutionResult toResult(SubmissionOutput output) {
+    Submission submission = output.getSubmission();
+    List<TestCaseResult> testCaseResults = submissionTestResultRepository
+        .findByIdSubmissionIdOrderByIdPositionAsc(output.getSubmissionId()).stream()
+        .map(testResult -> TestCaseResult.builder()
+            .passed(testResult.isPassed())
+            .input(testResult.getInput())
+            .expectedOutput(testResult.getExpectedOutput())
+            .actualOutput(testResult.getActualOutput())
+            .message(testResult.getMessage())
+            .durationMs(testResult.getDurationMs())
+            .build())
+        .toList();
+
+    return CodeExecutionResult.builder()
+        .success(output.isSuccess())
+        .stdout(outputCodec.decode(output.getStdout()))
+        .stderr(outputCodec.decode(output.getStderr()))
+        .executionTime(output.getExecutionTimeMs() == null ? 0 : output.getExecutionTimeMs())
+        .memoryUsed(output.getMemoryUsedKb() == null ? 0 : output.getMemoryUsedKb())
+        .language(submission.getLanguage().getName())
+        .exerciseId(submission.getSolution().getExercise().getId())
+        .testCaseResults(testCaseResults)
+        .build();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,503 @@
+package com.cortex.backend.engine.internal.services;
+
+import com.cortex.backend.core.common.exception.PlatformFaultException;
+import com.cortex.backend.engine.api.dto.CodeExecutionResult;
+import com.cortex.backend.engine.api.dto.TestCaseResult;
+import com.cortex.backend.engine.internal.results.ExecutionOutputCodec;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes submissions and their results to the database with JDBC batch statements instead of
+ * entity round trips.
+ *
+ * <p>Submission ids are handed out up front from blocks of the {@code submission_seq} sequence,
+ * the same way Hibernate's pooled optimizer claims them, so a reserved id never collides with one
+ * Hibernate assigns. New submissions and results are queued for a single writer, which drains up
+ * to {@code engine.submissions.batch-size} of them as soon as any is waiting and applies each drain
+ * in one transaction: submissions are inserted, with their code in {@link CodeBlobStore} and the
+ * user's solution if missing, and results are stored in {@code submission_output} and
+ * {@code submission_test_result}, added to the {@link ExerciseStatsService exercise statistics}
+ * and applied to the solutions. Submissions are only written once {@link CodeBlobMigration} has
+ * prepared the schema.
+ *
+ * <p>{@link #insertSubmission} and {@link #writeResult} wait until their batch is committed, so
+ * concurrent requests share one commit. A submission is committed before its task is queued, and
+ * the consumer only acknowledges a task once its result is stored, so a node that stops before
+ * flushing leaves the task to be redelivered. A batch that keeps failing is retried write by
+ * write, so one bad record does not take the others down with it.
+ */
+@Component
+@Slf4j
+@DependsOn({"codeBlobMigration", "submissionOutputPartitions"})
+public class SubmissionWriteBehind {
+
+  private static final String SUBMISSION_SEQUENCE = "submission_seq";
+  private static final String SOLUTION_SEQUENCE = "solution_seq";
+  private static final long PENDING_STATUS = 0L;
+  private static final long COMPLETED_STATUS = 1L;
+  private static final long FAILED_STATUS = 2L;
+  private static final int MAX_TEST_FIELD_CHARS = 4096;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedJdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final MeterRegistry meterRegistry;
+  private final ExecutionOutputCodec outputCodec;
+  private final CodeBlobStore codeBlobStore;
+  private final ExerciseStatsService exerciseStatsService;
+
+  private final BlockingQueue<PendingWrite> pending = new LinkedBlockingQueue<>();
+  private final IdBlock submissionIds = new IdBlock(SUBMISSION_SEQUENCE);
+  private final IdBlock solutionIds = new IdBlock(SOLUTION_SEQUENCE);
+  private volatile boolean running = true;
+  private Thread writer;
+
+  @Value("${engine.submissions.batch-size:200}")
+  private int batchSize;
+
+  @Value("${engine.submissions.flush-interval-ms:200}")
+  private long flushIntervalMs;
+
+  @Value("${engine.submissions.max-retries:5}")
+  private int maxRetries;
+
+  @Value("${engine.submissions.result-write-timeout-ms:30000}")
+  private long resultWriteTimeoutMs;
+
+  @Value("${engine.submissions.insert-timeout-ms:10000}")
+  private long insertTimeoutMs;
+
+  public SubmissionWriteBehind(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+      MeterRegistry meterRegistry, ExecutionOutputCodec outputCodec, CodeBlobStore codeBlobStore,
+      ExerciseStatsService exerciseStatsService) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    this.transactionTemplate = transactionTemplate;
+    this.meterRegistry = meterRegistry;
+    this.outputCodec = outputCodec;
+    this.codeBlobStore = codeBlobStore;
+    this.exerciseStatsService = exerciseStatsService;
+    Gauge.builder("engine.submissions.pending", pending, BlockingQueue::size)
+        .description("Submissions and results waiting to be flushed")
+        .register(meterRegistry);
+  }
+
+  /**
+   * A write waiting for the writer, completed once its batch is committed.
+   */
+  private sealed interface PendingWrite permits NewSubmission, SubmissionResult {
+
+    long id();
+
+    CompletableFuture<Void> written();
+  }
+
+  private record NewSubmission(long id, long userId, long exerciseId, long languageId,
+                               String code, UUID taskId, LocalDateTime createdAt,
+                               CompletableFuture<Void> written) implements PendingWrite {
+
+  }
+
+  private record SubmissionResult(long id, CodeExecutionResult result, boolean graded,
+                                  LocalDateTime completedAt, CompletableFuture<Void> written)
+      implements PendingWrite {
+
+  }
+
+  private record SolutionKey(long userId, long exerciseId) {
+
+  }
+
+  @PostConstruct
+  void start() {
+    writer = Thread.ofVirtual().name("submission-writer").start(this::run);
+  }
+
+  /**
+   * Reserves the id of a submission.
+   */
+  public long reserveSubmissionId() {
+    return submissionIds.next();
+  }
+
+  /**
+   * Inserts a submission with the next batch, creating the user's solution of the exercise if
+   * needed. Returns once the batch is committed; a submission whose caller stopped waiting is left
+   * out of it.
+   *
+   * @throws PlatformFaultException if the submission could not be stored in time
+   */
+  public void insertSubmission(long submissionId, long userId, long exerciseId, long languageId,
+      String code, UUID taskId) {
+    NewSubmission submission = new NewSubmission(submissionId, userId, exerciseId, languageId,
+        code, taskId, LocalDateTime.now(), new CompletableFuture<>());
+    pending.add(submission);
+    try {
+      submission.written().get(insertTimeoutMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      submission.written().cancel(false);
+      Thread.currentThread().interrupt();
+      throw new PlatformFaultException("Interrupted storing submission " + submissionId, e);
+    } catch (ExecutionException | TimeoutException e) {
+      submission.written().cancel(false);
+      throw new PlatformFaultException("Could not store submission " + submissionId, e);
+    }
+  }
+
+  /**
+   * Stores the result of a submission with the next batch: its output and test results and, for a
+   * graded result, the matching update of its solution and exercise statistics. A result that is
+   * not graded, such as the failure of a task that was never run, is only kept to be read back.
+   * Returns once the batch is committed.
+   *
+   * @throws PlatformFaultException if the result could not be stored in time
+   */
+  public void writeResult(long submissionId, CodeExecutionResult result, boolean graded) {
+    SubmissionResult write = new SubmissionResult(submissionId, result, graded,
+        LocalDateTime.now(), new CompletableFuture<>());
+    pending.add(write);
+    try {
+      write.written().get(resultWriteTimeoutMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PlatformFaultException("Interrupted storing the result of submission "
+          + submissionId, e);
+    } catch (ExecutionException | TimeoutException e) {
+      throw new PlatformFaultException("Could not store the result of submission "
+          + submissionId, e);
+    }
+  }
+
+  private void run() {
+    while (running || !pending.isEmpty()) {
+      List<PendingWrite> batch = new ArrayList<>();
+      try {
+        PendingWrite first = pending.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        pending.drainTo(batch, batchSize - 1);
+        // A submission whose request gave up would be left without a queued task
+        batch.removeIf(write -> write instanceof NewSubmission && write.written().isDone());
+        if (!batch.isEmpty()) {
+          flushWithRetries(batch);
+        }
+      } catch (InterruptedException e) {
+        // Interrupted before the batch was written, put it back for the final drain
+        pending.addAll(batch);
+        if (running) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Flushes a batch, retrying it as a whole and then write by write.
+   */
+  private void flushWithRetries(List<PendingWrite> batch) throws InterruptedException {
+    for (int attempt = 1; attempt <= maxRetries; attempt++) {
+      try {
+        long start = System.nanoTime();
+        flush(batch);
+        meterRegistry.timer("engine.submissions.flush").record(System.nanoTime() - start,
+            TimeUnit.NANOSECONDS);
+        batch.forEach(write -> write.written().complete(null));
+        return;
+      } catch (DataAccessException e) {
+        log.warn("Flushing {} submission writes failed (attempt {}): {}", batch.size(), attempt,
+            e.getMessage());
+        if (attempt < maxRetries) {
+          Thread.sleep(flushIntervalMs * (1L << attempt));
+        }
+      }
+    }
+    for (PendingWrite write : batch) {
+      try {
+        flush(List.of(write));
+        write.written().complete(null);
+      } catch (DataAccessException e) {
+        if (write instanceof SubmissionResult) {
+          log.error("Could not store the result of submission {}: {}", write.id(),
+              e.getMessage());
+          meterRegistry.counter("engine.submissions.dropped").increment();
+        } else {
+          log.error("Could not store submission {}: {}", write.id(), e.getMessage());
+        }
+        write.written().completeExceptionally(e);
+      }
+    }
+  }
+
+  private void flush(List<PendingWrite> batch) {
+    List<NewSubmission> created = new ArrayList<>();
+    List<SubmissionResult> results = new ArrayList<>();
+    for (PendingWrite write : batch) {
+      switch (write) {
+        case NewSubmission submission -> created.add(submission);
+        case SubmissionResult result -> results.add(result);
+      }
+    }
+    List<SubmissionResult> unmatched = transactionTemplate.execute(_ -> {
+      if (!created.isEmpty()) {
+        insertSubmissions(created);
+      }
+      return results.isEmpty() ? List.of() : applyResults(results);
+    });
+    if (unmatched == null) {
+      return;
+    }
+    for (SubmissionResult result : unmatched) {
+      // Submissions are committed before their task is queued, so this one no longer exists
+      log.error("Dropping result of submission {}, the submission does not exist", result.id());
+      meterRegistry.counter("engine.submissions.dropped").increment();
+    }
+  }
+
+
+  private void insertSubmissions(List<NewSubmission> created) {
+    Set<SolutionKey> keys = new LinkedHashSet<>();
+    created.forEach(submission -> keys.add(
+        new SolutionKey(submission.userId(), submission.exerciseId())));
+
+    Map<SolutionKey, Long> solutions = new HashMap<>();
+    namedJdbcTemplate.query(
+        "SELECT id, user_id, exercise_id FROM solution "
+            + "WHERE user_id IN (:users) AND exercise_id IN (:exercises)",
+        Map.of("users", keys.stream().map(SolutionKey::userId).distinct().toList(),
+            "exercises", keys.stream().map(SolutionKey::exerciseId).distinct().toList()),
+        rs -> {
+          SolutionKey key = new SolutionKey(rs.getLong("user_id"), rs.getLong("exercise_id"));
+          if (keys.contains(key)) {
+            solutions.putIfAbsent(key, rs.getLong("id"));
+          }
+        });
+
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    List<Object[]> newSolutions = new ArrayList<>();
+    for (SolutionKey key : keys) {
+      if (!solutions.containsKey(key)) {
+        long id = solutionIds.next();
+        solutions.put(key, id);
+        newSolutions.add(new Object[]{id, key.userId(), key.exerciseId(), PENDING_STATUS, 0, now,
+            key.userId()});
+      }
+    }
+    if (!newSolutions.isEmpty()) {
+      jdbcTemplate.batchUpdate(
+          "INSERT INTO solution (id, user_id, exercise_id, status, points_earned, created_at, "
+              + "created_by) VALUES (?, ?, ?, ?, ?, ?, ?)", newSolutions);
+    }
+
+    List<CodeBlobStore.EncodedBlob> blobs = created.stream()
+        .map(submission -> codeBlobStore.encode(submission.code())).toList();
+    codeBlobStore.insert(blobs);
+
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < created.size(); i++) {
+      NewSubmission submission = created.get(i);
+      rows.add(new Object[]{
+          submission.id(),
+          blobs.get(i).hash(),
+          submission.taskId(),
+          submission.languageId(),
+          solutions.get(new SolutionKey(submission.userId(), submission.exerciseId())),
+          Timestamp.valueOf(submission.createdAt()),
+          submission.userId()});
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO submission (id, code_hash, task_id, language_id, solution_id, created_at, "
+            + "created_by) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+  }
+
+  /**
+   * Applies results to their submissions and solutions.
+   *
+   * @return the results whose submission does not exist
+   */
+  private List<SubmissionResult> applyResults(List<SubmissionResult> results) {
+    int[] updated = jdbcTemplate.batchUpdate(
+        "UPDATE submission SET updated_at = ?, updated_by = created_by WHERE id = ?",
+        results.stream().map(result -> new Object[]{
+            Timestamp.valueOf(result.completedAt()),
+            result.id()}).toList());
+    List<SubmissionResult> unmatched = new ArrayList<>();
+    List<SubmissionResult> matched = new ArrayList<>();
+    for (int i = 0; i < results.size(); i++) {
+      (updated[i] == 0 ? unmatched : matched).add(results.get(i));
+    }
+
+    if (matched.isEmpty()) {
+      return unmatched;
+    }
+    List<SubmissionResult> stored = insertOutputs(matched);
+    matched = matched.stream().filter(SubmissionResult::graded).toList();
+    exerciseStatsService.record(stored.stream().filter(SubmissionResult::graded)
+            .map(result -> new ExerciseStatsService.Run(result.id(), result.result().isSuccess(),
+                result.result().getExecutionTime(), result.result().getMemoryUsed()))
+            .toList(),
+        LocalDateTime.now());
+
+    List<Object[]> passed = matched.stream().filter(result -> result.result().isSuccess())
+        .map(result -> new Object[]{COMPLETED_STATUS, Timestamp.valueOf(result.completedAt()),
+            result.id()})
+        .toList();
+    if (!passed.isEmpty()) {
+      jdbcTemplate.batchUpdate(
+          "UPDATE solution s SET status = ?, points_earned = COALESCE(e.points, 0), "
+              + "updated_at = ?, updated_by = s.user_id FROM exercise e "
+              + "WHERE e.id = s.exercise_id "
+              + "AND s.id = (SELECT solution_id FROM submission WHERE id = ?)", passed);
+    }
+
+    List<Object[]> failed = matched.stream().filter(result -> !result.result().isSuccess())
+        .map(result -> new Object[]{FAILED_STATUS, Timestamp.valueOf(result.completedAt()),
+            result.id()})
+        .toList();
+    if (!failed.isEmpty()) {
+      jdbcTemplate.batchUpdate(
+          "UPDATE solution SET status = ?, updated_at = ?, updated_by = user_id "
+              + "WHERE id = (SELECT solution_id FROM submission WHERE id = ?)", failed);
+    }
+    return unmatched;
+  }
+
+  /**
+   * Stores the output and test results of runs.
+   *
+   * @return the results that were stored, leaving out the ones already stored for their submission
+   */
+  private List<SubmissionResult> insertOutputs(List<SubmissionResult> results) {
+    List<Object[]> outputs = new ArrayList<>();
+    List<Object[]> tests = new ArrayList<>();
+    for (SubmissionResult pendingResult : results) {
+      CodeExecutionResult result = pendingResult.result();
+      ExecutionOutputCodec.EncodedOutput stdout = outputCodec.encode(result.getStdout());
+      ExecutionOutputCodec.EncodedOutput stderr = outputCodec.encode(result.getStderr());
+      outputs.add(new Object[]{pendingResult.id(), result.isSuccess(), result.getExecutionTime(),
+          result.getMemoryUsed(), stdout.data(), stderr.data(), stdout.size(), stderr.size(),
+          stdout.truncated() || stderr.truncated(),
+          Timestamp.valueOf(pendingResult.completedAt()), pendingResult.id()});
+
+      List<TestCaseResult> testCases = result.getTestCaseResults();
+      for (int position = 0; testCases != null && position < testCases.size(); position++) {
+        TestCaseResult testCase = testCases.get(position);
+        tests.add(new Object[]{pendingResult.id(), position, testCase.isPassed(),
+            cap(testCase.getInput()), cap(testCase.getExpectedOutput()),
+            cap(testCase.getActualOutput()), cap(testCase.getMessage()),
+            testCase.getDurationMs()});
+      }
+    }
+    // A result can reach the writer twice when the task was retried on another node. The
+    // partitioned table's key includes created_at, so duplicates are checked by submission, under
+    // a lock per submission taken in id order so flushes on other nodes wait for each other
+    jdbcTemplate.query("SELECT pg_advisory_xact_lock(id) FROM "
+            + "(SELECT DISTINCT unnest(CAST(? AS bigint[])) AS id ORDER BY id) ids", rs -> null,
+        results.stream().map(result -> String.valueOf(result.id()))
+            .collect(Collectors.joining(",", "{", "}")));
+    int[] inserted = jdbcTemplate.batchUpdate(
+        "INSERT INTO submission_output (submission_id, success, execution_time_ms, "
+            + "memory_used_kb, stdout, stderr, stdout_size, stderr_size, truncated, created_at) "
+            + "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ? WHERE NOT EXISTS "
+            + "(SELECT 1 FROM submission_output WHERE submission_id = ?)",
+        outputs);
+    if (!tests.isEmpty()) {
+      jdbcTemplate.batchUpdate(
+          "INSERT INTO submission_test_result (submission_id, position, passed, input, "
+              + "expected_output, actual_output, message, duration_ms) "
+              + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+              + "ON CONFLICT (submission_id, position) DO NOTHING", tests);
+    }
+    List<SubmissionResult> stored = new ArrayList<>();
+    for (int i = 0; i < results.size(); i++) {
+      if (inserted[i] > 0) {
+        stored.add(results.get(i));
+      }
+    }
+    return stored;
+  }
+
+  private static String cap(String value) {
+    return value == null || value.length() <= MAX_TEST_FIELD_CHARS
+        ? value : value.substring(0, MAX_TEST_FIELD_CHARS);
+  }
+
+  /**
+   * Hands out ids from blocks claimed with {@code nextval}. Like Hibernate's pooled optimizer, a
+   * value {@code v} returned by the sequence claims the ids {@code v - increment + 1} to
+   * {@code v}.
+   */
+  private final class IdBlock {
+
+    private final String sequence;
+    private long next = 1;
+    private long last = 0;
+    private long increment = -1;
+
+    private IdBlock(String sequence) {
+      this.sequence = sequence;
+    }
+
+    synchronized long next() {
+      if (next > last) {
+        claimBlock();
+      }
+      return next++;
+    }
+
+    private void claimBlock() {
+      if (increment < 0) {
+        Long configured = jdbcTemplate.queryForObject(
+            "SELECT increment_by FROM pg_sequences "
+                + "WHERE schemaname = current_schema() AND sequencename = ?",
+            Long.class, sequence);
+        increment = configured == null ? 1 : configured;
+      }
+      long value;
+      do {
+        // The sequence's start value is below a full block and is left to Hibernate
+        value = jdbcTemplate.queryForObject("SELECT nextval('" + sequence + "')", Long.class);
+      } while (value < increment);
+      next = value - increment + 1;
+      last = value;
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    running = false;
+    if (writer != null) {
+      writer.interrupt();
+      writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+  }
+}
@@ -7,11 +7,19 @@ public final class Constants {
   }
 
   public static final String CODE_EXECUTION_QUEUE = "code_execution";
+  public static final String CODE_EXECUTION_LISTENER_ID = "codeExecution";
+  public static final String CODE_EXECUTION_RETRY_EXCHANGE = "code_execution.retry";
+  public static final String CODE_EXECUTION_RETRY_QUEUE_PREFIX = "code_execution.retry.";
+  public static final String CODE_EXECUTION_DLQ = "code_execution.dlq";
+  public static final String ATTEMPTS_HEADER = "x-attempts";
   public static final String RESULT_KEY_PREFIX = "result:";
-  public static final long RESULT_EXPIRATION_HOURS = 1;
+  public static final String RESULT_PENDING_KEY_PREFIX = "result-pending:";
   public static final String VOLUME_PATH = "/code";
   public static final String EXERCISE_PATH = "/exercise";
   public static final String TMP_PATH = "/tmp";
   public static final String BIN_SH = "/bin/sh";
+  public static final String IN_PROCESS_QUEUE_PROFILE = "in-process-queue";
+  public static final String STARTUP_PHASE_LANGUAGES = "languages";
+  public static final String STARTUP_PHASE_EXERCISES = "exercises";
 
 }
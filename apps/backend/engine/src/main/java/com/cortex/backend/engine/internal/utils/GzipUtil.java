@@ -0,0 +1,65 @@
+package com.cortex.backend.engine.internal.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Utility class for the gzip compression of stored data: submitted code, run output and archives.
+ */
+public class GzipUtil {
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private GzipUtil() {
+    throw new UnsupportedOperationException("This class cannot be instantiated");
+  }
+
+  /**
+   * Compresses bytes.
+   *
+   * @param bytes the bytes to compress
+   * @return the gzip-compressed bytes
+   */
+  public static byte[] gzip(byte[] bytes) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+    try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+      out.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not compress data", e);
+    }
+    return buffer.toByteArray();
+  }
+
+  /**
+   * Decompresses bytes written by {@link #gzip}.
+   *
+   * @param bytes the gzip-compressed bytes
+   * @return the original bytes
+   * @throws UncheckedIOException if the bytes are not valid gzip data
+   */
+  public static byte[] gunzip(byte[] bytes) {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not decompress stored data", e);
+    }
+  }
+
+  /**
+   * Opens a file for writing gzip-compressed data, replacing it if it exists.
+   *
+   * @param file the file
+   * @return a stream compressing what is written to it into the file
+   */
+  public static OutputStream newOutputStream(Path file) throws IOException {
+    return new GZIPOutputStream(Files.newOutputStream(file));
+  }
+}
@@ -0,0 +1,159 @@
+package com.cortex.backend.engine.internal.docker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TestShardPlannerTest {
+
+  @TempDir
+  Path exercise;
+
+  private final ExecutionLimitsResolver executionLimitsResolver =
+      mock(ExecutionLimitsResolver.class);
+  private final TestShardPlanner planner = new TestShardPlanner(executionLimitsResolver);
+
+  @BeforeEach
+  void setUp() {
+    when(executionLimitsResolver.getShardCount(any())).thenReturn(2);
+  }
+
+  @Test
+  void selectsPythonTestsByExactFullName() throws Exception {
+    write("test_math.py", """
+        import unittest
+
+
+        class TestAdd(unittest.TestCase):
+            def test_add(self):
+                pass
+
+            def test_add_negative(self):
+                pass
+
+            def test_sub(self):
+                pass
+
+
+        def test_helper():
+            pass
+        """);
+
+    List<TestShard> shards = planner.plan("python", exercise);
+
+    assertThat(shards).extracting(TestShard::tests).containsExactly(
+        List.of("TestAdd.test_add", "TestAdd.test_sub"),
+        List.of("TestAdd.test_add_negative"));
+    assertThat(shards).extracting(TestShard::filter).containsExactly(
+        " -k '[t*]est_math.TestAdd.test_add' -k '[t*]est_math.TestAdd.test_sub'",
+        " -k '[t*]est_math.TestAdd.test_add_negative'");
+  }
+
+  @Test
+  void anchorsGoTestNames() throws Exception {
+    write("add_test.go", """
+        package add
+
+        import "testing"
+
+        func TestAdd(t *testing.T) {}
+
+        func TestAddNegative(t *testing.T) {}
+
+        func TestSub(t *testing.T) {}
+        """);
+
+    List<TestShard> shards = planner.plan("go", exercise);
+
+    assertThat(shards).extracting(TestShard::filter).containsExactly(
+        " -run '^(TestAdd|TestSub)$'",
+        " -run '^(TestAddNegative)$'");
+  }
+
+  @Test
+  void selectsRustTestsByExactPath() throws Exception {
+    write("src/lib.rs", """
+        pub fn add(a: i32, b: i32) -> i32 {
+            a + b
+        }
+
+        #[cfg(test)]
+        mod tests {
+            use super::*;
+
+            #[test]
+            fn add() {
+                assert_eq!(add(1, 2), 3);
+            }
+
+            mod inner {
+                #[test]
+                #[should_panic]
+                fn add_negative() {
+                    panic!();
+                }
+            }
+        }
+        """);
+    write("tests/add.rs", """
+        #[test]
+        fn add_large() {}
+        """);
+
+    List<TestShard> shards = planner.plan("rust", exercise);
+
+    assertThat(shards).extracting(TestShard::filter).containsExactly(
+        " -- --exact tests::add add_large",
+        " -- --exact tests::inner::add_negative");
+  }
+
+  @Test
+  void selectsJavaTestsByMethod() throws Exception {
+    write("src/test/java/AddTest.java", """
+        class AddTest {
+          @Test
+          void add() {}
+
+          @Test
+          @DisplayName("negative")
+          public void addNegative() {}
+
+          @Test
+          void addLarge() {}
+        }
+        """);
+
+    List<TestShard> shards = planner.plan("java", exercise);
+
+    assertThat(shards).extracting(TestShard::filter).containsExactly(
+        " -Dtest='AddTest#add+addLarge' -Dsurefire.failIfNoSpecifiedTests=false",
+        " -Dtest='AddTest#addNegative' -Dsurefire.failIfNoSpecifiedTests=false");
+  }
+
+  @Test
+  void runsUnshardedWithASingleTest() throws Exception {
+    write("add_test.go", """
+        package add
+
+        import "testing"
+
+        func TestAdd(t *testing.T) {}
+        """);
+
+    assertThat(planner.plan("go", exercise)).isEmpty();
+  }
+
+  private void write(String relative, String content) throws Exception {
+    Path file = exercise.resolve(relative);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, content);
+  }
+}
@@ -0,0 +1,86 @@
+package com.cortex.backend.engine.internal.results;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.cortex.backend.engine.api.dto.CodeExecutionResult;
+import com.cortex.backend.engine.api.dto.TestCaseResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CodeExecutionResultRedisSerializerTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void readsLegacyPlainJson() throws Exception {
+    byte[] legacy = objectMapper.writeValueAsBytes(result("ok"));
+
+    CodeExecutionResult read = serializer(true, 1024).deserialize(legacy);
+
+    assertResult(read, "ok");
+  }
+
+  @Test
+  void writesPlainJsonWhenBinaryIsOff() throws Exception {
+    byte[] entry = serializer(false, 1024).serialize(result("ok"));
+
+    assertThat(objectMapper.readValue(entry, CodeExecutionResult.class).getStdout())
+        .isEqualTo("ok");
+    assertResult(serializer(true, 1024).deserialize(entry), "ok");
+  }
+
+  @Test
+  void roundTripsUncompressedEnvelope() {
+    CodeExecutionResultRedisSerializer serializer = serializer(true, 1024);
+
+    byte[] entry = serializer.serialize(result("ok"));
+
+    assertThat(entry[0]).isEqualTo((byte) 0xCE);
+    assertThat(entry[1]).isEqualTo((byte) 1);
+    assertThat(entry[2]).isEqualTo((byte) 0);
+    assertResult(serializer.deserialize(entry), "ok");
+  }
+
+  @Test
+  void roundTripsDeflatedEnvelope() throws Exception {
+    CodeExecutionResultRedisSerializer serializer = serializer(true, 1024);
+    String stdout = "test passed\n".repeat(500);
+
+    byte[] entry = serializer.serialize(result(stdout));
+
+    assertThat(entry[0]).isEqualTo((byte) 0xCE);
+    assertThat(entry[2]).isEqualTo((byte) 1);
+    assertThat(entry.length).isLessThan(objectMapper.writeValueAsBytes(result(stdout)).length);
+    assertResult(serializer.deserialize(entry), stdout);
+  }
+
+  private CodeExecutionResultRedisSerializer serializer(boolean binary, int threshold) {
+    return new CodeExecutionResultRedisSerializer(objectMapper, binary, threshold,
+        new SimpleMeterRegistry());
+  }
+
+  private static CodeExecutionResult result(String stdout) {
+    return CodeExecutionResult.builder()
+        .success(true)
+        .stdout(stdout)
+        .stderr("")
+        .executionTime(42)
+        .memoryUsed(2048)
+        .language("python")
+        .exerciseId(7L)
+        .testCaseResults(List.of(TestCaseResult.builder().passed(true).build()))
+        .build();
+  }
+
+  private static void assertResult(CodeExecutionResult read, String stdout) {
+    assertThat(read.isSuccess()).isTrue();
+    assertThat(read.getStdout()).isEqualTo(stdout);
+    assertThat(read.getExecutionTime()).isEqualTo(42);
+    assertThat(read.getMemoryUsed()).isEqualTo(2048);
+    assertThat(read.getExerciseId()).isEqualTo(7L);
+    assertThat(read.getTestCaseResults()).hasSize(1);
+    assertThat(read.getTestCaseResults().getFirst().isPassed()).isTrue();
+  }
+}
@@ -0,0 +1,58 @@
+package com.cortex.backend.engine.internal.results;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class ExecutionOutputCodecTest {
+
+  // 1 KB, so each kept part of a truncated output is 512 bytes
+  private final ExecutionOutputCodec codec = new ExecutionOutputCodec(1);
+
+  @Test
+  void keepsShortOutputWhole() {
+    ExecutionOutputCodec.EncodedOutput encoded = codec.encode("hello\nworld\n");
+
+    assertThat(encoded.truncated()).isFalse();
+    assertThat(encoded.size()).isEqualTo(12);
+    assertThat(codec.decode(encoded.data())).isEqualTo("hello\nworld\n");
+  }
+
+  @Test
+  void storesNoDataForEmptyOutput() {
+    assertThat(codec.encode(null).data()).isNull();
+    assertThat(codec.encode("").data()).isNull();
+    assertThat(codec.decode(null)).isEmpty();
+  }
+
+  @Test
+  void keepsHeadAndTailOfLongOutput() {
+    String output = "h".repeat(600) + "m".repeat(1000) + "t".repeat(600);
+
+    ExecutionOutputCodec.EncodedOutput encoded = codec.encode(output);
+    String decoded = codec.decode(encoded.data());
+
+    assertThat(encoded.truncated()).isTrue();
+    assertThat(encoded.size()).isEqualTo(2200);
+    assertThat(decoded).startsWith("h".repeat(512) + "\n... [1176 bytes truncated] ...\n")
+        .endsWith("\n" + "t".repeat(512))
+        .doesNotContain("m");
+  }
+
+  @Test
+  void cutsOnCharacterBoundaries() {
+    // Three bytes per character, so 512 bytes from either end falls inside a character
+    String output = "€".repeat(1000);
+
+    ExecutionOutputCodec.EncodedOutput encoded = codec.encode(output);
+    String decoded = codec.decode(encoded.data());
+
+    assertThat(encoded.truncated()).isTrue();
+    assertThat(encoded.size()).isEqualTo(3000);
+    assertThat(decoded).doesNotContain("�")
+        .startsWith("€".repeat(170) + "\n... [")
+        .endsWith("] ...\n" + "€".repeat(170));
+    assertThat(decoded.getBytes(StandardCharsets.UTF_8).length).isLessThan(1024 + 64);
+  }
+}
@@ -0,0 +1,60 @@
+package com.cortex.backend.engine.internal.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+class ExerciseStatsServiceTest {
+
+  @Test
+  void putsSmallValuesInFirstBucket() {
+    assertThat(ExerciseStatsService.bucketOf(0)).isZero();
+    assertThat(ExerciseStatsService.bucketOf(1)).isZero();
+    assertThat(ExerciseStatsService.bucketOf(2)).isPositive();
+  }
+
+  @Test
+  void keepsBucketsInValueOrder() {
+    int previous = 0;
+    for (long value = 1; value <= 1_000_000; value *= 3) {
+      int bucket = ExerciseStatsService.bucketOf(value);
+      assertThat(bucket).isGreaterThanOrEqualTo(previous);
+      previous = bucket;
+    }
+  }
+
+  @Test
+  void estimatesEveryValueWithinFivePercent() {
+    for (long value = 1; value <= 100_000; value += value / 10 + 1) {
+      Map<Integer, Long> histogram = Map.of(ExerciseStatsService.bucketOf(value), 1L);
+
+      // Estimates are whole units, so small values are also off by the rounding
+      assertThat((double) ExerciseStatsService.percentile(histogram, 0.5))
+          .as("estimate of %d", value)
+          .isCloseTo(value, within(value * 0.05 + 0.5));
+    }
+  }
+
+  @Test
+  void findsPercentilesByRank() {
+    Map<Integer, Long> histogram = new TreeMap<>();
+    histogram.merge(ExerciseStatsService.bucketOf(10), 90L, Long::sum);
+    histogram.merge(ExerciseStatsService.bucketOf(1000), 10L, Long::sum);
+
+    assertThat(ExerciseStatsService.percentile(histogram, 0.50)).isCloseTo(10L,
+        withinPercentage(5));
+    assertThat(ExerciseStatsService.percentile(histogram, 0.90)).isCloseTo(10L,
+        withinPercentage(5));
+    assertThat(ExerciseStatsService.percentile(histogram, 0.99)).isCloseTo(1000L,
+        withinPercentage(5));
+  }
+
+  @Test
+  void hasNoPercentileWithoutSamples() {
+    assertThat(ExerciseStatsService.percentile(Map.of(), 0.5)).isNull();
+  }
+}
@@ -0,0 +1,177 @@
+package com.cortex.backend.engine.internal.services;
+
+import static com.cortex.backend.engine.internal.utils.Constants.STARTUP_PHASE_EXERCISES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.cortex.backend.core.common.SlugUtils;
+import com.cortex.backend.core.common.exception.InvalidWebhookPayloadException;
+import com.cortex.backend.core.common.exception.InvalidWebhookSignatureException;
+import com.cortex.backend.core.common.startup.StartupTaskTracker;
+import com.cortex.backend.engine.api.ExerciseRepository;
+import com.cortex.backend.engine.api.ExerciseService;
+import com.cortex.backend.engine.internal.assets.ExerciseAssetIndex;
+import com.cortex.backend.engine.internal.assets.ExerciseBundleStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.Optional;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class GithubWebhookSyncTest {
+
+  private static final String SECRET = "test-secret";
+  private static final String BRANCH = "main";
+
+  @TempDir
+  Path tempDir;
+
+  private final ExerciseService exerciseService = mock(ExerciseService.class);
+  private final ExerciseRepository exerciseRepository = mock(ExerciseRepository.class);
+  private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+
+  private Git author;
+  private GithubSyncService syncService;
+  private GithubWebhookService webhookService;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    Path origin = tempDir.resolve("origin.git");
+    Git.init().setBare(true).setInitialBranch(BRANCH).setDirectory(origin.toFile()).call()
+        .close();
+    author = Git.cloneRepository()
+        .setURI(origin.toUri().toString())
+        .setDirectory(tempDir.resolve("author").toFile())
+        .call();
+    author.checkout().setOrphan(true).setName(BRANCH).call();
+    writeExercise("hello", "Say hello");
+    writeExercise("bye", "Say bye");
+    commitAndPush("Add exercises");
+
+    when(exerciseService.areLessonsAvailable()).thenReturn(true);
+    when(exerciseRepository.findBySlug(anyString())).thenReturn(Optional.empty());
+
+    StartupTaskTracker startupTaskTracker = new StartupTaskTracker();
+    startupTaskTracker.run(STARTUP_PHASE_EXERCISES, () -> {
+    });
+
+    taskScheduler.initialize();
+    syncService = new GithubSyncService(exerciseService, exerciseRepository, new SlugUtils(),
+        startupTaskTracker, taskScheduler, mock(ExerciseAssetIndex.class),
+        mock(ExerciseBundleStore.class), mock(ApplicationEventPublisher.class));
+    ReflectionTestUtils.setField(syncService, "repoUrl", origin.toUri().toString());
+    ReflectionTestUtils.setField(syncService, "localPathString",
+        tempDir.resolve("local").toString());
+    ReflectionTestUtils.setField(syncService, "branch", BRANCH);
+    ReflectionTestUtils.setField(syncService, "webhookDebounceMs", 50L);
+
+    webhookService = new GithubWebhookService(syncService, new ObjectMapper());
+    ReflectionTestUtils.setField(webhookService, "webhookSecret", SECRET);
+    ReflectionTestUtils.setField(webhookService, "branch", BRANCH);
+  }
+
+  @AfterEach
+  void tearDown() {
+    author.close();
+    taskScheduler.shutdown();
+  }
+
+  @Test
+  void pushWebhookSyncsOnlyChangedExercises() throws Exception {
+    syncService.syncExercises();
+    verify(exerciseService).updateOrCreateExercise(eq("hello"), anyString(), anyString(),
+        anyString(), anyString(), eq("go"), any());
+    verify(exerciseService).updateOrCreateExercise(eq("bye"), anyString(), anyString(),
+        anyString(), anyString(), eq("go"), any());
+    reset(exerciseService);
+    when(exerciseService.areLessonsAvailable()).thenReturn(true);
+
+    writeExercise("hello", "Say hello, world");
+    RevCommit pushed = commitAndPush("Update hello");
+    byte[] payload = pushPayload(pushed.getName());
+
+    boolean syncRequested = webhookService.handleDelivery("push", sign(payload), payload);
+
+    assertThat(syncRequested).isTrue();
+    verify(exerciseService, timeout(5000)).updateOrCreateExercise(eq("hello"), anyString(),
+        eq("Say hello, world"), anyString(), anyString(), eq("go"), any());
+    verify(exerciseService, never()).updateOrCreateExercise(eq("bye"), anyString(), anyString(),
+        anyString(), anyString(), anyString(), any());
+    assertThat(syncService.getCurrentCommit()).isEqualTo(pushed.getName());
+  }
+
+  @Test
+  void rejectsDeliveriesWithInvalidSignature() {
+    byte[] payload = pushPayload("0123456789abcdef0123456789abcdef01234567");
+
+    assertThatThrownBy(() -> webhookService.handleDelivery("push", "sha256=deadbeef", payload))
+        .isInstanceOf(InvalidWebhookSignatureException.class);
+    assertThatThrownBy(() -> webhookService.handleDelivery("push", null, payload))
+        .isInstanceOf(InvalidWebhookSignatureException.class);
+  }
+
+  @Test
+  void rejectsMalformedPushEvents() throws Exception {
+    byte[] payload = "{\"ref\":".getBytes(StandardCharsets.UTF_8);
+
+    assertThatThrownBy(() -> webhookService.handleDelivery("push", sign(payload), payload))
+        .isInstanceOf(InvalidWebhookPayloadException.class);
+  }
+
+  @Test
+  void ignoresPushesToOtherBranches() throws Exception {
+    byte[] payload = ("{\"ref\":\"refs/heads/feature\",\"after\":"
+        + "\"0123456789abcdef0123456789abcdef01234567\"}").getBytes(StandardCharsets.UTF_8);
+
+    assertThat(webhookService.handleDelivery("push", sign(payload), payload)).isFalse();
+  }
+
+  private void writeExercise(String name, String instructions) throws Exception {
+    Path exerciseDir = author.getRepository().getWorkTree().toPath()
+        .resolve("exercises/go/practice/" + name);
+    Files.createDirectories(exerciseDir.resolve(".docs"));
+    Files.writeString(exerciseDir.resolve(".docs/instructions.md"), instructions);
+    Files.writeString(exerciseDir.resolve(".docs/config.yml"),
+        "title: " + name + "\npoints: 10\ncreator: admin\nlesson_id: 1\n");
+    Files.writeString(exerciseDir.resolve(name + ".go"), "package " + name + "\n");
+  }
+
+  private RevCommit commitAndPush(String message) throws Exception {
+    author.add().addFilepattern(".").call();
+    RevCommit commit = author.commit().setMessage(message).setSign(false).call();
+    author.push().setRemote("origin").add(BRANCH).call();
+    return commit;
+  }
+
+  private byte[] pushPayload(String after) {
+    return ("{\"ref\":\"refs/heads/" + BRANCH + "\",\"before\":\"\",\"after\":\"" + after + "\"}")
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  private String sign(byte[] payload) throws Exception {
+    Mac mac = Mac.getInstance("HmacSHA256");
+    mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+    return "sha256=" + HexFormat.of().formatHex(mac.doFinal(payload));
+  }
+}